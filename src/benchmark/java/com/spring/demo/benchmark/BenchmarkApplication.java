@@ -0,0 +1,42 @@
+package com.spring.demo.benchmark;
+
+import com.spring.demo.Main;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class BenchmarkApplication {
+    private BenchmarkApplication() {
+    }
+
+    // command line args win over application.properties, so the profile and datasource can be switched per trial
+    public static ConfigurableApplicationContext start(String profile, String... properties) {
+        return start(WebApplicationType.NONE, profile, properties);
+    }
+
+    // full servlet stack on a random port, read it back from local.server.port
+    public static ConfigurableApplicationContext startServer(String profile, String... properties) {
+        final String[] withPort = Arrays.copyOf(properties, properties.length + 1);
+        withPort[properties.length] = "server.port=0";
+        return start(WebApplicationType.SERVLET, profile, withPort);
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String profile, String... properties) {
+        final List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=" + profile,
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + profile + ";NON_KEYWORDS=user",
+                "--logging.level.root=WARN"
+        ));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(Main.class)
+                .web(webApplicationType)
+                .logStartupInfo(false)
+                .run(args.toArray(String[]::new));
+    }
+}
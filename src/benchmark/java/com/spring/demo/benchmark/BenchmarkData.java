@@ -0,0 +1,92 @@
+package com.spring.demo.benchmark;
+
+import com.spring.demo.domain.TaskStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Seeds users, one project per user and tasks spread evenly over them, straight through JDBC batches
+ * so both profiles start from the same data regardless of how fast their own write path is.
+ */
+public final class BenchmarkData {
+    private static final String INSERT_USER = "INSERT INTO user (id, name, email) VALUES (next value for user_id_seq, ?, ?)";
+    private static final String INSERT_PROJECT = "INSERT INTO project (id, user_id, name, description, created_at)" +
+            " VALUES (next value for project_id_seq, ?, ?, ?, ?)";
+    private static final String INSERT_TASK = "INSERT INTO task (id, user_id, project_id, name, description, status, created_at)" +
+            " VALUES (next value for task_id_seq, ?, ?, ?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 1000;
+
+    private final long[] userIds;
+    private final long[] projectIds;
+    private final long minTaskId;
+    private final long maxTaskId;
+
+    private BenchmarkData(long[] userIds, long[] projectIds, long minTaskId, long maxTaskId) {
+        this.userIds = userIds;
+        this.projectIds = projectIds;
+        this.minTaskId = minTaskId;
+        this.maxTaskId = maxTaskId;
+    }
+
+    public static BenchmarkData seed(JdbcTemplate jdbcTemplate, int users, int tasks) {
+        final Timestamp now = Timestamp.from(Instant.now());
+        final List<Integer> userRows = IntStream.range(0, users).boxed().toList();
+        jdbcTemplate.batchUpdate(INSERT_USER, userRows, BATCH_SIZE, (stmt, i) -> {
+            stmt.setString(1, "Benchmark user " + i);
+            stmt.setString(2, "benchmark" + i + "@example.com");
+        });
+        final long[] userIds = jdbcTemplate.queryForList("SELECT id FROM user WHERE email LIKE 'benchmark%' ORDER BY id", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+
+        jdbcTemplate.batchUpdate(INSERT_PROJECT, userRows, BATCH_SIZE, (stmt, i) -> {
+            stmt.setLong(1, userIds[i]);
+            stmt.setString(2, "Benchmark project " + i);
+            stmt.setString(3, "Seeded by BenchmarkData");
+            stmt.setTimestamp(4, now);
+        });
+        final long[] projectIds = jdbcTemplate.queryForList("SELECT id FROM project WHERE name LIKE 'Benchmark project%' ORDER BY id", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+
+        final TaskStatus[] statuses = TaskStatus.values();
+        final List<Integer> taskRows = IntStream.range(0, tasks).boxed().toList();
+        jdbcTemplate.batchUpdate(INSERT_TASK, taskRows, BATCH_SIZE, (stmt, i) -> {
+            final int owner = i % users;
+            stmt.setLong(1, userIds[owner]);
+            stmt.setLong(2, projectIds[owner]);
+            stmt.setString(3, "Benchmark task " + i);
+            stmt.setString(4, "Seeded by BenchmarkData");
+            stmt.setString(5, statuses[i % statuses.length].name());
+            stmt.setTimestamp(6, now);
+        });
+        final Long minTaskId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM task WHERE name LIKE 'Benchmark task%'", Long.class);
+        final Long maxTaskId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM task WHERE name LIKE 'Benchmark task%'", Long.class);
+        return new BenchmarkData(userIds, projectIds, minTaskId, maxTaskId);
+    }
+
+    public long randomUserId(RandomGenerator random) {
+        return userIds[random.nextInt(userIds.length)];
+    }
+
+    public long randomProjectId(RandomGenerator random) {
+        return projectIds[random.nextInt(projectIds.length)];
+    }
+
+    public long randomTaskId(RandomGenerator random) {
+        return random.nextLong(minTaskId, maxTaskId + 1);
+    }
+
+    // one of the first hotTasks seeded tasks, the rows every thread of a contention benchmark fights over
+    public long hotTaskId(RandomGenerator random, int hotTasks) {
+        return minTaskId + random.nextLong(Math.min(hotTasks, maxTaskId - minTaskId + 1));
+    }
+
+    // tasks are dealt round robin over the users, so the owner's project follows from the task's position
+    public long projectIdOfTask(long taskId) {
+        return projectIds[(int) ((taskId - minTaskId) % projectIds.length)];
+    }
+}
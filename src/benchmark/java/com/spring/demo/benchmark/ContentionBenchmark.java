@@ -0,0 +1,102 @@
+package com.spring.demo.benchmark;
+
+import com.spring.demo.api.TaskService;
+import com.spring.demo.api.exception.ConflictException;
+import com.spring.demo.domain.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Status changes from several threads on a few hot tasks, optimistic compare-and-set writes against the
+ * read-under-row-lock approach they replaced.
+ * <ul>
+ *     <li>{@code optimistic}: {@link TaskService#changeStatus(long, TaskStatus)}, a lost race is retried by the service</li>
+ *     <li>{@code ifMatch}: reads the version first and sends it along like an {@code If-Match} client, conflicts are counted</li>
+ *     <li>{@code rowLock}: {@code SELECT ... FOR UPDATE} and the update in one transaction</li>
+ * </ul>
+ * {@code ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ContentionBenchmark -t 8"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(8)
+public class ContentionBenchmark {
+    private static final int USERS = 100;
+    private static final int TASKS = 10_000;
+    private static final String LOCK_TASK = "SELECT status FROM task WHERE id = ? FOR UPDATE";
+    private static final String UPDATE_STATUS = "UPDATE task SET status = ?, version = version + 1 WHERE id = ?";
+
+    @Param({"jdbc", "jpa"})
+    public String profile;
+
+    @Param({"1", "16", "1024"})
+    public int hotTasks;
+
+    ConfigurableApplicationContext context;
+    TaskService taskService;
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+    BenchmarkData data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(profile);
+        taskService = context.getBean(TaskService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        data = BenchmarkData.seed(jdbcTemplate, USERS, TASKS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Conflicts {
+        public long conflicts;
+    }
+
+    @Benchmark
+    public void optimistic() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        taskService.changeStatus(data.hotTaskId(random, hotTasks), randomStatus(random));
+    }
+
+    @Benchmark
+    public void ifMatch(Conflicts conflicts) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final long taskId = data.hotTaskId(random, hotTasks);
+        final long version = taskService.getVersion(taskId);
+        try {
+            taskService.changeStatus(taskId, randomStatus(random), version);
+        } catch (ConflictException e) {
+            conflicts.conflicts++;
+        }
+    }
+
+    @Benchmark
+    public void rowLock() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final long taskId = data.hotTaskId(random, hotTasks);
+        final TaskStatus status = randomStatus(random);
+        transactionTemplate.executeWithoutResult(transaction -> {
+            jdbcTemplate.queryForObject(LOCK_TASK, String.class, taskId);
+            jdbcTemplate.update(UPDATE_STATUS, status.name(), taskId);
+        });
+    }
+
+    private static TaskStatus randomStatus(ThreadLocalRandom random) {
+        return random.nextBoolean() ? TaskStatus.DONE : TaskStatus.IN_PROGRESS;
+    }
+}
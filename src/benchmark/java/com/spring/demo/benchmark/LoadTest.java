@@ -0,0 +1,138 @@
+package com.spring.demo.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Closed-loop HTTP load test: every connection is a client that keeps one request in flight against the real
+ * servlet stack, alternating {@code GET /task/{id}} with {@code PUT /task/{id}/assign} (the fan-out path),
+ * both ending in blocking JDBC on a 10 connection pool.
+ * <p>
+ * Prints latency percentiles, the peak number of platform threads and the pool wait time, run it once with
+ * virtual threads and once without:
+ * {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.spring.demo.benchmark.LoadTest -Dbenchmark.args="jdbc true 5000 30"}
+ */
+public final class LoadTest {
+    private static final int USERS = 1000;
+    private static final int TASKS = 100_000;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final String profile = args.length > 0 ? args[0] : "jdbc";
+        final boolean virtualThreads = args.length <= 1 || Boolean.parseBoolean(args[1]);
+        final int connections = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+        final Duration duration = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 30);
+
+        final ConfigurableApplicationContext context = BenchmarkApplication.startServer(profile,
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "server.tomcat.max-connections=" + (connections + 100),
+                "server.tomcat.accept-count=" + connections);
+        try {
+            final BenchmarkData data = BenchmarkData.seed(context.getBean(JdbcTemplate.class), USERS, TASKS);
+            final String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            final LongAccumulator peakThreads = new LongAccumulator(Math::max, 0);
+            final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+            sampler.scheduleAtFixedRate(() -> peakThreads.accumulate(threads.getThreadCount()), 0, 100, TimeUnit.MILLISECONDS);
+
+            // warm up with a fraction of the clients, then measure with all of them
+            run(baseUrl, data, Math.max(1, connections / 10), Duration.ofSeconds(5));
+            final Timer poolWaitBefore = context.getBean(MeterRegistry.class).find("hikaricp.connections.acquire").timer();
+            final double poolWaitTotalBefore = poolWaitBefore != null ? poolWaitBefore.totalTime(TimeUnit.MILLISECONDS) : 0;
+            final long poolWaitCountBefore = poolWaitBefore != null ? poolWaitBefore.count() : 0;
+            peakThreads.reset();
+            final Result result = run(baseUrl, data, connections, duration);
+            sampler.shutdownNow();
+
+            final Timer poolWait = context.getBean(MeterRegistry.class).find("hikaricp.connections.acquire").timer();
+            System.out.printf("profile=%s virtualThreads=%s connections=%d duration=%ds%n",
+                    profile, virtualThreads, connections, duration.toSeconds());
+            System.out.printf("requests=%d errors=%d throughput=%.0f req/s%n",
+                    result.latencies.length, result.errors, result.latencies.length / (double) duration.toSeconds());
+            System.out.printf("latency ms p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+                    result.percentile(50), result.percentile(90), result.percentile(99), result.percentile(99.9), result.percentile(100));
+            System.out.printf("peak platform threads=%d%n", peakThreads.get());
+            if (poolWait != null && poolWait.count() > poolWaitCountBefore) {
+                System.out.printf("pool wait ms mean=%.2f max=%.2f%n",
+                        (poolWait.totalTime(TimeUnit.MILLISECONDS) - poolWaitTotalBefore) / (poolWait.count() - poolWaitCountBefore),
+                        poolWait.max(TimeUnit.MILLISECONDS));
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Result run(String baseUrl, BenchmarkData data, int connections, Duration duration) throws InterruptedException {
+        final long deadline = System.nanoTime() + duration.toNanos();
+        final AtomicInteger errors = new AtomicInteger();
+        final List<long[]> perClient = new ArrayList<>(connections);
+        // client side runs on virtual threads as well, so the client never becomes the bottleneck
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < connections; c++) {
+                final List<Long> latencies = new ArrayList<>();
+                clients.execute(() -> {
+                    final ThreadLocalRandom random = ThreadLocalRandom.current();
+                    boolean assign = random.nextBoolean();
+                    while (System.nanoTime() < deadline) {
+                        final long taskId = data.randomTaskId(random);
+                        final HttpRequest request = assign
+                                ? HttpRequest.newBuilder(URI.create(baseUrl + "/task/" + taskId + "/assign"))
+                                        .header("Content-Type", "application/json")
+                                        .PUT(HttpRequest.BodyPublishers.ofString("{\"projectId\":" + data.projectIdOfTask(taskId) + "}"))
+                                        .build()
+                                : HttpRequest.newBuilder(URI.create(baseUrl + "/task/" + taskId)).GET().build();
+                        assign = !assign;
+                        final long start = System.nanoTime();
+                        try {
+                            final HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 300) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.add(System.nanoTime() - start);
+                    }
+                    synchronized (perClient) {
+                        perClient.add(latencies.stream().mapToLong(Long::longValue).toArray());
+                    }
+                });
+            }
+        }
+        final long[] latencies = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(latencies, errors.get());
+    }
+
+    private record Result(long[] latencies, int errors) {
+        double percentile(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            final int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1_000_000.0;
+        }
+    }
+}
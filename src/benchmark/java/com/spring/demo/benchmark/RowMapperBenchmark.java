@@ -0,0 +1,71 @@
+package com.spring.demo.benchmark;
+
+import com.spring.demo.domain.Task;
+import com.spring.demo.domain.TaskStatus;
+import com.spring.demo.implementation.jdbc.mapper.TaskRowMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of mapping a full task scan: the previous {@code SELECT *} + by-name mapper against the
+ * explicit column list + positional {@link TaskRowMapper}. Scores and {@code -prof gc} allocation are per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RowMapperBenchmark {
+    private static final int ROWS = 1_000_000;
+
+    private static final RowMapper<Task> BY_NAME = (rs, rowNum) -> new Task(
+            rs.getLong("id"),
+            rs.getLong("user_id"),
+            rs.getObject("project_id") != null ? rs.getLong("project_id") : null,
+            rs.getString("name"),
+            rs.getString("description"),
+            TaskStatus.fromString(rs.getString("status")),
+            rs.getTimestamp("created_at").toLocalDateTime().atOffset(ZoneOffset.UTC)
+    );
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private TaskRowMapper positional;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("jdbc");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        positional = context.getBean(TaskRowMapper.class);
+        jdbcTemplate.update("DELETE FROM task");
+        BenchmarkData.seed(jdbcTemplate, 1000, ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void selectStarByName(Blackhole blackhole) {
+        jdbcTemplate.query("SELECT * FROM task", rs -> {
+            blackhole.consume(BY_NAME.mapRow(rs, 0));
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void columnListPositional(Blackhole blackhole) {
+        jdbcTemplate.query("SELECT " + TaskRowMapper.COLUMNS + " FROM task", rs -> {
+            blackhole.consume(positional.mapRow(rs, 0));
+        });
+    }
+}
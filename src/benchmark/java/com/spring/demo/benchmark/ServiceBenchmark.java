@@ -0,0 +1,157 @@
+package com.spring.demo.benchmark;
+
+import com.spring.demo.api.ProjectService;
+import com.spring.demo.api.TaskService;
+import com.spring.demo.api.UserService;
+import com.spring.demo.api.request.TaskAddRequest;
+import com.spring.demo.domain.CursorPage;
+import com.spring.demo.domain.Project;
+import com.spring.demo.domain.Task;
+import com.spring.demo.domain.TaskStatus;
+import com.spring.demo.domain.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Every service method of the jdbc and jpa profiles against the same seeded H2 database.
+ * <p>
+ * Throughput and average latency come from the benchmark modes, allocation rate from the gc profiler:
+ * {@code ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ServiceBenchmark -prof gc -p tasks=100000"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ServiceBenchmark {
+    private static final int USERS = 1000;
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"jdbc", "jpa"})
+    public String profile;
+
+    @Param({"1000", "100000", "1000000"})
+    public int tasks;
+
+    ConfigurableApplicationContext context;
+    TaskService taskService;
+    ProjectService projectService;
+    UserService userService;
+    BenchmarkData data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(profile);
+        taskService = context.getBean(TaskService.class);
+        projectService = context.getBean(ProjectService.class);
+        userService = context.getBean(UserService.class);
+        data = BenchmarkData.seed(context.getBean(JdbcTemplate.class), USERS, tasks);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Tasks created outside the measured region so that {@code delete} always hits an existing row.
+     */
+    @State(Scope.Benchmark)
+    public static class DeletePool {
+        private static final int POOL_SIZE = 200_000;
+
+        private List<Long> ids;
+        private int next;
+
+        @Setup(Level.Iteration)
+        public void fill(ServiceBenchmark benchmark) {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            final long userId = benchmark.data.randomUserId(random);
+            ids = benchmark.taskService.addAll(IntStream.range(0, POOL_SIZE)
+                    .mapToObj(i -> new TaskAddRequest(userId, null, "Delete me " + i, null))
+                    .toList());
+            next = 0;
+        }
+
+        synchronized long next(ServiceBenchmark benchmark) {
+            if (next == ids.size()) {
+                fill(benchmark);
+            }
+            return ids.get(next++);
+        }
+    }
+
+    @Benchmark
+    public Task taskGet() {
+        return taskService.get(data.randomTaskId(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public List<Task> taskGetAll() {
+        return taskService.getAll();
+    }
+
+    @Benchmark
+    public CursorPage<Task> taskGetPage() {
+        return taskService.getPage(data.randomTaskId(ThreadLocalRandom.current()), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Task> taskGetAllByUserId() {
+        return taskService.getAllByUserId(data.randomUserId(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public List<Task> taskGetAllByProjectId() {
+        return taskService.getAllByProjectId(data.randomProjectId(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public long taskAdd() {
+        final long userId = data.randomUserId(ThreadLocalRandom.current());
+        return taskService.add(new TaskAddRequest(userId, null, "Benchmark add", "Added by ServiceBenchmark"));
+    }
+
+    @Benchmark
+    public void taskChangeStatus() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        taskService.changeStatus(data.randomTaskId(random), random.nextBoolean() ? TaskStatus.DONE : TaskStatus.IN_PROGRESS);
+    }
+
+    @Benchmark
+    public void taskDelete(DeletePool pool) {
+        taskService.delete(pool.next(this));
+    }
+
+    @Benchmark
+    public Project projectGet() {
+        return projectService.get(data.randomProjectId(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public List<Project> projectGetAll() {
+        return projectService.getAll();
+    }
+
+    @Benchmark
+    public List<Project> projectGetAllByUser() {
+        return projectService.getAllByUser(data.randomUserId(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public User userGet() {
+        return userService.get(data.randomUserId(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public List<User> userGetAll() {
+        return userService.getAll();
+    }
+}
@@ -0,0 +1,60 @@
+package com.spring.demo.benchmark;
+
+import com.spring.demo.api.TaskService;
+import com.spring.demo.api.request.TaskAddRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Inserts/sec of the jpa profile: one {@code add} per task versus the batched {@code addAll} path.
+ * Scores are reported per inserted task, so both benchmarks compare directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class TaskInsertBenchmark {
+    private static final int TASKS_PER_INVOCATION = 1000;
+
+    @Param({"1", "50"})
+    public int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private List<TaskAddRequest> requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("jpa", "spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize);
+        taskService = context.getBean(TaskService.class);
+        requests = IntStream.range(0, TASKS_PER_INVOCATION)
+                .mapToObj(i -> new TaskAddRequest(1L, 1L, "Benchmark task " + i, "Inserted by TaskInsertBenchmark"))
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS_PER_INVOCATION)
+    public void addOneByOne(Blackhole blackhole) {
+        for (TaskAddRequest request : requests) {
+            blackhole.consume(taskService.add(request));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS_PER_INVOCATION)
+    public List<Long> addAll() {
+        return taskService.addAll(requests);
+    }
+}
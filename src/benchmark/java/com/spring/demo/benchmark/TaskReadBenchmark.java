@@ -0,0 +1,66 @@
+package com.spring.demo.benchmark;
+
+import com.spring.demo.api.TaskService;
+import com.spring.demo.api.request.TaskAddRequest;
+import com.spring.demo.domain.Task;
+import com.spring.demo.implementation.jpa.repository.TaskJpaRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Managed entities + copy into {@link Task} versus the constructor-expression projection of the jpa profile.
+ * Run with {@code -prof gc} to compare the allocation per list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class TaskReadBenchmark {
+    @Param({"10000"})
+    public int tasks;
+
+    private ConfigurableApplicationContext context;
+    private TaskJpaRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("jpa");
+        repository = context.getBean(TaskJpaRepository.class);
+        final TaskService taskService = context.getBean(TaskService.class);
+        final List<TaskAddRequest> requests = IntStream.range(0, tasks)
+                .mapToObj(i -> new TaskAddRequest(1L, 1L, "Benchmark task " + i, "Inserted by TaskReadBenchmark"))
+                .toList();
+        taskService.addAll(requests);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Task> managedEntities() {
+        return repository.findAll().stream()
+                .map(entity -> new Task(
+                        entity.getId(),
+                        entity.getUser().getId(),
+                        entity.getProject() != null ? entity.getProject().getId() : null,
+                        entity.getName(),
+                        entity.getDescription(),
+                        entity.getStatus(),
+                        entity.getCreatedAt()
+                ))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Task> projection() {
+        return repository.findAllTasks();
+    }
+}
@@ -2,6 +2,8 @@ package com.spring.demo.api;
 
 import com.spring.demo.api.request.ProjectAddRequest;
 import com.spring.demo.api.request.ProjectEditRequest;
+import com.spring.demo.domain.CursorPage;
+import com.spring.demo.domain.ListVersion;
 import com.spring.demo.domain.Project;
 
 import java.util.List;
@@ -10,8 +12,13 @@ public interface ProjectService {
     Project get(long id);
     List<Project> getAll();
     List<Project> getAllByUser(long userId);
+    CursorPage<Project> getPage(long afterId, int limit);
+    long getVersion(long id);
+    ListVersion getAllVersionByUser(long userId);
+    ListVersion getPageVersion(long afterId, int limit);
     void delete(long id);
 
     long add(ProjectAddRequest request);
     void edit(long id, ProjectEditRequest request);
+    void edit(long id, ProjectEditRequest request, Long expectedVersion);
 }
@@ -0,0 +1,7 @@
+package com.spring.demo.api;
+
+import com.spring.demo.domain.ProjectStats;
+
+public interface ProjectStatsService {
+    ProjectStats get(long projectId);
+}
@@ -2,20 +2,61 @@ package com.spring.demo.api;
 
 import com.spring.demo.api.request.TaskAddRequest;
 import com.spring.demo.api.request.TaskEditRequest;
+import com.spring.demo.domain.CursorPage;
+import com.spring.demo.domain.ListVersion;
+import com.spring.demo.domain.ProjectStatusCount;
 import com.spring.demo.domain.Task;
 import com.spring.demo.domain.TaskStatus;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TaskService {
     long add(TaskAddRequest request);
+    List<Long> addAll(List<TaskAddRequest> requests);
     void edit (long id, TaskEditRequest request);
     void changeStatus(long id, TaskStatus status);
     void assignProject(long taskId, long projectId);
     void delete(long id);
+
+    // expectedVersion: the write only applies to that row version and fails with a ConflictException otherwise, null applies it to any
+    void edit(long id, TaskEditRequest request, Long expectedVersion);
+    void changeStatus(long id, TaskStatus status, Long expectedVersion);
+    void assignProject(long taskId, long projectId, Long expectedVersion);
+    void delete(long id, Long expectedVersion);
+
+    // set-based writes over every matching task, each returns how many tasks changed
+    int changeStatusByProjectId(long projectId, TaskStatus status);
+    int changeStatusByUserId(long userId, TaskStatus status);
+    // only tasks of the target project's owner move, the others stay in fromProjectId
+    int assignProjectByProjectId(long fromProjectId, long toProjectId);
+
     Task get(long id);
 
     List<Task> getAll();
     List<Task> getAllByUserId(long userId);
     List<Task> getAllByProjectId(long projectId);
+
+    CursorPage<Task> getPage(long afterId, int limit);
+    CursorPage<Task> getPageByUserId(long userId, long afterId, int limit);
+    CursorPage<Task> getPageByProjectId(long projectId, long afterId, int limit);
+    CursorPage<Task> getPageByStatus(TaskStatus status, long afterId, int limit);
+
+    List<Long> getIdsByStatus(TaskStatus status);
+
+    // every task in id order through a forward-only cursor reading fetchSize rows at a time, only the current row is held
+    void streamAll(int fetchSize, Consumer<Task> consumer);
+
+    // ranked full-text matches, paged by rank offset: nextAfter of the result is the offset of the next page
+    CursorPage<Task> search(String query, Long userId, int offset, int limit);
+
+    long getVersion(long id);
+    ListVersion getAllVersionByUserId(long userId);
+    ListVersion getAllVersionByProjectId(long projectId);
+    ListVersion getPageVersion(long afterId, int limit);
+    ListVersion getPageVersionByUserId(long userId, long afterId, int limit);
+    ListVersion getPageVersionByProjectId(long projectId, long afterId, int limit);
+    ListVersion getPageVersionByStatus(TaskStatus status, long afterId, int limit);
+
+    List<ProjectStatusCount> countByProjectAndStatus();
 }
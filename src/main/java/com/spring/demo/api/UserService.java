@@ -1,6 +1,8 @@
 package com.spring.demo.api;
 
 import com.spring.demo.api.request.UserAddRequest;
+import com.spring.demo.domain.CursorPage;
+import com.spring.demo.domain.ListVersion;
 import com.spring.demo.domain.User;
 
 import java.util.List;
@@ -10,4 +12,7 @@ public interface UserService {
     void delete(long id);
     User get(long id);
     List<User> getAll();
+    CursorPage<User> getPage(long afterId, int limit);
+    long getVersion(long id);
+    ListVersion getPageVersion(long afterId, int limit);
 }
@@ -0,0 +1,216 @@
+package com.spring.demo.api.codec;
+
+import com.spring.demo.domain.Project;
+import com.spring.demo.domain.Task;
+import com.spring.demo.domain.TaskStatus;
+import com.spring.demo.domain.User;
+import org.springframework.http.MediaType;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of task, project and user lists.
+ * <p>
+ * A list is a format byte, a kind byte and a row count, followed by the rows field by field in declaration order
+ * without names. Integers are unsigned LEB128 varints, nullable ids are stored as {@code id + 1} with 0 for null,
+ * strings as varint byte length + 1 (0 for null) and UTF-8 bytes, status as its ordinal byte and timestamps as
+ * zig-zag epoch seconds plus nanoseconds, decoded at UTC.
+ */
+public final class CompactCodec {
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.spring-demo.compact";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private static final int FORMAT = 1;
+    private static final int TASKS = 'T';
+    private static final int PROJECTS = 'P';
+    private static final int USERS = 'U';
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private CompactCodec() {
+    }
+
+    public static void encodeTasks(List<Task> tasks, OutputStream out) throws IOException {
+        writeHeader(out, TASKS, tasks.size());
+        for (Task task : tasks) {
+            writeVarLong(out, task.getId());
+            writeVarLong(out, task.getUserId());
+            writeVarLong(out, task.getProjectId() == null ? 0 : task.getProjectId() + 1);
+            writeString(out, task.getName());
+            writeString(out, task.getDescription());
+            out.write(task.getStatus().ordinal());
+            writeTimestamp(out, task.getCreatedAt());
+        }
+    }
+
+    public static List<Task> decodeTasks(InputStream in) throws IOException {
+        return decodeTasks(in, readHeader(in, TASKS));
+    }
+
+    private static List<Task> decodeTasks(InputStream in, int count) throws IOException {
+        final List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final long id = readVarLong(in);
+            final long userId = readVarLong(in);
+            final long projectId = readVarLong(in);
+            tasks.add(new Task(
+                    id,
+                    userId,
+                    projectId == 0 ? null : projectId - 1,
+                    readString(in),
+                    readString(in),
+                    STATUSES[readByte(in)],
+                    readTimestamp(in)
+            ));
+        }
+        return tasks;
+    }
+
+    public static void encodeProjects(List<Project> projects, OutputStream out) throws IOException {
+        writeHeader(out, PROJECTS, projects.size());
+        for (Project project : projects) {
+            writeVarLong(out, project.getId());
+            writeVarLong(out, project.getUserId());
+            writeString(out, project.getName());
+            writeString(out, project.getDescription());
+            writeTimestamp(out, project.getCreatedAt());
+        }
+    }
+
+    public static List<Project> decodeProjects(InputStream in) throws IOException {
+        return decodeProjects(in, readHeader(in, PROJECTS));
+    }
+
+    private static List<Project> decodeProjects(InputStream in, int count) throws IOException {
+        final List<Project> projects = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            projects.add(new Project(readVarLong(in), readVarLong(in), readString(in), readString(in), readTimestamp(in)));
+        }
+        return projects;
+    }
+
+    public static void encodeUsers(List<User> users, OutputStream out) throws IOException {
+        writeHeader(out, USERS, users.size());
+        for (User user : users) {
+            writeVarLong(out, user.getId());
+            writeString(out, user.getName());
+            writeString(out, user.getEmail());
+        }
+    }
+
+    public static List<User> decodeUsers(InputStream in) throws IOException {
+        return decodeUsers(in, readHeader(in, USERS));
+    }
+
+    private static List<User> decodeUsers(InputStream in, int count) throws IOException {
+        final List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new User(readVarLong(in), readString(in), readString(in)));
+        }
+        return users;
+    }
+
+    /**
+     * Decodes whichever list the kind byte of the header announces.
+     */
+    public static List<?> decode(InputStream in) throws IOException {
+        final int format = readByte(in);
+        final int kind = readByte(in);
+        if (format != FORMAT) {
+            throw new IOException("Unexpected compact header: format " + format + ", kind " + (char) kind);
+        }
+        final int count = Math.toIntExact(readVarLong(in));
+        return switch (kind) {
+            case TASKS -> decodeTasks(in, count);
+            case PROJECTS -> decodeProjects(in, count);
+            case USERS -> decodeUsers(in, count);
+            default -> throw new IOException("Unexpected compact header: format " + format + ", kind " + (char) kind);
+        };
+    }
+
+    private static void writeHeader(OutputStream out, int kind, int count) throws IOException {
+        out.write(FORMAT);
+        out.write(kind);
+        writeVarLong(out, count);
+    }
+
+    private static int readHeader(InputStream in, int kind) throws IOException {
+        final int format = readByte(in);
+        final int actualKind = readByte(in);
+        if (format != FORMAT || actualKind != kind) {
+            throw new IOException("Unexpected compact header: format " + format + ", kind " + (char) actualKind);
+        }
+        return Math.toIntExact(readVarLong(in));
+    }
+
+    private static void writeTimestamp(OutputStream out, OffsetDateTime timestamp) throws IOException {
+        final Instant instant = timestamp.toInstant();
+        final long seconds = instant.getEpochSecond();
+        writeVarLong(out, (seconds << 1) ^ (seconds >> 63));
+        writeVarLong(out, instant.getNano());
+    }
+
+    private static OffsetDateTime readTimestamp(InputStream in) throws IOException {
+        final long zigZag = readVarLong(in);
+        final long seconds = (zigZag >>> 1) ^ -(zigZag & 1);
+        return Instant.ofEpochSecond(seconds, readVarLong(in)).atOffset(ZoneOffset.UTC);
+    }
+
+    private static void writeString(OutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static String readString(InputStream in) throws IOException {
+        final long length = readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        final byte[] bytes = in.readNBytes(Math.toIntExact(length - 1));
+        if (bytes.length != length - 1) {
+            throw new EOFException("Truncated compact string");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = readByte(in);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed compact varint");
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        final int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Truncated compact payload");
+        }
+        return b;
+    }
+}
@@ -0,0 +1,104 @@
+package com.spring.demo.api.codec;
+
+import com.spring.demo.domain.Project;
+import com.spring.demo.domain.Task;
+import com.spring.demo.domain.User;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Reads and writes {@code List<Task>}, {@code List<Project>} and {@code List<User>} as {@link CompactCodec#MEDIA_TYPE}.
+ */
+public class CompactHttpMessageConverter extends AbstractGenericHttpMessageConverter<List<?>> {
+
+    public CompactHttpMessageConverter() {
+        super(CompactCodec.MEDIA_TYPE);
+    }
+
+    // a raw List says nothing about its rows, only the generic canRead/canWrite below accept a type
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return false;
+    }
+
+    // content negotiation asks by class, the generic checks decide whether the element type fits
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return elementType(type) != null && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return elementType(type) != null && canWrite(mediaType);
+    }
+
+    @Override
+    protected void writeInternal(List<?> rows, Type type, HttpOutputMessage outputMessage) throws IOException {
+        final OutputStream out = new BufferedOutputStream(outputMessage.getBody());
+        final Class<?> elementType = elementType(type);
+        if (elementType == Task.class) {
+            CompactCodec.encodeTasks(cast(rows), out);
+        } else if (elementType == Project.class) {
+            CompactCodec.encodeProjects(cast(rows), out);
+        } else {
+            CompactCodec.encodeUsers(cast(rows), out);
+        }
+        out.flush();
+    }
+
+    @Override
+    public List<?> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        final Class<?> elementType = elementType(type);
+        try {
+            if (elementType == Task.class) {
+                return CompactCodec.decodeTasks(inputMessage.getBody());
+            } else if (elementType == Project.class) {
+                return CompactCodec.decodeProjects(inputMessage.getBody());
+            }
+            return CompactCodec.decodeUsers(inputMessage.getBody());
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Invalid compact payload: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected List<?> readInternal(Class<? extends List<?>> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return CompactCodec.decode(inputMessage.getBody());
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Invalid compact payload: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    private static Class<?> elementType(Type type) {
+        if (type == null) {
+            return null;
+        }
+        final ResolvableType resolved = ResolvableType.forType(type);
+        if (!List.class.isAssignableFrom(resolved.toClass())) {
+            return null;
+        }
+        final Class<?> element = resolved.asCollection().resolveGeneric(0);
+        return element == Task.class || element == Project.class || element == User.class ? element : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> cast(List<?> rows) {
+        return (List<T>) rows;
+    }
+}
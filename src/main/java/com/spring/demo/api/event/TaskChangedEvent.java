@@ -0,0 +1,26 @@
+package com.spring.demo.api.event;
+
+import com.spring.demo.domain.Task;
+import lombok.Value;
+
+/**
+ * Published by the task services for every successful mutation.
+ * {@code before} is null for a new task, {@code after} is null for a deleted one.
+ */
+@Value
+public class TaskChangedEvent {
+    Task before;
+    Task after;
+
+    public static TaskChangedEvent added(Task task) {
+        return new TaskChangedEvent(null, task);
+    }
+
+    public static TaskChangedEvent updated(Task before, Task after) {
+        return new TaskChangedEvent(before, after);
+    }
+
+    public static TaskChangedEvent deleted(Task task) {
+        return new TaskChangedEvent(task, null);
+    }
+}
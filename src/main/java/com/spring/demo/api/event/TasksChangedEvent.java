@@ -0,0 +1,35 @@
+package com.spring.demo.api.event;
+
+import com.spring.demo.domain.TaskBulkChange;
+import com.spring.demo.domain.TaskChangeType;
+import com.spring.demo.domain.TaskStatus;
+import lombok.Value;
+
+/**
+ * Published instead of one {@link TaskChangedEvent} per row for set-based writes and for the tasks a project or user
+ * delete takes along through ON DELETE CASCADE. The rows are never loaded for it: listeners apply the change
+ * by owner or reload what they keep from the database.
+ */
+@Value
+public class TasksChangedEvent {
+    TaskChangeType type;
+    TaskBulkChange change;
+
+    public static TasksChangedEvent projectDeleted(long projectId) {
+        return new TasksChangedEvent(TaskChangeType.TASKS_DELETED, new TaskBulkChange(projectId, null, null, null));
+    }
+
+    // only the tasks of the user, those of other users in the user's projects go with projectDeleted
+    public static TasksChangedEvent userDeleted(long userId) {
+        return new TasksChangedEvent(TaskChangeType.TASKS_DELETED, new TaskBulkChange(null, userId, null, null));
+    }
+
+    public static TasksChangedEvent statusChanged(Long projectId, Long userId, TaskStatus status) {
+        return new TasksChangedEvent(TaskChangeType.TASKS_STATUS_CHANGED, new TaskBulkChange(projectId, userId, status, null));
+    }
+
+    // tasks of the target project's owner only, see TaskService#assignProjectByProjectId
+    public static TasksChangedEvent assigned(long fromProjectId, long ownerId, long toProjectId) {
+        return new TasksChangedEvent(TaskChangeType.TASKS_ASSIGNED, new TaskBulkChange(fromProjectId, ownerId, null, toProjectId));
+    }
+}
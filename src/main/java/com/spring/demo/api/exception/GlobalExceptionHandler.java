@@ -28,6 +28,11 @@ public class GlobalExceptionHandler {
     return buildResponse(ex, HttpStatus.BAD_REQUEST, req.getRequestURI());
   }
 
+  @ExceptionHandler(ConflictException.class)
+  public ResponseEntity<Map<String, Object>> handleConflict(ConflictException ex, HttpServletRequest req) {
+    return buildResponse(ex, HttpStatus.CONFLICT, req.getRequestURI());
+  }
+
   private ResponseEntity<Map<String, Object>> buildResponse(Exception ex, HttpStatus status, String path) {
     Map<String, Object> body = new LinkedHashMap<>();
     body.put("timestamp", Instant.now());
@@ -0,0 +1,27 @@
+package com.spring.demo.api.request;
+
+import com.spring.demo.domain.BatchOperationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of {@code POST /batch}. {@code id}, {@code userId} and {@code projectId} take either a number or
+ * {@code "$name"}, the id an earlier ADD operation of the same batch created under {@code ref = "name"}.
+ * {@code version} is the expected row version of the edits and deletes that check one.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOperation {
+    private BatchOperationType op;
+    private String ref;
+    private String id;
+    private String userId;
+    private String projectId;
+    private String name;
+    private String email;
+    private String description;
+    private String status;
+    private Long version;
+}
@@ -0,0 +1,25 @@
+package com.spring.demo.controller;
+
+import com.spring.demo.api.request.BatchOperation;
+import com.spring.demo.domain.BatchResult;
+import com.spring.demo.implementation.batch.BatchExecutor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("batch")
+@RequiredArgsConstructor
+public class BatchController {
+    private final BatchExecutor batchExecutor;
+
+    @PostMapping
+    public ResponseEntity<List<BatchResult>> execute(@RequestBody List<BatchOperation> operations) {
+        return ResponseEntity.ok().body(batchExecutor.execute(operations));
+    }
+}
@@ -0,0 +1,81 @@
+package com.spring.demo.controller;
+
+import com.spring.demo.api.codec.CompactCodec;
+import com.spring.demo.api.exception.BadRequestException;
+import com.spring.demo.domain.ListVersion;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Strong ETags from row versions, compared before the body is loaded so a 304 costs one small query.
+ */
+public final class ETags {
+    private ETags() {
+    }
+
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static String of(ListVersion version) {
+        return "\"" + version.getCount() + "-" + Long.toHexString(version.getIdSum()) + "-" + Long.toHexString(version.getLastChange()) + "\"";
+    }
+
+    /**
+     * The row version an {@code If-Match} header asks for, null when there is no header or it is {@code *}.
+     */
+    public static Long version(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        final String etag = ifMatch.trim();
+        if (etag.length() < 3 || etag.charAt(0) != '"' || etag.charAt(etag.length() - 1) != '"') {
+            throw new BadRequestException("If-Match must be a single strong ETag: " + ifMatch);
+        }
+        try {
+            return Long.parseLong(etag.substring(1, etag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("If-Match must be a single strong ETag: " + ifMatch);
+        }
+    }
+
+    // checkNotModified writes the 304 (or the ETag header of the full response) itself, null tells Spring the response is handled
+    public static <T> ResponseEntity<T> conditional(WebRequest request, String etag, Supplier<ResponseEntity<T>> response) {
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return response.get();
+    }
+
+    /**
+     * {@link #conditional} for the lists, which are written as JSON or compact depending on {@code Accept}.
+     * The tag names the encoding, and {@code Vary: Accept} goes on the 304 as well as the full response so a
+     * cache keys the two encodings apart.
+     */
+    public static <T> ResponseEntity<T> negotiated(WebRequest request, String etag, Supplier<ResponseEntity<T>> response) {
+        if (request instanceof NativeWebRequest nativeRequest) {
+            final HttpServletResponse servletResponse = nativeRequest.getNativeResponse(HttpServletResponse.class);
+            if (servletResponse != null) {
+                servletResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+        }
+        return conditional(request, representation(request, etag), response);
+    }
+
+    // a strong ETag identifies the bytes, so the compact encoding of a list must not share the JSON one's tag
+    private static String representation(WebRequest request, String etag) {
+        final String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || !accept.contains(CompactCodec.MEDIA_TYPE_VALUE)) {
+            return etag;
+        }
+        final boolean compact = MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(mediaType -> mediaType.equalsTypeAndSubtype(CompactCodec.MEDIA_TYPE) && mediaType.getQualityValue() > 0);
+        return compact ? etag.substring(0, etag.length() - 1) + "-c\"" : etag;
+    }
+}
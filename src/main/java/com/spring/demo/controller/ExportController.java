@@ -0,0 +1,81 @@
+package com.spring.demo.controller;
+
+import com.spring.demo.domain.ExportJob;
+import com.spring.demo.domain.JobStatus;
+import com.spring.demo.implementation.export.TaskExporter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+@RestController
+@RequestMapping("export")
+@RequiredArgsConstructor
+public class ExportController {
+    private static final String GZIP = "application/gzip";
+    // Tomcat's sendfile contract, the connector hands the file to the kernel once the handler returns
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final TaskExporter taskExporter;
+
+    @PostMapping("tasks")
+    public ResponseEntity<ExportJob> exportTasks() {
+        final ExportJob job = taskExporter.start();
+        return ResponseEntity.accepted().location(URI.create("/export/" + job.getId())).body(job);
+    }
+
+    @GetMapping("{jobId}")
+    public ResponseEntity<ExportJob> get(@PathVariable("jobId") String jobId) {
+        final ExportJob job = taskExporter.get(jobId);
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (job.getStatus() == JobStatus.DONE) {
+            response.header(HttpHeaders.LINK, "</export/" + jobId + "/download>; rel=\"download\"");
+        }
+        return response.body(job);
+    }
+
+    @GetMapping("{jobId}/download")
+    public void download(@PathVariable("jobId") String jobId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        final Path file = taskExporter.file(jobId);
+        final long size = Files.size(file);
+        response.setContentType(GZIP);
+        response.setContentLengthLong(size);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(file.getFileName().toString())
+                .build()
+                .toString());
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return;
+        }
+        // a connector without sendfile gets the file copied through the response stream
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.spring.demo.controller;
+
+import com.spring.demo.domain.ImportJob;
+import com.spring.demo.implementation.importing.ImportFailedException;
+import com.spring.demo.implementation.importing.ImportFormat;
+import com.spring.demo.implementation.importing.TaskImporter;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+
+@RestController
+@RequestMapping("import")
+@RequiredArgsConstructor
+public class ImportController {
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
+    private final TaskImporter taskImporter;
+
+    @PostMapping(value = "tasks", consumes = NDJSON)
+    public ResponseEntity<ImportJob> importNdjson(HttpServletRequest request) throws IOException {
+        return importTasks(ImportFormat.NDJSON, request);
+    }
+
+    @PostMapping(value = "tasks", consumes = CSV)
+    public ResponseEntity<ImportJob> importCsv(HttpServletRequest request) throws IOException {
+        return importTasks(ImportFormat.CSV, request);
+    }
+
+    @GetMapping("{jobId}")
+    public ResponseEntity<ImportJob> get(@PathVariable("jobId") String jobId) {
+        return ResponseEntity.ok().body(taskImporter.get(jobId));
+    }
+
+    // the body is read while the batches are written, so the upload arrives no faster than they commit.
+    // The status goes out once the import has ended: 200 when it read the upload to the end, 400 when the upload
+    // broke off or could not be read as tasks, 500 when the server failed. Either way the body is the job, and
+    // the batches written before a failure stay committed
+    private ResponseEntity<ImportJob> importTasks(ImportFormat format, HttpServletRequest request) throws IOException {
+        final String jobId = taskImporter.start();
+        final URI location = URI.create("/import/" + jobId);
+        try {
+            return ResponseEntity.ok().location(location).body(taskImporter.run(jobId, format, request.getReader()));
+        } catch (ImportFailedException e) {
+            return ResponseEntity.status(e.isUploadRejected() ? HttpStatus.BAD_REQUEST : HttpStatus.INTERNAL_SERVER_ERROR)
+                    .location(location)
+                    .body(e.getJob());
+        }
+    }
+}
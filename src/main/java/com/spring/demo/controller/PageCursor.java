@@ -0,0 +1,83 @@
+package com.spring.demo.controller;
+
+import com.spring.demo.api.exception.BadRequestException;
+import com.spring.demo.domain.CursorPage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+public final class PageCursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private static final String PREFIX = "id:";
+    private static final String OFFSET_PREFIX = "rank:";
+
+    private PageCursor() {
+    }
+
+    public static String encode(long afterId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + afterId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static long decode(String cursor) {
+        return decode(cursor, PREFIX);
+    }
+
+    // ranked results have no id order to continue from, their cursor is the position in the ranking
+    public static int decodeOffset(String cursor) {
+        final long offset = decode(cursor, OFFSET_PREFIX);
+        if (offset < 0 || offset > Integer.MAX_VALUE) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+        return (int) offset;
+    }
+
+    // search results are written JSON or compact like the other lists but have no ETag, so they name Accept in Vary here
+    public static <T> ResponseEntity<List<T>> toRankedResponse(CursorPage<T> page) {
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        if (page.getNextAfter() != null) {
+            response.header(NEXT_CURSOR_HEADER, Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((OFFSET_PREFIX + page.getNextAfter()).getBytes(StandardCharsets.US_ASCII)));
+        }
+        return response.body(page.getItems());
+    }
+
+    private static long decode(String cursor, String prefix) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            final String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (!value.startsWith(prefix)) {
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            }
+            return Long.parseLong(value.substring(prefix.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    public static <T> ResponseEntity<List<T>> toResponse(CursorPage<T> page) {
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextAfter() != null) {
+            response.header(NEXT_CURSOR_HEADER, encode(page.getNextAfter()));
+        }
+        return response.body(page.getItems());
+    }
+}
@@ -1,12 +1,16 @@
 package com.spring.demo.controller;
 
 import com.spring.demo.api.ProjectService;
+import com.spring.demo.api.ProjectStatsService;
 import com.spring.demo.api.request.ProjectAddRequest;
 import com.spring.demo.api.request.ProjectEditRequest;
 import com.spring.demo.domain.Project;
+import com.spring.demo.domain.ProjectStats;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -15,18 +19,32 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProjectController {
     private final ProjectService projectService;
+    private final ProjectStatsService projectStatsService;
 
     @GetMapping
-    public ResponseEntity<List<Project>> getAll(@RequestParam(required = false) Long userId){
+    public ResponseEntity<List<Project>> getAll(@RequestParam(required = false) Long userId,
+                                                @RequestParam(required = false) String after,
+                                                @RequestParam(required = false) Integer limit,
+                                                WebRequest webRequest){
         if(userId != null) {
-            return ResponseEntity.ok().body(projectService.getAllByUser(userId));
+            return ETags.negotiated(webRequest, ETags.of(projectService.getAllVersionByUser(userId)),
+                    () -> ResponseEntity.ok().body(projectService.getAllByUser(userId)));
         }
-        return ResponseEntity.ok().body(projectService.getAll());
+        final long afterId = PageCursor.decode(after);
+        final int pageLimit = PageCursor.limit(limit);
+        return ETags.negotiated(webRequest, ETags.of(projectService.getPageVersion(afterId, pageLimit)),
+                () -> PageCursor.toResponse(projectService.getPage(afterId, pageLimit)));
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<Project> getById(@PathVariable("id") long id){
-        return ResponseEntity.ok().body(projectService.get(id));
+    public ResponseEntity<Project> getById(@PathVariable("id") long id, WebRequest webRequest){
+        return ETags.conditional(webRequest, ETags.of(projectService.getVersion(id)),
+                () -> ResponseEntity.ok().body(projectService.get(id)));
+    }
+
+    @GetMapping("{id}/stats")
+    public ResponseEntity<ProjectStats> getStats(@PathVariable("id") long id){
+        return ResponseEntity.ok().body(projectStatsService.get(id));
     }
 
     @PostMapping
@@ -35,8 +53,9 @@ public class ProjectController {
     }
 
     @PutMapping("{id}")
-    public ResponseEntity<Void> edit(@PathVariable("id") long id, @RequestBody ProjectEditRequest request){
-        projectService.edit(id, request);
+    public ResponseEntity<Void> edit(@PathVariable("id") long id, @RequestBody ProjectEditRequest request,
+                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        projectService.edit(id, request, ETags.version(ifMatch));
         return ResponseEntity.noContent().build();
     }
 
@@ -0,0 +1,90 @@
+package com.spring.demo.controller;
+
+import com.spring.demo.domain.TaskChange;
+import com.spring.demo.implementation.feed.TaskChangeFeed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Pushes {@link TaskChangeFeed} entries to SSE clients, each from its own task on the application executor
+ * so a slow connection only delays its own subscription.
+ */
+@Slf4j
+@Component
+public class TaskChangeStreams {
+    private static final int BATCH_SIZE = 256;
+
+    private final TaskChangeFeed feed;
+    private final TaskExecutor executor;
+    private final Duration heartbeatInterval;
+    private final Duration timeout;
+
+    public TaskChangeStreams(TaskChangeFeed feed,
+                             @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor executor,
+                             @Value("${task.stream.heartbeat-interval:PT15S}") Duration heartbeatInterval,
+                             @Value("${task.stream.timeout:PT30M}") Duration timeout) {
+        this.feed = feed;
+        this.executor = executor;
+        this.heartbeatInterval = heartbeatInterval;
+        this.timeout = timeout;
+    }
+
+    public SseEmitter open(Predicate<TaskChange> filter, Long lastEventId) {
+        final SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        final AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(e -> open.set(false));
+
+        final TaskChangeFeed.Subscription subscription = feed.subscribe(lastEventId);
+        executor.execute(() -> pump(subscription, filter, emitter, open));
+        return emitter;
+    }
+
+    private void pump(TaskChangeFeed.Subscription subscription, Predicate<TaskChange> filter, SseEmitter emitter, AtomicBoolean open) {
+        try (subscription) {
+            // commits the response headers, clients know they are subscribed once this arrives
+            emitter.send(SseEmitter.event().comment("subscribed"));
+            long reportedDrops = 0;
+            while (open.get()) {
+                final List<TaskChange> changes = subscription.poll(BATCH_SIZE, heartbeatInterval);
+                if (subscription.dropped() != reportedDrops) {
+                    reportedDrops = subscription.dropped();
+                    emitter.send(SseEmitter.event().name("dropped").data(Map.of("dropped", reportedDrops), MediaType.APPLICATION_JSON));
+                }
+                if (changes.isEmpty()) {
+                    // also how a client that went away without closing is noticed
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    continue;
+                }
+                for (TaskChange change : changes) {
+                    if (filter.test(change)) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(change.getSequence()))
+                                .name(change.getType().name())
+                                .data(change, MediaType.APPLICATION_JSON));
+                    }
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // client disconnected or the emitter timed out, the container completes the request
+            log.debug("Task change stream closed: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        }
+    }
+}
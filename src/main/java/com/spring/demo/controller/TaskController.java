@@ -1,68 +1,166 @@
 package com.spring.demo.controller;
 
 import com.spring.demo.api.TaskService;
+import com.spring.demo.api.exception.BadRequestException;
 import com.spring.demo.api.request.TaskAddRequest;
 import com.spring.demo.api.request.TaskAssignStatusRequest;
 import com.spring.demo.api.request.TaskChangeStatusRequest;
 import com.spring.demo.api.request.TaskEditRequest;
 import com.spring.demo.domain.Task;
+import com.spring.demo.domain.TaskChange;
+import com.spring.demo.domain.TaskStatus;
+import com.spring.demo.implementation.groupcommit.GroupCommitExecutor;
+import com.spring.demo.implementation.groupcommit.GroupCommitOperation;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 @RestController
 @RequestMapping("task")
 @RequiredArgsConstructor
 public class TaskController {
     private final TaskService taskService;
+    private final TaskChangeStreams taskChangeStreams;
+    private final GroupCommitExecutor groupCommit;
 
     @GetMapping
     public ResponseEntity<List<Task>> getAll(
             @RequestParam(required = false) Long userId,
-            @RequestParam(required = false) Long projectId) {
+            @RequestParam(required = false) Long projectId,
+            @RequestParam(required = false) TaskStatus status,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        final boolean paged = after != null || limit != null;
+        final long afterId = PageCursor.decode(after);
+        final int pageLimit = PageCursor.limit(limit);
+        if (status != null) {
+            if (userId != null || projectId != null) {
+                throw new BadRequestException("status cannot be combined with userId or projectId");
+            }
+            return ETags.negotiated(webRequest, ETags.of(taskService.getPageVersionByStatus(status, afterId, pageLimit)),
+                    () -> PageCursor.toResponse(taskService.getPageByStatus(status, afterId, pageLimit)));
+        }
         if (userId != null) {
-            return ResponseEntity.ok().body(taskService.getAllByUserId(userId));
+            if (paged) {
+                return ETags.negotiated(webRequest, ETags.of(taskService.getPageVersionByUserId(userId, afterId, pageLimit)),
+                        () -> PageCursor.toResponse(taskService.getPageByUserId(userId, afterId, pageLimit)));
+            }
+            return ETags.negotiated(webRequest, ETags.of(taskService.getAllVersionByUserId(userId)),
+                    () -> ResponseEntity.ok().body(taskService.getAllByUserId(userId)));
         } else if (projectId != null) {
-            return ResponseEntity.ok().body(taskService.getAllByProjectId(projectId));
+            if (paged) {
+                return ETags.negotiated(webRequest, ETags.of(taskService.getPageVersionByProjectId(projectId, afterId, pageLimit)),
+                        () -> PageCursor.toResponse(taskService.getPageByProjectId(projectId, afterId, pageLimit)));
+            }
+            return ETags.negotiated(webRequest, ETags.of(taskService.getAllVersionByProjectId(projectId)),
+                    () -> ResponseEntity.ok().body(taskService.getAllByProjectId(projectId)));
         } else {
-            return ResponseEntity.ok().body(taskService.getAll());
+            return ETags.negotiated(webRequest, ETags.of(taskService.getPageVersion(afterId, pageLimit)),
+                    () -> PageCursor.toResponse(taskService.getPage(afterId, pageLimit)));
+        }
+    }
+
+    @GetMapping("search")
+    public ResponseEntity<List<Task>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        if (q.isBlank()) {
+            throw new BadRequestException("q must not be blank");
+        }
+        return PageCursor.toRankedResponse(taskService.search(q, userId, PageCursor.decodeOffset(after), PageCursor.limit(limit)));
+    }
+
+    @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long projectId,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        Predicate<TaskChange> filter = change -> true;
+        if (userId != null) {
+            filter = filter.and(change -> change.concernsUser(userId));
         }
+        if (projectId != null) {
+            filter = filter.and(change -> change.concernsProject(projectId));
+        }
+        return taskChangeStreams.open(filter, lastEventId);
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<Task> getById(@PathVariable("id") long id) {
-        return ResponseEntity.ok().body(taskService.get(id));
+    public ResponseEntity<Task> getById(@PathVariable("id") long id, WebRequest webRequest) {
+        return ETags.conditional(webRequest, ETags.of(taskService.getVersion(id)),
+                () -> ResponseEntity.ok().body(taskService.get(id)));
     }
 
     @PostMapping
     public ResponseEntity<Long> add(@RequestBody TaskAddRequest request) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(taskService.add(request));
+        return ResponseEntity.status(HttpStatus.CREATED).body(groupCommit.call(GroupCommitOperation.ADD, () -> taskService.add(request)));
+    }
+
+    @PostMapping("batch")
+    public ResponseEntity<List<Long>> addAll(@RequestBody List<TaskAddRequest> requests) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(taskService.addAll(requests));
+    }
+
+    @PutMapping("status")
+    public ResponseEntity<Integer> changeStatusByFilter(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long projectId,
+            @RequestBody TaskChangeStatusRequest request) {
+        if ((userId == null) == (projectId == null)) {
+            throw new BadRequestException("exactly one of userId or projectId is required");
+        }
+        if (request.getStatus() == null) {
+            throw new BadRequestException("status must not be null");
+        }
+        return ResponseEntity.ok().body(projectId != null
+                ? taskService.changeStatusByProjectId(projectId, request.getStatus())
+                : taskService.changeStatusByUserId(userId, request.getStatus()));
+    }
+
+    @PutMapping("assign")
+    public ResponseEntity<Integer> assignProjectByFilter(@RequestParam long fromProjectId, @RequestParam long toProjectId) {
+        return ResponseEntity.ok().body(taskService.assignProjectByProjectId(fromProjectId, toProjectId));
     }
 
     @PutMapping("{id}")
-    public ResponseEntity<Void> edit(@PathVariable("id") long id, @RequestBody TaskEditRequest request) {
-        taskService.edit(id, request);
+    public ResponseEntity<Void> edit(@PathVariable("id") long id, @RequestBody TaskEditRequest request,
+                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        final Long expectedVersion = ETags.version(ifMatch);
+        groupCommit.run(GroupCommitOperation.EDIT, () -> taskService.edit(id, request, expectedVersion));
         return ResponseEntity.ok().build();
     }
 
     @PutMapping("{id}/status")
-    public ResponseEntity<Void> changeStatus(@PathVariable("id") long id, @RequestBody TaskChangeStatusRequest request) {
-        taskService.changeStatus(id, request.getStatus());
+    public ResponseEntity<Void> changeStatus(@PathVariable("id") long id, @RequestBody TaskChangeStatusRequest request,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        final Long expectedVersion = ETags.version(ifMatch);
+        groupCommit.run(GroupCommitOperation.CHANGE_STATUS, () -> taskService.changeStatus(id, request.getStatus(), expectedVersion));
         return ResponseEntity.ok().build();
     }
 
     @PutMapping("{id}/assign")
-    public ResponseEntity<Void> changeStatus(@PathVariable("id") long id, @RequestBody TaskAssignStatusRequest request) {
-        taskService.assignProject(id, request.getProjectId());
+    public ResponseEntity<Void> changeStatus(@PathVariable("id") long id, @RequestBody TaskAssignStatusRequest request,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        final Long expectedVersion = ETags.version(ifMatch);
+        groupCommit.run(GroupCommitOperation.ASSIGN_PROJECT, () -> taskService.assignProject(id, request.getProjectId(), expectedVersion));
         return ResponseEntity.ok().build();
     }
 
     @DeleteMapping("{id}")
-    public ResponseEntity<Void> changeStatus(@PathVariable("id") long id) {
-        taskService.delete(id);
+    public ResponseEntity<Void> changeStatus(@PathVariable("id") long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        final Long expectedVersion = ETags.version(ifMatch);
+        groupCommit.run(GroupCommitOperation.DELETE, () -> taskService.delete(id, expectedVersion));
         return ResponseEntity.noContent().build();
     }
 
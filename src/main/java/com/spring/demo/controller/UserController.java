@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -22,12 +23,18 @@ public class UserController {
     }
 
     @GetMapping
-    public ResponseEntity<List<User>> getAll(){
-        return ResponseEntity.ok().body(userService.getAll());
+    public ResponseEntity<List<User>> getAll(@RequestParam(required = false) String after,
+                                             @RequestParam(required = false) Integer limit,
+                                             WebRequest webRequest){
+        final long afterId = PageCursor.decode(after);
+        final int pageLimit = PageCursor.limit(limit);
+        return ETags.negotiated(webRequest, ETags.of(userService.getPageVersion(afterId, pageLimit)),
+                () -> PageCursor.toResponse(userService.getPage(afterId, pageLimit)));
     }
     @GetMapping("{id}")
-    public ResponseEntity<User> getById(@PathVariable("id") long id){
-        return ResponseEntity.ok().body(userService.get(id));
+    public ResponseEntity<User> getById(@PathVariable("id") long id, WebRequest webRequest){
+        return ETags.conditional(webRequest, ETags.of(userService.getVersion(id)),
+                () -> ResponseEntity.ok().body(userService.get(id)));
     }
 
     @PostMapping
@@ -0,0 +1,18 @@
+package com.spring.demo.controller;
+
+import com.spring.demo.api.codec.CompactHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    // appended after the defaults so "Accept: */*" keeps getting JSON, the compact encoding has to be asked for explicitly
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new CompactHttpMessageConverter());
+    }
+}
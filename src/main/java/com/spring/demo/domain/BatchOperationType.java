@@ -0,0 +1,14 @@
+package com.spring.demo.domain;
+
+public enum BatchOperationType {
+    ADD_USER,
+    DELETE_USER,
+    ADD_PROJECT,
+    EDIT_PROJECT,
+    DELETE_PROJECT,
+    ADD_TASK,
+    EDIT_TASK,
+    CHANGE_TASK_STATUS,
+    ASSIGN_TASK,
+    DELETE_TASK
+}
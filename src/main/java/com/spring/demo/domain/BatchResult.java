@@ -0,0 +1,14 @@
+package com.spring.demo.domain;
+
+import lombok.Value;
+
+/**
+ * Outcome of one batch operation, {@code id} is the created id for the ADD operations and the target id otherwise.
+ */
+@Value
+public class BatchResult {
+    int index;
+    BatchOperationType op;
+    String ref;
+    long id;
+}
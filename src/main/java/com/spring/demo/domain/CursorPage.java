@@ -0,0 +1,21 @@
+package com.spring.demo.domain;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+@Value
+public class CursorPage<T> {
+    List<T> items;
+    Long nextAfter;
+
+    // rows are expected to be fetched with limit + 1, the extra row only tells us that another page exists
+    public static <T> CursorPage<T> of(List<T> rows, int limit, ToLongFunction<T> idOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        final List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, idOf.applyAsLong(items.getLast()));
+    }
+}
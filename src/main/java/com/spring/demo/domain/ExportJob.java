@@ -0,0 +1,20 @@
+package com.spring.demo.domain;
+
+import lombok.Value;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Progress of a background export. {@code bytes} is the size of the finished file, {@code error} is only set once
+ * the job has {@link JobStatus#FAILED}.
+ */
+@Value
+public class ExportJob {
+    String id;
+    JobStatus status;
+    long rows;
+    Long bytes;
+    OffsetDateTime startedAt;
+    OffsetDateTime finishedAt;
+    String error;
+}
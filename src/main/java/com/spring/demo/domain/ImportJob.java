@@ -0,0 +1,25 @@
+package com.spring.demo.domain;
+
+import lombok.Value;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Progress of a task import. {@code rows} counts the records read so far, each of them ends up either
+ * {@code imported} or {@code failed}. {@code errors} lists the first failed records only, {@code error} is set
+ * when the import as a whole {@link JobStatus#FAILED}.
+ */
+@Value
+public class ImportJob {
+    String id;
+    JobStatus status;
+    long rows;
+    long imported;
+    long failed;
+    double rowsPerSecond;
+    OffsetDateTime startedAt;
+    OffsetDateTime finishedAt;
+    String error;
+    List<ImportRowError> errors;
+}
@@ -0,0 +1,12 @@
+package com.spring.demo.domain;
+
+import lombok.Value;
+
+/**
+ * A record the import skipped, {@code line} is where the record starts in the uploaded file.
+ */
+@Value
+public class ImportRowError {
+    long line;
+    String message;
+}
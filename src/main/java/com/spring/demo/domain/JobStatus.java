@@ -0,0 +1,7 @@
+package com.spring.demo.domain;
+
+public enum JobStatus {
+    RUNNING,
+    DONE,
+    FAILED
+}
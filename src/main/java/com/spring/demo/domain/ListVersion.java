@@ -0,0 +1,18 @@
+package com.spring.demo.domain;
+
+import lombok.Value;
+
+/**
+ * Fingerprint of a list result computed by the database without reading the rows themselves.
+ * <p>
+ * Every insert and update stamps its row with the next value of a table-wide change sequence, so a list that gained
+ * or changed a row has a higher {@code lastChange}. Rows that only dropped out, deleted or updated away, lower the
+ * count unless unchanged rows took their place, and those can only come from past the end of a keyset page, where
+ * ids are higher than any the page had: the id sum grows.
+ */
+@Value
+public class ListVersion {
+    long count;
+    long idSum;
+    long lastChange;
+}
@@ -0,0 +1,12 @@
+package com.spring.demo.domain;
+
+import lombok.Value;
+
+import java.util.Map;
+
+@Value
+public class ProjectStats {
+    long projectId;
+    Map<TaskStatus, Long> counts;
+    long total;
+}
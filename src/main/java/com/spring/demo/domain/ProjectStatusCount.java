@@ -0,0 +1,10 @@
+package com.spring.demo.domain;
+
+import lombok.Value;
+
+@Value
+public class ProjectStatusCount {
+    long projectId;
+    TaskStatus status;
+    long count;
+}
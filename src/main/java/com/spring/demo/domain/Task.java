@@ -1,9 +1,11 @@
 package com.spring.demo.domain;
 
 import lombok.Value;
+import lombok.With;
 
 import java.time.OffsetDateTime;
 @Value
+@With
 public class Task {
     long id;
     long userId;
@@ -0,0 +1,19 @@
+package com.spring.demo.domain;
+
+import lombok.Value;
+
+/**
+ * A set-based change over every task of {@code projectId} and of {@code userId}, whichever of the two are set.
+ * {@code status} is the new status of a status change, {@code toProjectId} the project tasks were moved to.
+ */
+@Value
+public class TaskBulkChange {
+    Long projectId;
+    Long userId;
+    TaskStatus status;
+    Long toProjectId;
+
+    public boolean matches(Long taskProjectId, long taskUserId) {
+        return (projectId == null || projectId.equals(taskProjectId)) && (userId == null || userId == taskUserId);
+    }
+}
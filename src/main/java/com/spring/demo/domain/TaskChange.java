@@ -0,0 +1,30 @@
+package com.spring.demo.domain;
+
+import lombok.Value;
+
+/**
+ * One entry of the task change feed. {@code before} is null for {@link TaskChangeType#ADDED},
+ * {@code after} is null for {@link TaskChangeType#DELETED}. The {@code TASKS_*} types carry no rows,
+ * only the {@code bulk} change that names the tasks they affected.
+ */
+@Value
+public class TaskChange {
+    long sequence;
+    TaskChangeType type;
+    Task before;
+    Task after;
+    TaskBulkChange bulk;
+
+    public boolean concernsUser(long userId) {
+        return before != null && before.getUserId() == userId || after != null && after.getUserId() == userId
+                || bulk != null && bulk.getUserId() != null && bulk.getUserId() == userId;
+    }
+
+    // an assignment is seen by the project the task leaves as well as by the one it joins
+    public boolean concernsProject(long projectId) {
+        return before != null && before.getProjectId() != null && before.getProjectId() == projectId
+                || after != null && after.getProjectId() != null && after.getProjectId() == projectId
+                || bulk != null && (bulk.getProjectId() != null && bulk.getProjectId() == projectId
+                        || bulk.getToProjectId() != null && bulk.getToProjectId() == projectId);
+    }
+}
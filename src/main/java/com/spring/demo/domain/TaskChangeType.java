@@ -0,0 +1,13 @@
+package com.spring.demo.domain;
+
+public enum TaskChangeType {
+    ADDED,
+    EDITED,
+    STATUS_CHANGED,
+    ASSIGNED,
+    DELETED,
+    // set-based changes over the tasks of a project or user, see TaskBulkChange
+    TASKS_STATUS_CHANGED,
+    TASKS_ASSIGNED,
+    TASKS_DELETED
+}
@@ -0,0 +1,22 @@
+package com.spring.demo.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A task together with the row version it was read at, the expected value of a compare-and-set update.
+ */
+@Value
+@AllArgsConstructor
+public class VersionedTask {
+    Task task;
+    long version;
+
+    // flat form for JPQL constructor expressions
+    public VersionedTask(long id, long userId, Long projectId, String name, String description, TaskStatus status,
+                         OffsetDateTime createdAt, long version) {
+        this(new Task(id, userId, projectId, name, description, status, createdAt), version);
+    }
+}
@@ -0,0 +1,323 @@
+package com.spring.demo.implementation.batch;
+
+import com.spring.demo.api.ProjectService;
+import com.spring.demo.api.TaskService;
+import com.spring.demo.api.UserService;
+import com.spring.demo.api.exception.BadRequestException;
+import com.spring.demo.api.exception.ConflictException;
+import com.spring.demo.api.exception.InternalErrorException;
+import com.spring.demo.api.exception.ResourceNotFoundException;
+import com.spring.demo.api.request.BatchOperation;
+import com.spring.demo.api.request.ProjectAddRequest;
+import com.spring.demo.api.request.ProjectEditRequest;
+import com.spring.demo.api.request.TaskAddRequest;
+import com.spring.demo.api.request.TaskEditRequest;
+import com.spring.demo.api.request.UserAddRequest;
+import com.spring.demo.domain.BatchOperationType;
+import com.spring.demo.domain.BatchResult;
+import com.spring.demo.domain.TaskStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the operations of {@code POST /batch} in order, all in one transaction: the first one that fails rolls
+ * the batch back and is reported with its index.
+ * <p>
+ * Consecutive ADD_TASK operations go to {@link TaskService#addAll} together, their inserts leave as JDBC batches.
+ * Lookups run on the calling thread inside the transaction, so they see the rows the batch has written so far.
+ */
+@Slf4j
+@Component
+public class BatchExecutor {
+    private static final String REF_PREFIX = "$";
+    private static final String[] CACHES = {"users", "projects"};
+
+    private final UserService userService;
+    private final ProjectService projectService;
+    private final TaskService taskService;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transaction;
+    private final int maxOperations;
+
+    public BatchExecutor(UserService userService, ProjectService projectService, TaskService taskService,
+                         CacheManager cacheManager, PlatformTransactionManager transactionManager,
+                         @Value("${batch.max-operations:100}") int maxOperations) {
+        this.userService = userService;
+        this.projectService = projectService;
+        this.taskService = taskService;
+        this.cacheManager = cacheManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.maxOperations = maxOperations;
+    }
+
+    public List<BatchResult> execute(List<BatchOperation> operations) {
+        validate(operations);
+        try {
+            return transaction.execute(status -> new Run(operations).apply());
+        } catch (RuntimeException e) {
+            // a lookup inside the batch may have cached a row the rollback took back
+            for (String name : CACHES) {
+                final Cache cache = cacheManager.getCache(name);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+            throw commitFailure(e);
+        }
+    }
+
+    // everything that can be checked without the database, so a malformed batch does not open a transaction
+    private void validate(List<BatchOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new BadRequestException("Batch must contain at least one operation");
+        }
+        if (operations.size() > maxOperations) {
+            throw new BadRequestException("Batch must contain at most " + maxOperations + " operations");
+        }
+        final Map<String, EntityKind> refs = new HashMap<>();
+        for (int index = 0; index < operations.size(); index++) {
+            final BatchOperation operation = operations.get(index);
+            if (operation == null || operation.getOp() == null) {
+                throw new BadRequestException("Operation " + index + " has no op");
+            }
+            final EntityKind created = EntityKind.createdBy(operation.getOp());
+            final EntityKind target = EntityKind.targetOf(operation.getOp());
+            checkReference(index, operation, "id", operation.getId(), target, refs);
+            checkReference(index, operation, "userId", operation.getUserId(), EntityKind.USER, refs);
+            checkReference(index, operation, "projectId", operation.getProjectId(), EntityKind.PROJECT, refs);
+            if (operation.getRef() != null) {
+                if (created == null) {
+                    throw invalid(index, operation, "ref is only allowed on ADD operations");
+                }
+                if (operation.getRef().isBlank() || operation.getRef().startsWith(REF_PREFIX)) {
+                    throw invalid(index, operation, "ref must be a name without " + REF_PREFIX);
+                }
+                if (refs.putIfAbsent(operation.getRef(), created) != null) {
+                    throw invalid(index, operation, "ref " + operation.getRef() + " is already defined");
+                }
+            }
+            if (operation.getOp() == BatchOperationType.EDIT_TASK || operation.getOp() == BatchOperationType.CHANGE_TASK_STATUS) {
+                try {
+                    parseStatus(operation.getStatus());
+                } catch (BadRequestException e) {
+                    throw invalid(index, operation, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void checkReference(int index, BatchOperation operation, String field, String value,
+                                       EntityKind kind, Map<String, EntityKind> refs) {
+        if (value == null || !value.startsWith(REF_PREFIX)) {
+            return;
+        }
+        if (kind == null || refs.get(value.substring(REF_PREFIX.length())) != kind) {
+            throw invalid(index, operation, field + " " + value + " does not name an earlier " + (kind == null ? "ADD" : "ADD_" + kind) + " operation");
+        }
+    }
+
+    private static TaskStatus parseStatus(String status) {
+        if (status == null) {
+            throw new BadRequestException("status is required");
+        }
+        try {
+            return TaskStatus.fromString(status);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    private static BadRequestException invalid(int index, BatchOperation operation, String message) {
+        return new BadRequestException(describe(index, index, operation.getOp()) + ": " + message);
+    }
+
+    private static String describe(int from, int to, BatchOperationType op) {
+        return (from == to ? "Operation " + from : "Operations " + from + "-" + to) + " (" + op + ")";
+    }
+
+    // the transaction itself failing, on commit for writes the ORM only flushes then
+    private static RuntimeException commitFailure(RuntimeException e) {
+        if (e instanceof DataIntegrityViolationException) {
+            return new BadRequestException("Batch rejected by the database: " + e.getMessage());
+        }
+        if (e instanceof TransactionException || e instanceof DataAccessException) {
+            log.error("Batch failed to commit", e);
+            return new InternalErrorException("Batch failed to commit due to database error.");
+        }
+        return e;
+    }
+
+    private enum EntityKind {
+        USER, PROJECT, TASK;
+
+        static EntityKind createdBy(BatchOperationType op) {
+            return switch (op) {
+                case ADD_USER -> USER;
+                case ADD_PROJECT -> PROJECT;
+                case ADD_TASK -> TASK;
+                default -> null;
+            };
+        }
+
+        static EntityKind targetOf(BatchOperationType op) {
+            return switch (op) {
+                case DELETE_USER -> USER;
+                case EDIT_PROJECT, DELETE_PROJECT -> PROJECT;
+                case EDIT_TASK, CHANGE_TASK_STATUS, ASSIGN_TASK, DELETE_TASK -> TASK;
+                default -> null;
+            };
+        }
+    }
+
+    // state of one execution: the ids the ADD operations created so far, by kind and ref
+    private final class Run {
+        private final List<BatchOperation> operations;
+        private final Map<EntityKind, Map<String, Long>> created = new EnumMap<>(EntityKind.class);
+        private final List<BatchResult> results;
+
+        private Run(List<BatchOperation> operations) {
+            this.operations = operations;
+            this.results = new ArrayList<>(operations.size());
+        }
+
+        private List<BatchResult> apply() {
+            int index = 0;
+            while (index < operations.size()) {
+                int end = index + 1;
+                if (operations.get(index).getOp() == BatchOperationType.ADD_TASK) {
+                    while (end < operations.size() && operations.get(end).getOp() == BatchOperationType.ADD_TASK) {
+                        end++;
+                    }
+                }
+                try {
+                    if (end - index > 1) {
+                        addTasks(index, end);
+                    } else {
+                        results.add(new BatchResult(index, operations.get(index).getOp(), operations.get(index).getRef(), apply(operations.get(index))));
+                    }
+                } catch (RuntimeException e) {
+                    throw failed(index, end - 1, operations.get(index).getOp(), e);
+                }
+                index = end;
+            }
+            return results;
+        }
+
+        private long apply(BatchOperation operation) {
+            return switch (operation.getOp()) {
+                case ADD_USER -> remember(EntityKind.USER, operation,
+                        userService.add(new UserAddRequest(operation.getName(), operation.getEmail())));
+                case DELETE_USER -> {
+                    final long id = require(EntityKind.USER, "id", operation.getId());
+                    userService.delete(id);
+                    yield id;
+                }
+                case ADD_PROJECT -> remember(EntityKind.PROJECT, operation, projectService.add(new ProjectAddRequest(
+                        require(EntityKind.USER, "userId", operation.getUserId()), operation.getName(), operation.getDescription())));
+                case EDIT_PROJECT -> {
+                    final long id = require(EntityKind.PROJECT, "id", operation.getId());
+                    projectService.edit(id, new ProjectEditRequest(operation.getName(), operation.getDescription()), operation.getVersion());
+                    yield id;
+                }
+                case DELETE_PROJECT -> {
+                    final long id = require(EntityKind.PROJECT, "id", operation.getId());
+                    projectService.delete(id);
+                    yield id;
+                }
+                case ADD_TASK -> remember(EntityKind.TASK, operation, taskService.add(toTaskAddRequest(operation)));
+                case EDIT_TASK -> {
+                    final long id = require(EntityKind.TASK, "id", operation.getId());
+                    taskService.edit(id, new TaskEditRequest(operation.getName(), operation.getDescription(), operation.getStatus()), operation.getVersion());
+                    yield id;
+                }
+                case CHANGE_TASK_STATUS -> {
+                    final long id = require(EntityKind.TASK, "id", operation.getId());
+                    taskService.changeStatus(id, parseStatus(operation.getStatus()), operation.getVersion());
+                    yield id;
+                }
+                case ASSIGN_TASK -> {
+                    final long id = require(EntityKind.TASK, "id", operation.getId());
+                    taskService.assignProject(id, require(EntityKind.PROJECT, "projectId", operation.getProjectId()), operation.getVersion());
+                    yield id;
+                }
+                case DELETE_TASK -> {
+                    final long id = require(EntityKind.TASK, "id", operation.getId());
+                    taskService.delete(id, operation.getVersion());
+                    yield id;
+                }
+            };
+        }
+
+        private void addTasks(int from, int to) {
+            final List<TaskAddRequest> requests = new ArrayList<>(to - from);
+            for (int index = from; index < to; index++) {
+                requests.add(toTaskAddRequest(operations.get(index)));
+            }
+            final List<Long> ids = taskService.addAll(requests);
+            for (int index = from; index < to; index++) {
+                final BatchOperation operation = operations.get(index);
+                results.add(new BatchResult(index, operation.getOp(), operation.getRef(), remember(EntityKind.TASK, operation, ids.get(index - from))));
+            }
+        }
+
+        private TaskAddRequest toTaskAddRequest(BatchOperation operation) {
+            return new TaskAddRequest(
+                    require(EntityKind.USER, "userId", operation.getUserId()),
+                    operation.getProjectId() == null ? null : require(EntityKind.PROJECT, "projectId", operation.getProjectId()),
+                    operation.getName(),
+                    operation.getDescription());
+        }
+
+        private long remember(EntityKind kind, BatchOperation operation, long id) {
+            if (operation.getRef() != null) {
+                created.computeIfAbsent(kind, k -> new HashMap<>()).put(operation.getRef(), id);
+            }
+            return id;
+        }
+
+        private long require(EntityKind kind, String field, String value) {
+            if (value == null || value.isBlank()) {
+                throw new BadRequestException(field + " is required");
+            }
+            if (value.startsWith(REF_PREFIX)) {
+                // checked by validate, the referenced operation ran before this one
+                return created.get(kind).get(value.substring(REF_PREFIX.length()));
+            }
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                throw new BadRequestException(field + " is neither a number nor a " + REF_PREFIX + "ref: " + value);
+            }
+        }
+
+        // keeps the status the service chose, the message names the operation that caused it
+        private RuntimeException failed(int from, int to, BatchOperationType op, RuntimeException e) {
+            final String message = describe(from, to, op) + " failed: " + e.getMessage();
+            return switch (e) {
+                case BadRequestException ignored -> new BadRequestException(message);
+                case ResourceNotFoundException ignored -> new ResourceNotFoundException(message);
+                case ConflictException ignored -> new ConflictException(message);
+                case DataIntegrityViolationException ignored -> new BadRequestException(message);
+                case IllegalArgumentException ignored -> new BadRequestException(message);
+                default -> {
+                    log.error("Batch operation {} ({}) failed", from, op, e);
+                    yield new InternalErrorException(describe(from, to, op) + " failed");
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.spring.demo.implementation.concurrent;
+
+import com.spring.demo.api.exception.InternalErrorException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent blocking lookups concurrently, shaped after {@code StructuredTaskScope.ShutdownOnFailure}
+ * which is still a preview API on Java 21.
+ * <p>
+ * Forks start immediately, {@link #join()} waits for all of them and rethrows the first failure unchanged.
+ * The first failure shuts the scope down: forks that have not started yet never run, including those forked
+ * afterwards, which matters when the forks run one after another on the calling thread, see {@link LookupScopes}.
+ * {@link #close()} shuts it down as well. A lookup that is already running is not interrupted, an interrupt can
+ * close the connection under a JDBC call, it finishes on its own and its result is dropped.
+ */
+public final class LookupScope implements AutoCloseable {
+    private final Executor executor;
+    private final List<Fork<?>> forks = new ArrayList<>();
+    private final BlockingQueue<Fork<?>> completed = new LinkedBlockingQueue<>();
+    private volatile boolean shutdown;
+
+    LookupScope(Executor executor) {
+        this.executor = executor;
+    }
+
+    // the returned supplier may only be called after join()
+    public <T> Supplier<T> fork(Supplier<T> lookup) {
+        final Fork<T> fork = new Fork<>(lookup);
+        forks.add(fork);
+        if (shutdown) {
+            fork.cancel(false);
+        } else {
+            executor.execute(fork);
+        }
+        return fork::resultNow;
+    }
+
+    // a fork cancelled by the shutdown is only ever queued after the failure that caused it
+    public void join() {
+        try {
+            for (int i = 0; i < forks.size(); i++) {
+                final Fork<?> fork = completed.take();
+                if (fork.state() == Future.State.FAILED) {
+                    shutdown();
+                    throw propagate(fork.exceptionNow());
+                }
+            }
+        } catch (InterruptedException e) {
+            shutdown();
+            Thread.currentThread().interrupt();
+            throw new InternalErrorException("Interrupted while waiting for lookups");
+        }
+    }
+
+    @Override
+    public void close() {
+        shutdown();
+    }
+
+    private void shutdown() {
+        shutdown = true;
+        forks.forEach(fork -> fork.cancel(false));
+    }
+
+    private static RuntimeException propagate(Throwable failure) {
+        if (failure instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        return new InternalErrorException("Lookup failed: " + failure.getMessage());
+    }
+
+    private final class Fork<T> extends FutureTask<T> {
+        Fork(Supplier<T> lookup) {
+            super(lookup::get);
+        }
+
+        @Override
+        protected void done() {
+            completed.add(this);
+            if (state() == Future.State.FAILED) {
+                shutdown = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.spring.demo.implementation.concurrent;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Opens {@link LookupScope}s on Boot's application task executor, which runs every task on its own
+ * virtual thread when {@code spring.threads.virtual.enabled} is set and on a bounded pool otherwise.
+ * <p>
+ * While the caller has a transaction open its forks run on the calling thread instead. A fork on another thread
+ * would need a second pooled connection while the caller holds one, so under load every connection could end up
+ * held by a caller waiting for its fork. The forks also have to see the rows that transaction has not committed yet.
+ */
+@Component
+public class LookupScopes {
+    private final TaskExecutor executor;
+
+    public LookupScopes(@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    public LookupScope open() {
+        return new LookupScope(TransactionSynchronizationManager.isActualTransactionActive() ? Runnable::run : executor);
+    }
+}
@@ -0,0 +1,206 @@
+package com.spring.demo.implementation.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.spring.demo.api.TaskService;
+import com.spring.demo.api.exception.ConflictException;
+import com.spring.demo.api.exception.ResourceNotFoundException;
+import com.spring.demo.domain.ExportJob;
+import com.spring.demo.domain.JobStatus;
+import com.spring.demo.domain.Task;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes every task as gzipped NDJSON, one JSON object per line, on the application executor.
+ * <p>
+ * Rows come from {@link TaskService#streamAll} and go straight through the JSON generator into the deflater,
+ * so the memory an export needs does not depend on the number of tasks. The file is written under a
+ * {@code .part} name and moved into place once complete, downloads never see half of it.
+ * <p>
+ * Jobs live in memory only. The cleanup therefore also sweeps the directory for export and {@code .part} files
+ * older than the retention, which covers files left behind by an earlier run or a crash mid-export.
+ */
+@Slf4j
+@Component
+public class TaskExporter {
+    private static final String FILE_SUFFIX = ".ndjson.gz";
+    private static final String PART_SUFFIX = FILE_SUFFIX + ".part";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final TaskService taskService;
+    private final TaskExecutor executor;
+    private final ObjectWriter writer;
+    private final Path directory;
+    private final int fetchSize;
+    private final Duration retention;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public TaskExporter(TaskService taskService,
+                        @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor executor,
+                        ObjectMapper objectMapper,
+                        @Value("${task.export.directory:${java.io.tmpdir}/task-exports}") Path directory,
+                        @Value("${task.export.fetch-size:1000}") int fetchSize,
+                        @Value("${task.export.retention:PT24H}") Duration retention) {
+        this.taskService = taskService;
+        this.executor = executor;
+        // the deflater decides when bytes reach the file, a flush per row would only add syscalls
+        this.writer = objectMapper.writerFor(Task.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+        this.directory = directory;
+        this.fetchSize = fetchSize;
+        this.retention = retention;
+    }
+
+    public ExportJob start() {
+        final Job job = new Job(UUID.randomUUID().toString());
+        jobs.put(job.id, job);
+        executor.execute(() -> run(job));
+        return job.snapshot();
+    }
+
+    public ExportJob get(String jobId) {
+        return require(jobId).snapshot();
+    }
+
+    public Path file(String jobId) {
+        final Job job = require(jobId);
+        if (job.status != JobStatus.DONE) {
+            throw new ConflictException("Export job " + jobId + " is " + job.status);
+        }
+        return job.file;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${task.export.cleanup-interval:PT1H}", initialDelayString = "${task.export.cleanup-interval:PT1H}")
+    public void removeExpired() {
+        final OffsetDateTime expiredBefore = OffsetDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            if (job.finishedAt == null || job.finishedAt.isAfter(expiredBefore)) {
+                return false;
+            }
+            deleteQuietly(job.file);
+            return true;
+        });
+        removeExpiredFiles(expiredBefore.toInstant());
+    }
+
+    // a running export keeps touching its .part file, so only abandoned ones get this old
+    private void removeExpiredFiles(Instant expiredBefore) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*{" + FILE_SUFFIX + "," + PART_SUFFIX + "}")) {
+            for (Path file : files) {
+                try {
+                    if (Files.getLastModifiedTime(file).toInstant().isBefore(expiredBefore)) {
+                        log.info("Removing expired export file {}", file);
+                        deleteQuietly(file);
+                    }
+                } catch (IOException e) {
+                    log.warn("Could not check export file {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not list export directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private void run(Job job) {
+        final Path part = directory.resolve(job.id + PART_SUFFIX);
+        try {
+            Files.createDirectories(directory);
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(part), BUFFER_SIZE);
+                 JsonGenerator generator = writer.createGenerator(out)) {
+                taskService.streamAll(fetchSize, task -> {
+                    try {
+                        writer.writeValue(generator, task);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    job.rows++;
+                });
+                if (job.rows > 0) {
+                    generator.writeRaw('\n');
+                }
+            }
+            Files.move(part, job.file, StandardCopyOption.ATOMIC_MOVE);
+            job.bytes = Files.size(job.file);
+            job.finish(JobStatus.DONE);
+            log.info("Export {} wrote {} tasks, {} bytes", job.id, job.rows, job.bytes);
+        } catch (IOException | RuntimeException e) {
+            log.error("Export {} failed after {} tasks", job.id, job.rows, e);
+            deleteQuietly(part);
+            job.error = e.getMessage();
+            job.finish(JobStatus.FAILED);
+        }
+    }
+
+    private Job require(String jobId) {
+        final Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Export job not found with id: " + jobId);
+        }
+        return job;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}: {}", file, e.getMessage());
+        }
+    }
+
+    // written by the export thread only, status is published last so a reader seeing DONE sees the rest
+    private final class Job {
+        private final String id;
+        private final Path file;
+        private final OffsetDateTime startedAt = OffsetDateTime.now();
+        private volatile long rows;
+        private volatile Long bytes;
+        private volatile OffsetDateTime finishedAt;
+        private volatile String error;
+        private volatile JobStatus status = JobStatus.RUNNING;
+
+        private Job(String id) {
+            this.id = id;
+            this.file = directory.resolve(id + FILE_SUFFIX);
+        }
+
+        private void finish(JobStatus status) {
+            finishedAt = OffsetDateTime.now();
+            this.status = status;
+        }
+
+        private ExportJob snapshot() {
+            final JobStatus status = this.status;
+            return new ExportJob(id, status, rows, bytes, startedAt, finishedAt, error);
+        }
+    }
+}
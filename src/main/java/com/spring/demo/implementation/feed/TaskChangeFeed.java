@@ -0,0 +1,176 @@
+package com.spring.demo.implementation.feed;
+
+import com.spring.demo.api.event.TaskChangedEvent;
+import com.spring.demo.api.event.TasksChangedEvent;
+import com.spring.demo.domain.Task;
+import com.spring.demo.domain.TaskBulkChange;
+import com.spring.demo.domain.TaskChange;
+import com.spring.demo.domain.TaskChangeType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded ring of recent {@link TaskChange}s, fed from {@link TaskChangedEvent}s and {@link TasksChangedEvent}s after commit.
+ * <p>
+ * Writers only overwrite the oldest slot and never wait for readers. Every {@link Subscription} keeps its own cursor,
+ * so a slow subscriber only falls behind itself; once it has been lapped the skipped changes are counted as dropped
+ * and it continues from the oldest change still in the ring.
+ */
+@Component
+public class TaskChangeFeed {
+    private final AtomicReferenceArray<TaskChange> slots;
+    private final int mask;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    // sequence of the next change, the first one is 1 so that an SSE Last-Event-ID of 0 means "nothing seen"
+    private volatile long head = 1;
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter publishedCounter;
+    private final Counter droppedCounter;
+
+    public TaskChangeFeed(@Value("${task.stream.buffer-size:4096}") int bufferSize, MeterRegistry registry) {
+        final int capacity = Integer.highestOneBit(Math.max(2, bufferSize - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.publishedCounter = Counter.builder("task.stream.published").register(registry);
+        this.droppedCounter = Counter.builder("task.stream.dropped")
+                .description("Changes skipped by subscribers that fell a full ring behind")
+                .register(registry);
+        Gauge.builder("task.stream.subscribers", subscribers, AtomicInteger::get).register(registry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        append(typeOf(event.getBefore(), event.getAfter()), event.getBefore(), event.getAfter(), null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTasksChanged(TasksChangedEvent event) {
+        append(event.getType(), null, null, event.getChange());
+    }
+
+    private void append(TaskChangeType type, Task before, Task after, TaskBulkChange bulk) {
+        lock.lock();
+        try {
+            final long sequence = head;
+            slots.set(index(sequence), new TaskChange(sequence, type, before, after, bulk));
+            head = sequence + 1;
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        publishedCounter.increment();
+    }
+
+    /**
+     * @param lastSequence sequence of the last change the subscriber has already seen, null to start with the next change
+     */
+    public Subscription subscribe(Long lastSequence) {
+        subscribers.incrementAndGet();
+        final long next = head;
+        return new Subscription(lastSequence != null ? Math.clamp(lastSequence + 1, 1, next) : next);
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    private static TaskChangeType typeOf(Task before, Task after) {
+        if (before == null) {
+            return TaskChangeType.ADDED;
+        }
+        if (after == null) {
+            return TaskChangeType.DELETED;
+        }
+        if (before.getStatus() != after.getStatus()) {
+            return TaskChangeType.STATUS_CHANGED;
+        }
+        if (!Objects.equals(before.getProjectId(), after.getProjectId())) {
+            return TaskChangeType.ASSIGNED;
+        }
+        return TaskChangeType.EDITED;
+    }
+
+    /**
+     * A single reader's position in the feed, not thread safe.
+     */
+    public class Subscription implements AutoCloseable {
+        private long cursor;
+        private final AtomicLong dropped = new AtomicLong();
+        private boolean closed;
+
+        private Subscription(long cursor) {
+            this.cursor = cursor;
+        }
+
+        /**
+         * Returns up to {@code max} changes in sequence order, waiting up to {@code timeout} when there are none yet.
+         */
+        public List<TaskChange> poll(int max, Duration timeout) throws InterruptedException {
+            if (cursor >= head) {
+                lock.lock();
+                try {
+                    long nanos = timeout.toNanos();
+                    while (cursor >= head && nanos > 0) {
+                        nanos = published.awaitNanos(nanos);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            final List<TaskChange> changes = new ArrayList<>(Math.min(max, 64));
+            while (changes.size() < max) {
+                final long available = head;
+                if (cursor >= available) {
+                    break;
+                }
+                final long oldest = available - slots.length();
+                if (cursor < oldest) {
+                    skip(oldest - cursor);
+                    continue;
+                }
+                final TaskChange change = slots.get(index(cursor));
+                // overwritten between reading head and the slot, the next round sees the new head and skips ahead
+                if (change.getSequence() != cursor) {
+                    continue;
+                }
+                changes.add(change);
+                cursor++;
+            }
+            return changes;
+        }
+
+        public long dropped() {
+            return dropped.get();
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                subscribers.decrementAndGet();
+            }
+        }
+
+        private void skip(long count) {
+            cursor += count;
+            dropped.addAndGet(count);
+            droppedCounter.increment(count);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.spring.demo.implementation.groupcommit;
+
+import com.spring.demo.api.exception.InternalErrorException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Group commit for task mutations: operations of an enabled type are queued and run by one flusher per type,
+ * up to {@code max-batch-size} of them in a single transaction, waiting at most {@code max-delay} after the first
+ * one arrived. Callers are released only after their batch has committed.
+ * <p>
+ * Hibernate offers no savepoints, so an operation that fails (missing task, bad request) rolls the whole batch back;
+ * its caller gets the failure and the remaining operations are replayed in a fresh transaction. After
+ * {@code max-replays} such failures the rest of the batch commits one operation per transaction, so a batch with many
+ * failing operations costs at most a few passes instead of one per failure.
+ * <p>
+ * A caller waits at most {@code result-timeout} for its batch. Once shutdown has started, or when a lane's flusher
+ * has died, new operations are rejected instead of being queued with nobody to run them.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(GroupCommitProperties.class)
+public class GroupCommitExecutor {
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final Map<GroupCommitOperation, Lane> lanes = new EnumMap<>(GroupCommitOperation.class);
+    private final TransactionTemplate batchTransaction;
+    private volatile boolean shuttingDown;
+
+    public GroupCommitExecutor(GroupCommitProperties properties, PlatformTransactionManager transactionManager, MeterRegistry registry) {
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        properties.getOperations().forEach((operation, config) -> {
+            if (config.isEnabled()) {
+                final Lane lane = new Lane(operation, config, registry);
+                lanes.put(operation, lane);
+                lane.thread.start();
+            }
+        });
+    }
+
+    /**
+     * Runs {@code action} in the next batch of {@code operation} and waits for that batch to commit,
+     * or runs it right away when group commit is off for the operation.
+     */
+    public <T> T call(GroupCommitOperation operation, Supplier<T> action) {
+        final Lane lane = lanes.get(operation);
+        if (lane == null) {
+            return action.get();
+        }
+        if (shuttingDown || !lane.thread.isAlive()) {
+            throw new InternalErrorException("Group commit of " + operation + " is not accepting operations");
+        }
+        final Pending<T> pending = new Pending<>(action, System.nanoTime());
+        lane.queue.add(pending);
+        // shutdown may have drained the queue between the check and the add
+        if (shuttingDown && lane.queue.remove(pending)) {
+            throw new InternalErrorException("Group commit of " + operation + " is not accepting operations");
+        }
+        try {
+            return pending.result.get(lane.resultTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // still queued means it never ran, otherwise its batch may yet commit
+            final boolean dequeued = lane.queue.remove(pending);
+            throw new InternalErrorException("Timed out waiting for group commit of " + operation
+                    + (dequeued ? ", the operation was not run" : ", the operation may still commit"));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new InternalErrorException("Group commit failed: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalErrorException("Interrupted while waiting for group commit");
+        }
+    }
+
+    public void run(GroupCommitOperation operation, Runnable action) {
+        call(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        lanes.values().forEach(lane -> lane.thread.interrupt());
+        for (Lane lane : lanes.values()) {
+            try {
+                lane.thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            final List<Pending<?>> abandoned = new ArrayList<>();
+            lane.queue.drainTo(abandoned);
+            abandoned.forEach(pending -> pending.result.completeExceptionally(new InternalErrorException("Shutting down")));
+        }
+    }
+
+    private void flush(List<Pending<?>> batch, int maxReplays) {
+        final List<Pending<?>> remaining = new ArrayList<>(batch);
+        for (int replays = 0; replays <= maxReplays && !remaining.isEmpty(); replays++) {
+            final Pending<?> failed = commit(remaining);
+            if (failed == null) {
+                return;
+            }
+            remaining.remove(failed);
+        }
+        for (Pending<?> pending : remaining) {
+            commit(List.of(pending));
+        }
+    }
+
+    /**
+     * Runs the operations in one transaction and completes them. Returns the operation that failed and rolled the
+     * others back, those are left pending for the next attempt.
+     */
+    private Pending<?> commit(List<Pending<?>> operations) {
+        try {
+            batchTransaction.executeWithoutResult(status -> operations.forEach(Pending::attempt));
+            operations.forEach(Pending::succeed);
+            return null;
+        } catch (OperationFailedException e) {
+            e.pending.result.completeExceptionally(e.getCause());
+            return e.pending;
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} operations failed", operations.size(), e);
+            operations.forEach(pending -> pending.result.completeExceptionally(e));
+            return null;
+        }
+    }
+
+    private static final class Pending<T> {
+        final Supplier<T> action;
+        final long enqueuedAt;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        T value;
+
+        Pending(Supplier<T> action, long enqueuedAt) {
+            this.action = action;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        void attempt() {
+            try {
+                value = action.get();
+            } catch (RuntimeException e) {
+                throw new OperationFailedException(this, e);
+            }
+        }
+
+        void succeed() {
+            result.complete(value);
+        }
+    }
+
+    private static final class OperationFailedException extends RuntimeException {
+        final Pending<?> pending;
+
+        OperationFailedException(Pending<?> pending, RuntimeException cause) {
+            super(cause);
+            this.pending = pending;
+        }
+    }
+
+    private final class Lane implements Runnable {
+        final GroupCommitOperation operation;
+        final int maxBatchSize;
+        final long maxDelayNanos;
+        final int maxReplays;
+        final long resultTimeoutNanos;
+        final BlockingQueue<Pending<?>> queue = new LinkedBlockingQueue<>();
+        final Thread thread;
+        final DistributionSummary batchSize;
+        final Timer queueLatency;
+
+        Lane(GroupCommitOperation operation, GroupCommitProperties.Lane config, MeterRegistry registry) {
+            this.operation = operation;
+            this.maxBatchSize = config.getMaxBatchSize();
+            this.maxDelayNanos = config.getMaxDelay().toNanos();
+            this.maxReplays = config.getMaxReplays();
+            this.resultTimeoutNanos = config.getResultTimeout().toNanos();
+            this.thread = Thread.ofPlatform().daemon().name("group-commit-" + operation.name().toLowerCase()).unstarted(this);
+            this.batchSize = DistributionSummary.builder("task.group-commit.batch.size")
+                    .tag("operation", operation.name())
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.queueLatency = Timer.builder("task.group-commit.queue.latency")
+                    .description("Time from enqueueing an operation until its batch starts")
+                    .tag("operation", operation.name())
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        @Override
+        public void run() {
+            final List<Pending<?>> batch = new ArrayList<>(maxBatchSize);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    final Pending<?> first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    final long deadline = first.enqueuedAt + maxDelayNanos;
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    while (batch.size() < maxBatchSize) {
+                        final Pending<?> next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (!batch.isEmpty()) {
+                    final long start = System.nanoTime();
+                    batchSize.record(batch.size());
+                    batch.forEach(pending -> queueLatency.record(start - pending.enqueuedAt, TimeUnit.NANOSECONDS));
+                    flush(batch, maxReplays);
+                    batch.clear();
+                }
+            }
+            log.debug("Group commit lane {} stopped", operation);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.spring.demo.implementation.groupcommit;
+
+public enum GroupCommitOperation {
+    ADD,
+    EDIT,
+    CHANGE_STATUS,
+    ASSIGN_PROJECT,
+    DELETE
+}
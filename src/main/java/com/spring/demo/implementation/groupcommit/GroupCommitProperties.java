@@ -0,0 +1,28 @@
+package com.spring.demo.implementation.groupcommit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * {@code task.group-commit.operations.<operation>.*}, operations without an entry commit on their own.
+ */
+@Data
+@ConfigurationProperties("task.group-commit")
+public class GroupCommitProperties {
+    private Map<GroupCommitOperation, Lane> operations = new EnumMap<>(GroupCommitOperation.class);
+
+    @Data
+    public static class Lane {
+        private boolean enabled;
+        private int maxBatchSize = 64;
+        private Duration maxDelay = Duration.ofMillis(5);
+        // how often a batch is replayed after a failed operation before the rest commit one by one
+        private int maxReplays = 2;
+        // how long a caller waits for its batch before giving up on it
+        private Duration resultTimeout = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,181 @@
+package com.spring.demo.implementation.importing;
+
+import com.spring.demo.api.exception.BadRequestException;
+import com.spring.demo.api.request.TaskAddRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * RFC 4180 records with a header naming the columns: {@code userId} and {@code name} are required,
+ * {@code projectId} and {@code description} optional, others are ignored. Empty unquoted fields read as null.
+ */
+class CsvTaskRowReader implements TaskRowReader {
+    // an unterminated quote would otherwise pull the rest of the upload into one field
+    private static final int MAX_FIELD_LENGTH = 64 * 1024;
+
+    private final BufferedReader input;
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private boolean headerRead;
+    private int columns;
+    private int userIdColumn = -1;
+    private int projectIdColumn = -1;
+    private int nameColumn = -1;
+    private int descriptionColumn = -1;
+    private long line;
+    private long nextLine = 1;
+
+    CsvTaskRowReader(BufferedReader input) {
+        this.input = input;
+    }
+
+    @Override
+    public TaskAddRequest next() throws IOException {
+        if (!headerRead && !readHeader()) {
+            return null;
+        }
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.getFirst() == null);
+        return toRequest(record);
+    }
+
+    @Override
+    public long line() {
+        return line;
+    }
+
+    private boolean readHeader() throws IOException {
+        headerRead = true;
+        final List<String> header = readRecord();
+        if (header == null) {
+            return false;
+        }
+        columns = header.size();
+        for (int column = 0; column < columns; column++) {
+            final String name = header.get(column) == null ? "" : header.get(column).trim().toLowerCase(Locale.ROOT);
+            switch (name) {
+                case "userid" -> userIdColumn = column;
+                case "projectid" -> projectIdColumn = column;
+                case "name" -> nameColumn = column;
+                case "description" -> descriptionColumn = column;
+                default -> {
+                }
+            }
+        }
+        if (userIdColumn < 0 || nameColumn < 0) {
+            throw new BadRequestException("CSV header must name the userId and name columns");
+        }
+        return true;
+    }
+
+    private TaskAddRequest toRequest(List<String> record) {
+        if (record.size() != columns) {
+            throw new RowFormatException("Expected " + columns + " fields, found " + record.size());
+        }
+        final Long userId = parseId("userId", record.get(userIdColumn));
+        if (userId == null) {
+            throw new RowFormatException("userId must not be empty");
+        }
+        return new TaskAddRequest(
+                userId,
+                projectIdColumn < 0 ? null : parseId("projectId", record.get(projectIdColumn)),
+                record.get(nameColumn),
+                descriptionColumn < 0 ? null : record.get(descriptionColumn)
+        );
+    }
+
+    private static Long parseId(String column, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new RowFormatException(column + " is not a number: " + value);
+        }
+    }
+
+    // the fields of the next record, null at the end of the input
+    private List<String> readRecord() throws IOException {
+        line = nextLine;
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        boolean read = false;
+        while (true) {
+            final int c = input.read();
+            if (c == -1) {
+                if (quoted) {
+                    throw new RowFormatException("Unterminated quoted field");
+                }
+                if (!read) {
+                    return null;
+                }
+                endField(wasQuoted);
+                return fields;
+            }
+            read = true;
+            if (quoted) {
+                if (c == '"') {
+                    input.mark(1);
+                    if (input.read() == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        input.reset();
+                    }
+                } else {
+                    if (c == '\n') {
+                        nextLine++;
+                    }
+                    append(c);
+                }
+            } else if (c == '"' && field.isEmpty() && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                endField(wasQuoted);
+                wasQuoted = false;
+            } else if (c == '\n') {
+                nextLine++;
+                endField(wasQuoted);
+                return fields;
+            } else if (c != '\r') {
+                append(c);
+            }
+        }
+    }
+
+    private void append(int c) throws IOException {
+        if (field.length() == MAX_FIELD_LENGTH) {
+            skipLine();
+            throw new RowFormatException("Field longer than " + MAX_FIELD_LENGTH + " characters");
+        }
+        field.append((char) c);
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        while ((c = input.read()) != -1) {
+            if (c == '\n') {
+                nextLine++;
+                return;
+            }
+        }
+    }
+
+    private void endField(boolean wasQuoted) {
+        fields.add(field.isEmpty() && !wasQuoted ? null : field.toString());
+        field.setLength(0);
+    }
+}
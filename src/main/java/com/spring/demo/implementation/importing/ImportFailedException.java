@@ -0,0 +1,20 @@
+package com.spring.demo.implementation.importing;
+
+import com.spring.demo.domain.ImportJob;
+import lombok.Getter;
+
+/**
+ * An import that stopped before the end of the upload, {@code job} is its final state. {@code uploadRejected}
+ * tells an upload that could not be read, or read as tasks, from a failure on the server's side.
+ */
+@Getter
+public class ImportFailedException extends RuntimeException {
+    private final ImportJob job;
+    private final boolean uploadRejected;
+
+    ImportFailedException(ImportJob job, boolean uploadRejected, Throwable cause) {
+        super(job.getError(), cause);
+        this.job = job;
+        this.uploadRejected = uploadRejected;
+    }
+}
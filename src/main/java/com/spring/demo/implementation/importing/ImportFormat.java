@@ -0,0 +1,6 @@
+package com.spring.demo.implementation.importing;
+
+public enum ImportFormat {
+    NDJSON,
+    CSV
+}
@@ -0,0 +1,72 @@
+package com.spring.demo.implementation.importing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.spring.demo.api.request.TaskAddRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+// one JSON object per line, blank lines are skipped
+class NdjsonTaskRowReader implements TaskRowReader {
+    // a newline that never comes would otherwise pull the rest of the upload into one line
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private final BufferedReader input;
+    private final ObjectReader reader;
+    private final StringBuilder text = new StringBuilder();
+    private long line;
+
+    NdjsonTaskRowReader(BufferedReader input, ObjectReader reader) {
+        this.input = input;
+        this.reader = reader.forType(TaskAddRequest.class);
+    }
+
+    @Override
+    public TaskAddRequest next() throws IOException {
+        String text;
+        do {
+            text = readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+        try {
+            return reader.readValue(text);
+        } catch (JsonProcessingException e) {
+            throw new RowFormatException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public long line() {
+        return line;
+    }
+
+    // like BufferedReader.readLine but ends at '\n' only, a trailing '\r' stays and reads as JSON whitespace
+    private String readLine() throws IOException {
+        text.setLength(0);
+        int c = input.read();
+        if (c < 0) {
+            return null;
+        }
+        while (c >= 0 && c != '\n') {
+            if (text.length() == MAX_LINE_LENGTH) {
+                skipLine();
+                line++;
+                throw new RowFormatException("Line longer than " + MAX_LINE_LENGTH + " characters");
+            }
+            text.append((char) c);
+            c = input.read();
+        }
+        return text.toString();
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        do {
+            c = input.read();
+        } while (c >= 0 && c != '\n');
+    }
+}
@@ -0,0 +1,10 @@
+package com.spring.demo.implementation.importing;
+
+/**
+ * A record that could not be read, the reader has already moved past it.
+ */
+class RowFormatException extends RuntimeException {
+    RowFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,232 @@
+package com.spring.demo.implementation.importing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.spring.demo.api.ProjectService;
+import com.spring.demo.api.TaskService;
+import com.spring.demo.api.UserService;
+import com.spring.demo.api.exception.BadRequestException;
+import com.spring.demo.api.exception.ResourceNotFoundException;
+import com.spring.demo.api.request.TaskAddRequest;
+import com.spring.demo.domain.ImportJob;
+import com.spring.demo.domain.ImportRowError;
+import com.spring.demo.domain.JobStatus;
+import com.spring.demo.domain.Project;
+import com.spring.demo.domain.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Loads tasks from an NDJSON or CSV upload in batches of {@code task.import.batch-size}, each batch one
+ * {@link TaskService#addAll} transaction.
+ * <p>
+ * User and project ids are read once up front, records pointing elsewhere are rejected without a lookup.
+ * A record that fails is reported with its line and skipped, the import goes on with the next one.
+ */
+@Slf4j
+@Component
+public class TaskImporter {
+    private static final int PAGE_SIZE = 1000;
+    // column sizes of schema.sql, checked here so one long name does not cost the whole batch
+    private static final int NAME_LENGTH = 45;
+    private static final int DESCRIPTION_LENGTH = 160;
+
+    private final TaskService taskService;
+    private final UserService userService;
+    private final ProjectService projectService;
+    private final ObjectReader reader;
+    private final int batchSize;
+    private final int maxErrors;
+    private final Duration retention;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public TaskImporter(TaskService taskService, UserService userService, ProjectService projectService, ObjectMapper objectMapper,
+                        @Value("${task.import.batch-size:500}") int batchSize,
+                        @Value("${task.import.max-errors:1000}") int maxErrors,
+                        @Value("${task.import.retention:PT24H}") Duration retention) {
+        this.taskService = taskService;
+        this.userService = userService;
+        this.projectService = projectService;
+        this.reader = objectMapper.reader();
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.retention = retention;
+    }
+
+    // registers a job so its id can be handed out before the upload is read
+    public String start() {
+        final Job job = new Job(UUID.randomUUID().toString());
+        jobs.put(job.id, job);
+        return job.id;
+    }
+
+    public ImportJob get(String jobId) {
+        final Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job not found with id: " + jobId);
+        }
+        return job.snapshot();
+    }
+
+    /**
+     * Reads the upload on the calling thread, one record ahead of the batch being written.
+     *
+     * @throws ImportFailedException when the import stops early, the batches written before stay committed
+     */
+    public ImportJob run(String jobId, ImportFormat format, BufferedReader input) {
+        final Job job = jobs.get(jobId);
+        final TaskRowReader rows = switch (format) {
+            case NDJSON -> new NdjsonTaskRowReader(input, reader);
+            case CSV -> new CsvTaskRowReader(input);
+        };
+        try {
+            final Set<Long> userIds = loadIds(afterId -> userService.getPage(afterId, PAGE_SIZE).getItems(), User::getId);
+            final Set<Long> projectIds = loadIds(afterId -> projectService.getPage(afterId, PAGE_SIZE).getItems(), Project::getId);
+            final List<TaskAddRequest> batch = new ArrayList<>(batchSize);
+            final long[] batchLines = new long[batchSize];
+            while (true) {
+                final TaskAddRequest request;
+                try {
+                    request = rows.next();
+                } catch (RowFormatException e) {
+                    job.rows++;
+                    job.reject(rows.line(), e.getMessage());
+                    continue;
+                }
+                if (request == null) {
+                    break;
+                }
+                job.rows++;
+                final String problem = validate(request, userIds, projectIds);
+                if (problem != null) {
+                    job.reject(rows.line(), problem);
+                    continue;
+                }
+                batchLines[batch.size()] = rows.line();
+                batch.add(request);
+                if (batch.size() == batchSize) {
+                    write(job, batch, batchLines);
+                }
+            }
+            write(job, batch, batchLines);
+            job.finish(JobStatus.DONE);
+            log.info("Import {} read {} tasks, imported {}, rejected {}", job.id, job.rows, job.imported, job.failed);
+        } catch (IOException | RuntimeException e) {
+            log.error("Import {} failed after {} tasks", job.id, job.rows, e);
+            job.error = e.getMessage();
+            job.finish(JobStatus.FAILED);
+            // a broken off upload and a CSV header without the required columns are the client's to fix
+            throw new ImportFailedException(job.snapshot(), e instanceof IOException || e instanceof BadRequestException, e);
+        }
+        return job.snapshot();
+    }
+
+    @Scheduled(fixedDelayString = "${task.import.cleanup-interval:PT1H}", initialDelayString = "${task.import.cleanup-interval:PT1H}")
+    public void removeExpired() {
+        final OffsetDateTime expiredBefore = OffsetDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(expiredBefore));
+    }
+
+    // a batch the database turns down fails as a whole, the batches before it stay committed
+    private void write(Job job, List<TaskAddRequest> batch, long[] lines) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            taskService.addAll(batch);
+            job.imported += batch.size();
+        } catch (RuntimeException e) {
+            log.warn("Import {} lost a batch of {} tasks: {}", job.id, batch.size(), e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                job.reject(lines[i], "Batch rejected: " + e.getMessage());
+            }
+        }
+        batch.clear();
+    }
+
+    private static String validate(TaskAddRequest request, Set<Long> userIds, Set<Long> projectIds) {
+        if (!userIds.contains(request.getUserId())) {
+            return "User not found with id: " + request.getUserId();
+        }
+        if (request.getProjectId() != null && !projectIds.contains(request.getProjectId())) {
+            return "Project not found with id: " + request.getProjectId();
+        }
+        if (request.getName() == null || request.getName().isBlank()) {
+            return "name must not be empty";
+        }
+        if (request.getName().length() > NAME_LENGTH) {
+            return "name must be at most " + NAME_LENGTH + " characters";
+        }
+        if (request.getDescription() != null && request.getDescription().length() > DESCRIPTION_LENGTH) {
+            return "description must be at most " + DESCRIPTION_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private static <T> Set<Long> loadIds(LongFunction<List<T>> page, ToLongFunction<T> id) {
+        final Set<Long> ids = new HashSet<>();
+        List<T> items = page.apply(0);
+        while (!items.isEmpty()) {
+            items.forEach(item -> ids.add(id.applyAsLong(item)));
+            items = page.apply(id.applyAsLong(items.getLast()));
+        }
+        return ids;
+    }
+
+    // written by the importing thread only, status is published last so a reader seeing DONE sees the rest
+    private final class Job {
+        private final String id;
+        private final OffsetDateTime startedAt = OffsetDateTime.now();
+        private final long startedNanos = System.nanoTime();
+        private final Queue<ImportRowError> errors = new ConcurrentLinkedQueue<>();
+        private volatile long rows;
+        private volatile long imported;
+        private volatile long failed;
+        private volatile long finishedNanos;
+        private volatile OffsetDateTime finishedAt;
+        private volatile String error;
+        private volatile JobStatus status = JobStatus.RUNNING;
+
+        private Job(String id) {
+            this.id = id;
+        }
+
+        private void reject(long line, String message) {
+            if (failed < maxErrors) {
+                errors.add(new ImportRowError(line, message));
+            }
+            failed++;
+        }
+
+        private void finish(JobStatus status) {
+            finishedNanos = System.nanoTime();
+            finishedAt = OffsetDateTime.now();
+            this.status = status;
+        }
+
+        private ImportJob snapshot() {
+            final JobStatus status = this.status;
+            final long elapsedNanos = (status == JobStatus.RUNNING ? System.nanoTime() : finishedNanos) - startedNanos;
+            final double rowsPerSecond = elapsedNanos > 0 ? rows * 1e9 / elapsedNanos : 0;
+            return new ImportJob(id, status, rows, imported, failed, rowsPerSecond, startedAt, finishedAt, error, List.copyOf(errors));
+        }
+    }
+}
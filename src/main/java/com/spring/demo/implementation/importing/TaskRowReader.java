@@ -0,0 +1,19 @@
+package com.spring.demo.implementation.importing;
+
+import com.spring.demo.api.request.TaskAddRequest;
+
+import java.io.IOException;
+
+/**
+ * Reads an upload one record at a time, only the current record is ever held.
+ */
+interface TaskRowReader {
+    /**
+     * The next record or null at the end of the input, a malformed record throws {@link RowFormatException}
+     * and the following call continues after it.
+     */
+    TaskAddRequest next() throws IOException;
+
+    // the line the record returned or rejected last starts on
+    long line();
+}
@@ -0,0 +1,250 @@
+package com.spring.demo.implementation.index;
+
+import com.spring.demo.api.event.TaskChangedEvent;
+import com.spring.demo.api.event.TasksChangedEvent;
+import com.spring.demo.domain.CursorPage;
+import com.spring.demo.domain.Task;
+import com.spring.demo.domain.TaskBulkChange;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory inverted index over task names and descriptions, terms folded by {@link TextFolding}.
+ * <p>
+ * Every query term has to match, the last one also as a prefix so results show up while the word is still being
+ * typed. Matches are ranked by TF-IDF with name terms weighing {@value #NAME_WEIGHT} times as much as description
+ * terms, ties by id. Rows are fetched from the database for the page being returned, tasks deleted in the meantime
+ * drop out of it.
+ */
+@Component
+public class TaskSearchIndex {
+    private static final int NAME_WEIGHT = 3;
+    private static final int MAX_PREFIX_TERMS = 64;
+    private static final double PREFIX_MATCH_FACTOR = 0.5;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    // changes seen while a rebuild is loading, replayed onto the new index so they are not lost
+    private List<Consumer<Index>> pending;
+
+    /**
+     * @param pageAfter next tasks in id order after the given id, an empty list ends the load
+     */
+    public void rebuild(Function<Long, List<Task>> pageAfter) {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        final Index rebuilt = new Index();
+        boolean loaded = false;
+        try {
+            long afterId = 0;
+            for (List<Task> page = pageAfter.apply(afterId); !page.isEmpty(); page = pageAfter.apply(afterId)) {
+                page.forEach(rebuilt::add);
+                afterId = page.getLast().getId();
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    pending.forEach(change -> change.accept(rebuilt));
+                    index = rebuilt;
+                }
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Ranked matches of {@code query}, optionally only tasks of {@code userId}. Pages are addressed by rank offset,
+     * {@link CursorPage#getNextAfter()} is the offset of the next page.
+     *
+     * @param fetchByIds rows of the given ids in any order
+     */
+    public CursorPage<Task> search(String query, Long userId, int offset, int limit, Function<List<Long>, List<Task>> fetchByIds) {
+        final List<String> terms = TextFolding.tokens(query);
+        if (terms.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        final List<Long> ranked;
+        lock.readLock().lock();
+        try {
+            ranked = index.rank(terms, userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (offset >= ranked.size()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        final List<Long> pageIds = ranked.subList(offset, Math.min(ranked.size(), offset + limit));
+        final Map<Long, Task> rows = new HashMap<>();
+        for (Task task : fetchByIds.apply(pageIds)) {
+            rows.put(task.getId(), task);
+        }
+        final List<Task> items = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            final Task task = rows.get(id);
+            if (task != null) {
+                items.add(task);
+            }
+        }
+        return new CursorPage<>(items, offset + limit < ranked.size() ? (long) offset + limit : null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        apply(index -> index.apply(event));
+    }
+
+    // status changes leave names and descriptions as they are
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTasksChanged(TasksChangedEvent event) {
+        switch (event.getType()) {
+            case TASKS_DELETED -> apply(index -> index.removeAll(event.getChange()));
+            case TASKS_ASSIGNED -> apply(index -> index.moveAll(event.getChange()));
+            default -> { }
+        }
+    }
+
+    private void apply(Consumer<Index> change) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(change);
+            }
+            change.accept(index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static final class Document {
+        final long userId;
+        // kept so that bulk changes can find the tasks of a project without going to the database
+        Long projectId;
+        final Map<String, Integer> weights;
+
+        Document(long userId, Long projectId, Map<String, Integer> weights) {
+            this.userId = userId;
+            this.projectId = projectId;
+            this.weights = weights;
+        }
+    }
+
+    private static final class Index {
+        final Map<Long, Document> documents = new HashMap<>();
+        // term -> task id -> weight of the term in that task
+        final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+        void apply(TaskChangedEvent event) {
+            if (event.getBefore() != null) {
+                remove(event.getBefore().getId());
+            }
+            if (event.getAfter() != null) {
+                add(event.getAfter());
+            }
+        }
+
+        void add(Task task) {
+            remove(task.getId());
+            final Map<String, Integer> weights = new HashMap<>();
+            TextFolding.tokens(task.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+            TextFolding.tokens(task.getDescription()).forEach(term -> weights.merge(term, 1, Integer::sum));
+            documents.put(task.getId(), new Document(task.getUserId(), task.getProjectId(), weights));
+            weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(task.getId(), weight));
+        }
+
+        void remove(long id) {
+            final Document document = documents.remove(id);
+            if (document == null) {
+                return;
+            }
+            for (String term : document.weights.keySet()) {
+                final Map<Long, Integer> posting = postings.get(term);
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        // a full scan of the documents, bulk changes are rare next to single-task ones
+        void removeAll(TaskBulkChange change) {
+            final List<Long> ids = new ArrayList<>();
+            documents.forEach((id, document) -> {
+                if (change.matches(document.projectId, document.userId)) {
+                    ids.add(id);
+                }
+            });
+            ids.forEach(this::remove);
+        }
+
+        void moveAll(TaskBulkChange change) {
+            for (Document document : documents.values()) {
+                if (change.matches(document.projectId, document.userId)) {
+                    document.projectId = change.getToProjectId();
+                }
+            }
+        }
+
+        List<Long> rank(List<String> terms, Long userId) {
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < terms.size() && (scores == null || !scores.isEmpty()); i++) {
+                final String term = terms.get(i);
+                final Map<Long, Double> termScores = new HashMap<>();
+                if (i == terms.size() - 1) {
+                    int expanded = 0;
+                    for (Map.Entry<String, Map<Long, Integer>> entry : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                        if (expanded++ == MAX_PREFIX_TERMS) {
+                            break;
+                        }
+                        score(entry.getValue(), entry.getKey().equals(term) ? 1 : PREFIX_MATCH_FACTOR, userId, termScores);
+                    }
+                } else {
+                    final Map<Long, Integer> posting = postings.get(term);
+                    if (posting != null) {
+                        score(posting, 1, userId, termScores);
+                    }
+                }
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    final Map<Long, Double> matchedSoFar = scores;
+                    termScores.keySet().retainAll(matchedSoFar.keySet());
+                    termScores.replaceAll((id, score) -> score + matchedSoFar.get(id));
+                    scores = termScores;
+                }
+            }
+            final Map<Long, Double> finalScores = scores;
+            return finalScores.keySet().stream()
+                    .sorted(Comparator.comparing((Long id) -> finalScores.get(id)).reversed().thenComparing(id -> id))
+                    .toList();
+        }
+
+        private void score(Map<Long, Integer> posting, double factor, Long userId, Map<Long, Double> scores) {
+            final double idf = Math.log(1 + (double) documents.size() / posting.size());
+            posting.forEach((id, weight) -> {
+                if (userId == null || documents.get(id).userId == userId) {
+                    scores.merge(id, weight * idf * factor, Double::sum);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.spring.demo.implementation.index;
+
+import com.spring.demo.api.TaskService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the {@link TaskSearchIndex} at startup and rebuilds it periodically, which drops anything the change events missed.
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskSearchIndexLoader {
+    private static final int PAGE_SIZE = 1000;
+
+    private final TaskService taskService;
+    private final TaskSearchIndex searchIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${task.search-index.rebuild-interval:PT30M}", initialDelayString = "${task.search-index.rebuild-interval:PT30M}")
+    public void rebuild() {
+        searchIndex.rebuild(afterId -> taskService.getPage(afterId, PAGE_SIZE).getItems());
+    }
+}
@@ -0,0 +1,168 @@
+package com.spring.demo.implementation.index;
+
+import com.spring.demo.api.event.TaskChangedEvent;
+import com.spring.demo.domain.CursorPage;
+import com.spring.demo.domain.Task;
+import com.spring.demo.domain.TaskStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory secondary index from status to task ids, one {@link BitSet} per status.
+ * <p>
+ * The index is advisory: callers re-check the status when fetching the rows, so a stale id only costs
+ * a wasted lookup. It is unusable until the first {@link #rebuild}, whenever an id outgrows an int and from an
+ * {@link #invalidate} until the rebuild after it, callers then fall back to querying by status.
+ */
+@Slf4j
+@Component
+public class TaskStatusIndex {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<TaskStatus, BitSet> idsByStatus = emptyIndex();
+    private boolean usable = false;
+    // changes seen while a rebuild is loading, replayed onto the new index so they are not lost
+    private List<TaskChangedEvent> pending;
+    // bumped by invalidate, a rebuild that loaded across an invalidation may have missed its rows
+    private long invalidations;
+
+    public void rebuild(Function<TaskStatus, List<Long>> idsOfStatus) {
+        final long invalidationsAtStart;
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+            invalidationsAtStart = invalidations;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        final Map<TaskStatus, BitSet> rebuilt = emptyIndex();
+        boolean fits = true;
+        boolean loaded = false;
+        try {
+            for (TaskStatus status : TaskStatus.values()) {
+                for (long id : idsOfStatus.apply(status)) {
+                    fits &= set(rebuilt.get(status), id);
+                }
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    for (TaskChangedEvent event : pending) {
+                        fits &= apply(rebuilt, event);
+                    }
+                    idsByStatus = rebuilt;
+                    usable = fits && invalidations == invalidationsAtStart;
+                }
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // pages through the index and fetches the rows in bulk; fetchByIds must return the matching rows ordered by id
+    public Optional<CursorPage<Task>> getPage(TaskStatus status, long afterId, int limit, Function<List<Long>, List<Task>> fetchByIds) {
+        final List<Task> rows = new ArrayList<>(limit + 1);
+        long cursor = afterId;
+        while (rows.size() <= limit) {
+            final List<Long> ids = idsAfter(status, cursor, limit + 1 - rows.size());
+            if (ids == null) {
+                return Optional.empty();
+            }
+            if (ids.isEmpty()) {
+                break;
+            }
+            rows.addAll(fetchByIds.apply(ids));
+            cursor = ids.getLast();
+        }
+        return Optional.of(CursorPage.of(rows, limit, Task::getId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            usable &= apply(idsByStatus, event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Makes the index unusable until the next {@link #rebuild} has loaded, for status changes that come without their ids.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            usable = false;
+            invalidations++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean apply(Map<TaskStatus, BitSet> index, TaskChangedEvent event) {
+        if (event.getBefore() != null) {
+            clear(index.get(event.getBefore().getStatus()), event.getBefore().getId());
+        }
+        return event.getAfter() == null || set(index.get(event.getAfter().getStatus()), event.getAfter().getId());
+    }
+
+    private static Map<TaskStatus, BitSet> emptyIndex() {
+        final Map<TaskStatus, BitSet> index = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            index.put(status, new BitSet());
+        }
+        return index;
+    }
+
+    private List<Long> idsAfter(TaskStatus status, long afterId, int max) {
+        lock.readLock().lock();
+        try {
+            if (!usable) {
+                return null;
+            }
+            final BitSet bits = idsByStatus.get(status);
+            final List<Long> ids = new ArrayList<>(max);
+            for (int id = bits.nextSetBit((int) Math.min(afterId + 1, Integer.MAX_VALUE)); id >= 0 && ids.size() < max; id = bits.nextSetBit(id + 1)) {
+                ids.add((long) id);
+                if (id == Integer.MAX_VALUE) {
+                    break;
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean set(BitSet bits, long id) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            log.warn("Task id {} does not fit the status index, falling back to status queries", id);
+            return false;
+        }
+        bits.set((int) id);
+        return true;
+    }
+
+    private static void clear(BitSet bits, long id) {
+        if (id >= 0 && id <= Integer.MAX_VALUE) {
+            bits.clear((int) id);
+        }
+    }
+}
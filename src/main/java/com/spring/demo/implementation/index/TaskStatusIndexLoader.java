@@ -0,0 +1,64 @@
+package com.spring.demo.implementation.index;
+
+import com.spring.demo.api.TaskService;
+import com.spring.demo.api.event.TasksChangedEvent;
+import com.spring.demo.domain.TaskChangeType;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Builds the {@link TaskStatusIndex} at startup and rebuilds it periodically, which drops ids removed by cascading deletes.
+ * A set-based status change invalidates the index and rebuilds it in the background, status queries go to the database
+ * in the meantime.
+ */
+@Component
+public class TaskStatusIndexLoader {
+    private final TaskService taskService;
+    private final TaskStatusIndex statusIndex;
+    private final TaskExecutor executor;
+    // the index takes one rebuild at a time, requests arriving while one runs are folded into a single next one
+    private final ReentrantLock rebuilding = new ReentrantLock();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    public TaskStatusIndexLoader(TaskService taskService, TaskStatusIndex statusIndex,
+                                 @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor executor) {
+        this.taskService = taskService;
+        this.statusIndex = statusIndex;
+        this.executor = executor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${task.status-index.rebuild-interval:PT5M}", initialDelayString = "${task.status-index.rebuild-interval:PT5M}")
+    public void rebuild() {
+        rebuilding.lock();
+        try {
+            statusIndex.rebuild(taskService::getIdsByStatus);
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTasksChanged(TasksChangedEvent event) {
+        if (event.getType() != TaskChangeType.TASKS_STATUS_CHANGED) {
+            // deleted ids are re-checked by the callers and dropped by the periodic rebuild, moves keep the status
+            return;
+        }
+        statusIndex.invalidate();
+        if (!rebuildRequested.getAndSet(true)) {
+            executor.execute(() -> {
+                rebuildRequested.set(false);
+                rebuild();
+            });
+        }
+    }
+}
@@ -6,17 +6,20 @@ import org.springframework.stereotype.Component;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 @Component
 public class ProjectRowMapper implements RowMapper <Project>{
+    public static final String COLUMNS = "id, user_id, name, description, created_at";
+
     @Override
     public Project mapRow(ResultSet rs, int rowNum) throws SQLException {
         return new Project(
-                rs.getLong("id"),
-                rs.getLong("user_id"),
-                rs.getString("name"),
-                rs.getString("description"),
-                rs.getTimestamp("created_at").toLocalDateTime().atOffset(ZoneOffset.UTC)
+                rs.getLong(1),
+                rs.getLong(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getObject(5, LocalDateTime.class).atOffset(ZoneOffset.UTC)
         );
     }
 }
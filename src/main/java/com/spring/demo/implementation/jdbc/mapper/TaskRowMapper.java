@@ -7,21 +7,28 @@ import org.springframework.stereotype.Component;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 
 @Component
 public class TaskRowMapper implements RowMapper<Task> {
+    // mapRow reads by position, every query using this mapper has to select exactly these columns in this order
+    public static final String COLUMNS = "id, user_id, project_id, name, description, status, created_at";
+
     @Override
     public Task mapRow(ResultSet rs, int rowNum) throws SQLException {
+        final long id = rs.getLong(1);
+        final long userId = rs.getLong(2);
+        final long projectId = rs.getLong(3);
+        final Long nullableProjectId = rs.wasNull() ? null : projectId;
         return new Task(
-                rs.getLong("id"),
-                rs.getLong("user_id"),
-                rs.getObject("project_id") != null ? rs.getLong("project_id") : null,
-                rs.getString("name"),
-                rs.getString("description"),
-                TaskStatus.fromString(rs.getString("status")),
-                rs.getTimestamp("created_at").toLocalDateTime().atOffset(ZoneOffset.UTC)
+                id,
+                userId,
+                nullableProjectId,
+                rs.getString(4),
+                rs.getString(5),
+                TaskStatus.fromString(rs.getString(6)),
+                rs.getObject(7, LocalDateTime.class).atOffset(ZoneOffset.UTC)
         );
     }
 }
-
@@ -9,12 +9,14 @@ import java.sql.SQLException;
 
 @Component
 public class UserRowMapper implements RowMapper<User> {
+    public static final String COLUMNS = "id, name, email";
+
     @Override
     public User mapRow(ResultSet rs, int rowNum) throws SQLException {
         return new User(
-                rs.getLong("id"),
-                rs.getString("name"),
-                rs.getString("email")
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3)
         );
     }
 }
@@ -1,10 +1,12 @@
 package com.spring.demo.implementation.jdbc.repository;
 
 import com.spring.demo.api.exception.BadRequestException;
+import com.spring.demo.api.exception.ConflictException;
 import com.spring.demo.api.exception.InternalErrorException;
 import com.spring.demo.api.exception.ResourceNotFoundException;
 import com.spring.demo.api.request.ProjectAddRequest;
 import com.spring.demo.api.request.ProjectEditRequest;
+import com.spring.demo.domain.ListVersion;
 import com.spring.demo.domain.Project;
 import com.spring.demo.implementation.jdbc.mapper.ProjectRowMapper;
 import lombok.RequiredArgsConstructor;
@@ -13,8 +15,10 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
@@ -25,21 +29,31 @@ import java.util.List;
 
 @Slf4j
 @Repository
+@Profile("jdbc")
 @RequiredArgsConstructor
 public class ProjectJdbcRepository {
     private final JdbcTemplate jdbcTemplate;
     private final ProjectRowMapper projectRowMapper;
-    private final UserJdbcRepository userRepository;
 
-    private static final String GET_ALL = "SELECT * FROM project";
-    private static final String GET_BY_ID = "SELECT * FROM project WHERE id = ?";
-    private static final String GET_ALL_BY_USER = "SELECT * FROM project WHERE user_id = ?";
+    private static final String GET_ALL = "SELECT " + ProjectRowMapper.COLUMNS + " FROM project";
+    private static final String GET_BY_ID = "SELECT " + ProjectRowMapper.COLUMNS + " FROM project WHERE id = ?";
+    private static final String GET_ALL_BY_USER = "SELECT " + ProjectRowMapper.COLUMNS + " FROM project WHERE user_id = ?";
+    private static final String GET_PAGE = "SELECT " + ProjectRowMapper.COLUMNS + " FROM project WHERE id > ? ORDER BY id LIMIT ?";
 
     private static final String INSERT_PROJECT = "INSERT INTO project (id, user_id, name, description, created_at)" +
                                                  " VALUES (next value for project_id_seq, ?, ?, ?, ?)";
     private static final String DELETE_PROJECT = "DELETE FROM project WHERE id = ?";
-    private static final String UPDATE_PROJECT = "UPDATE project SET name = ?, description = ? WHERE id = ?";
-    private static final String DELETE_ALL_BY_USER = "DELETE FROM project WHERE user_id = ?";
+    private static final String DELETE_BY_USER = "SELECT id FROM OLD TABLE (DELETE FROM project WHERE user_id = ?)";
+    private static final String UPDATE_PROJECT = "UPDATE project SET name = ?, description = ?, version = version + 1 WHERE id = ?";
+    private static final String UPDATE_PROJECT_IF_VERSION = UPDATE_PROJECT + " AND version = ?";
+    private static final String GET_VERSION = "SELECT version FROM project WHERE id = ?";
+    // aggregates over the page's (id, changed) pairs only, the rows themselves are never read
+    private static final String LIST_VERSION = "SELECT COUNT(*), COALESCE(SUM(id), 0), COALESCE(MAX(changed), 0)" +
+            " FROM (SELECT id, changed FROM project WHERE id > ?%s ORDER BY id LIMIT ?)";
+    private static final String PAGE_VERSION = LIST_VERSION.formatted("");
+    private static final String PAGE_VERSION_BY_USER = LIST_VERSION.formatted(" AND user_id = ?");
+    private static final RowMapper<ListVersion> LIST_VERSION_MAPPER = (rs, rowNum) ->
+            new ListVersion(rs.getLong(1), rs.getLong(2), rs.getLong(3));
 
     public List<Project> getAll(){
         try {
@@ -72,15 +86,49 @@ public class ProjectJdbcRepository {
         }
     }
 
+    public List<Project> getPage(long afterId, int limit) {
+        try {
+            return jdbcTemplate.query(GET_PAGE, projectRowMapper, afterId, limit);
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while fetching project page after id: {}", afterId, e);
+            throw new InternalErrorException("Error accessing data while fetching project page");
+        }
+    }
+
+    public long getVersion(long id) {
+        try {
+            return jdbcTemplate.queryForObject(GET_VERSION, Long.class, id);
+        } catch (EmptyResultDataAccessException e) {
+            log.warn("No project found with id: {}", id);
+            throw new ResourceNotFoundException("Project not found with id: " + id);
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while fetching version of project with id: {}", id, e);
+            throw new InternalErrorException("Error accessing data while fetching project version");
+        }
+    }
+
+    public ListVersion getPageVersion(long afterId, int rows) {
+        return getListVersion(PAGE_VERSION, afterId, rows);
+    }
+
+    public ListVersion getPageVersionByUser(long userId, long afterId, int rows) {
+        return getListVersion(PAGE_VERSION_BY_USER, afterId, userId, rows);
+    }
+
+    private ListVersion getListVersion(String sql, Object... args) {
+        try {
+            return jdbcTemplate.queryForObject(sql, LIST_VERSION_MAPPER, args);
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while fetching project list version", e);
+            throw new InternalErrorException("Error accessing data while fetching project list version");
+        }
+    }
+
     public long addProject(ProjectAddRequest request){
         try {
             final KeyHolder keyHolder = new GeneratedKeyHolder();
             jdbcTemplate.update(connection ->{
-                final PreparedStatement stmt = connection.prepareStatement(INSERT_PROJECT, PreparedStatement.RETURN_GENERATED_KEYS);
-                if (userRepository.getById(request.getUserId()) == null) {
-                    log.error("User not found with id: {}", request.getUserId());
-                    throw new ResourceNotFoundException("User not found with id: " + request.getUserId());
-                }
+                final PreparedStatement stmt = connection.prepareStatement(INSERT_PROJECT, new String[]{"id"});
                 stmt.setLong(1, request.getUserId());
                 stmt.setString(2, request.getName());
                 if (request.getDescription() != null){
@@ -105,36 +153,49 @@ public class ProjectJdbcRepository {
         }
     }
 
-    public void updateProject(long id, ProjectEditRequest request){
+    public void updateProject(long id, ProjectEditRequest request, Long expectedVersion){
+        final int updated;
         try {
-            jdbcTemplate.update(UPDATE_PROJECT, request.getName(), request.getDescription(),id);
+            updated = expectedVersion != null
+                    ? jdbcTemplate.update(UPDATE_PROJECT_IF_VERSION, request.getName(), request.getDescription(), id, expectedVersion)
+                    : jdbcTemplate.update(UPDATE_PROJECT, request.getName(), request.getDescription(), id);
         }catch (DataAccessException e){
             log.error("Error accessing data while updating project: {}", request, e);
             throw new InternalErrorException("Error accessing data while updating project");
         }
+        if (updated == 0 && expectedVersion != null) {
+            final long version = getVersion(id);
+            throw new ConflictException("Project " + id + " is at version " + version + ", not " + expectedVersion);
+        }
+        requireProjectUpdated(updated, id);
     }
 
+    // tasks of the project go with it through ON DELETE CASCADE
     public void deleteProject(long id){
+        final int deleted;
         try {
-            jdbcTemplate.update(DELETE_PROJECT, id);
-        }catch (EmptyResultDataAccessException e){
-            log.warn("No project found with id: {}", id);
-            throw new ResourceNotFoundException("Project not found with id: " + id);
+            deleted = jdbcTemplate.update(DELETE_PROJECT, id);
         } catch (DataAccessException e) {
             log.error("Error accessing data while deleting project with id: {}", id, e);
             throw new InternalErrorException("Error accessing data while deleting project with id: " + id);
         }
+        requireProjectUpdated(deleted, id);
     }
 
-    public void deleteAllByUser(long userId){
+    // returns the ids of the deleted projects, their tasks go with them through ON DELETE CASCADE
+    public List<Long> deleteAllByUser(long userId) {
         try {
-            jdbcTemplate.update(
-                    DELETE_ALL_BY_USER,
-                    userId
-            );
-        }catch (DataAccessException e){
-            log.error("Error accessing data while deleting all projects by user with id: {}", userId, e);
-            throw new InternalErrorException("Error accessing data while deleting all projects by user with id: " + userId);
+            return jdbcTemplate.queryForList(DELETE_BY_USER, Long.class, userId);
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while deleting projects of user id: {}", userId, e);
+            throw new InternalErrorException("Error accessing data while deleting projects of user id: " + userId);
+        }
+    }
+
+    private void requireProjectUpdated(int rows, long id) {
+        if (rows == 0) {
+            log.warn("No project found with id: {}", id);
+            throw new ResourceNotFoundException("Project not found with id: " + id);
         }
     }
 }
@@ -1,9 +1,11 @@
 package com.spring.demo.implementation.jdbc.repository;
 
+import com.spring.demo.api.exception.ConflictException;
 import com.spring.demo.api.exception.InternalErrorException;
 import com.spring.demo.api.exception.ResourceNotFoundException;
 import com.spring.demo.api.request.TaskAddRequest;
-import com.spring.demo.api.request.TaskEditRequest;
+import com.spring.demo.domain.ListVersion;
+import com.spring.demo.domain.ProjectStatusCount;
 import com.spring.demo.domain.Task;
 import com.spring.demo.domain.TaskStatus;
 import com.spring.demo.implementation.jdbc.mapper.TaskRowMapper;
@@ -12,36 +14,89 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Timestamp;
 import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Slf4j
 @Repository
+@Profile("jdbc")
 @RequiredArgsConstructor
 public class TaskJdbcRepository {
     private final JdbcTemplate jdbcTemplate;
     private final TaskRowMapper taskMapper;
-    private final UserJdbcRepository userRepository;
 
-    private static final String GET_ALL = "SELECT * FROM task";
-    private static final String GET_BY_ID = "SELECT * FROM task WHERE id = ?";
-    private static final String GET_ALL_BY_USER = "SELECT * FROM task WHERE user_id = ?";
-    private static final String GET_ALL_BY_PROJECT = "SELECT * FROM task WHERE project_id = ?";
+    private static final String GET_ALL = "SELECT " + TaskRowMapper.COLUMNS + " FROM task";
+    private static final String GET_BY_ID = "SELECT " + TaskRowMapper.COLUMNS + " FROM task WHERE id = ?";
+    private static final String GET_ALL_BY_USER = "SELECT " + TaskRowMapper.COLUMNS + " FROM task WHERE user_id = ?";
+    private static final String GET_ALL_BY_PROJECT = "SELECT " + TaskRowMapper.COLUMNS + " FROM task WHERE project_id = ?";
+    private static final String GET_PAGE = "SELECT " + TaskRowMapper.COLUMNS + " FROM task WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String GET_PAGE_BY_USER = "SELECT " + TaskRowMapper.COLUMNS + " FROM task WHERE user_id = ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String GET_PAGE_BY_PROJECT = "SELECT " + TaskRowMapper.COLUMNS + " FROM task WHERE project_id = ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String GET_PAGE_BY_STATUS = "SELECT " + TaskRowMapper.COLUMNS + " FROM task WHERE status = ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String GET_ALL_BY_IDS = "SELECT " + TaskRowMapper.COLUMNS + " FROM task WHERE id = ANY(?)";
+    private static final String GET_ALL_BY_IDS_AND_STATUS = "SELECT " + TaskRowMapper.COLUMNS + " FROM task WHERE id = ANY(?) AND status = ? ORDER BY id";
+    private static final String GET_IDS_BY_STATUS = "SELECT id FROM task WHERE status = ?";
+    private static final String STREAM_ALL = "SELECT " + TaskRowMapper.COLUMNS + " FROM task ORDER BY id";
+    private static final String GET_VERSION = "SELECT version FROM task WHERE id = ?";
+    // aggregates over the page's (id, changed) pairs only, the rows themselves are never read
+    private static final String LIST_VERSION = "SELECT COUNT(*), COALESCE(SUM(id), 0), COALESCE(MAX(changed), 0)" +
+            " FROM (SELECT id, changed FROM task WHERE id > ?%s ORDER BY id LIMIT ?)";
+    private static final String PAGE_VERSION = LIST_VERSION.formatted("");
+    private static final String PAGE_VERSION_BY_USER = LIST_VERSION.formatted(" AND user_id = ?");
+    private static final String PAGE_VERSION_BY_PROJECT = LIST_VERSION.formatted(" AND project_id = ?");
+    private static final String PAGE_VERSION_BY_STATUS = LIST_VERSION.formatted(" AND status = ?");
+    private static final RowMapper<ListVersion> LIST_VERSION_MAPPER = (rs, rowNum) ->
+            new ListVersion(rs.getLong(1), rs.getLong(2), rs.getLong(3));
 
     private static final String INSERT_TASK = "INSERT INTO task (id, user_id, project_id, name, description,status, created_at)" +
             " VALUES (next value for task_id_seq, ?, ?, ?, ?, ?, ?)";
-    private static final String UPDATE = "UPDATE task SET name = ?, description = ?, status = ? WHERE id = ?";
-    private final static String UPDATE_STATUS = "UPDATE task SET status = ? WHERE id = ?";
-    private final static String UPDATE_PROJECT = "UPDATE task SET project_id = ? WHERE id = ?";
-    private final static String DELETE = "DELETE FROM task WHERE id = ?";
-    private final static String DELETE_ALL_BY_PROJECT = "DELETE FROM task WHERE project_id = ?";
-    private final static String DELETE_ALL_BY_USER = "DELETE FROM task WHERE user_id = ?";
+    private static final String NEXT_TASK_IDS = "SELECT NEXT VALUE FOR task_id_seq FROM SYSTEM_RANGE(1, ?)";
+    private static final String INSERT_TASK_WITH_ID = "INSERT INTO task (id, user_id, project_id, name, description, status, created_at)" +
+            " VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final int INSERT_BATCH_SIZE = 500;
+    // OLD TABLE hands back the row as it was before the change, still in the one round trip
+    // %s is the optional " AND version = ?" of a compare-and-set write
+    private static final String UPDATE_TEMPLATE = "SELECT " + TaskRowMapper.COLUMNS +
+            " FROM OLD TABLE (UPDATE task SET name = ?, description = ?, status = ?, version = version + 1 WHERE id = ?%s)";
+    private final static String UPDATE_STATUS_TEMPLATE = "SELECT " + TaskRowMapper.COLUMNS +
+            " FROM OLD TABLE (UPDATE task SET status = ?, version = version + 1 WHERE id = ?%s)";
+    private final static String UPDATE_PROJECT_TEMPLATE = "SELECT " + TaskRowMapper.COLUMNS +
+            " FROM OLD TABLE (UPDATE task SET project_id = ?, version = version + 1 WHERE id = ?%s)";
+    private final static String DELETE_TEMPLATE = "SELECT " + TaskRowMapper.COLUMNS + " FROM OLD TABLE (DELETE FROM task WHERE id = ?%s)";
+    private static final String IF_VERSION = " AND version = ?";
+    private static final String UPDATE = UPDATE_TEMPLATE.formatted("");
+    private static final String UPDATE_IF_VERSION = UPDATE_TEMPLATE.formatted(IF_VERSION);
+    private static final String UPDATE_STATUS = UPDATE_STATUS_TEMPLATE.formatted("");
+    private static final String UPDATE_STATUS_IF_VERSION = UPDATE_STATUS_TEMPLATE.formatted(IF_VERSION);
+    private static final String UPDATE_PROJECT = UPDATE_PROJECT_TEMPLATE.formatted("");
+    private static final String UPDATE_PROJECT_IF_VERSION = UPDATE_PROJECT_TEMPLATE.formatted(IF_VERSION);
+    private static final String DELETE = DELETE_TEMPLATE.formatted("");
+    private static final String DELETE_IF_VERSION = DELETE_TEMPLATE.formatted(IF_VERSION);
+    // set-based: every matching row in one statement, OLD TABLE returns them as they were for the change events
+    private final static String UPDATE_STATUS_BY_PROJECT = "SELECT " + TaskRowMapper.COLUMNS +
+            " FROM OLD TABLE (UPDATE task SET status = ?, version = version + 1 WHERE project_id = ? AND status <> ?)";
+    private final static String UPDATE_STATUS_BY_USER = "SELECT " + TaskRowMapper.COLUMNS +
+            " FROM OLD TABLE (UPDATE task SET status = ?, version = version + 1 WHERE user_id = ? AND status <> ?)";
+    // the same-owner rule of assignProject as a predicate, tasks of other users stay where they are
+    private final static String UPDATE_PROJECT_BY_PROJECT = "SELECT " + TaskRowMapper.COLUMNS +
+            " FROM OLD TABLE (UPDATE task SET project_id = ?, version = version + 1" +
+            " WHERE project_id = ? AND user_id = (SELECT user_id FROM project WHERE id = ?))";
+    private final static String COUNT_BY_PROJECT_AND_STATUS = "SELECT project_id, status, COUNT(*) FROM task" +
+            " WHERE project_id IS NOT NULL GROUP BY project_id, status";
     // GET METHODS
     public List<Task> getAll() {
         try {
@@ -82,21 +137,147 @@ public class TaskJdbcRepository {
         }
     }
 
+    public List<Task> getPage(long afterId, int limit) {
+        try {
+            return jdbcTemplate.query(GET_PAGE, taskMapper, afterId, limit);
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while fetching task page after id: {}", afterId, e);
+            throw new InternalErrorException("Error accessing data while fetching task page");
+        }
+    }
+
+    public List<Task> getPageByUserId(long userId, long afterId, int limit) {
+        try {
+            return jdbcTemplate.query(GET_PAGE_BY_USER, taskMapper, userId, afterId, limit);
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while fetching task page for user: {}", userId, e);
+            throw new InternalErrorException("Error accessing data while fetching task page");
+        }
+    }
+
+    public List<Task> getPageByProjectId(long projectId, long afterId, int limit) {
+        try {
+            return jdbcTemplate.query(GET_PAGE_BY_PROJECT, taskMapper, projectId, afterId, limit);
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while fetching task page for project: {}", projectId, e);
+            throw new InternalErrorException("Error accessing data while fetching task page");
+        }
+    }
+
+    public List<Task> getPageByStatus(TaskStatus status, long afterId, int limit) {
+        try {
+            return jdbcTemplate.query(GET_PAGE_BY_STATUS, taskMapper, status.toString(), afterId, limit);
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while fetching task page for status: {}", status, e);
+            throw new InternalErrorException("Error accessing data while fetching task page");
+        }
+    }
+
+    public List<Task> getAllByIds(List<Long> ids) {
+        try {
+            return jdbcTemplate.query(GET_ALL_BY_IDS, taskMapper, (Object) ids.toArray(Long[]::new));
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while fetching {} tasks by id", ids.size(), e);
+            throw new InternalErrorException("Error accessing data while fetching tasks");
+        }
+    }
+
+    public List<Task> getAllByIdsAndStatus(List<Long> ids, TaskStatus status) {
+        try {
+            return jdbcTemplate.query(GET_ALL_BY_IDS_AND_STATUS, taskMapper, ids.toArray(Long[]::new), status.toString());
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while fetching {} tasks by id", ids.size(), e);
+            throw new InternalErrorException("Error accessing data while fetching tasks");
+        }
+    }
+
+    public List<Long> getIdsByStatus(TaskStatus status) {
+        try {
+            return jdbcTemplate.queryForList(GET_IDS_BY_STATUS, Long.class, status.toString());
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while fetching task ids for status: {}", status, e);
+            throw new InternalErrorException("Error accessing data while fetching task ids");
+        }
+    }
+
+    // the connection is held until the stream is closed, rows are mapped one at a time as the consumer takes them
+    public void streamAll(int fetchSize, Consumer<Task> consumer) {
+        final PreparedStatementCreator statement = connection -> {
+            final PreparedStatement ps = connection.prepareStatement(STREAM_ALL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        };
+        try (Stream<Task> tasks = jdbcTemplate.queryForStream(statement, taskMapper)) {
+            tasks.forEach(consumer);
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while streaming all tasks", e);
+            throw new InternalErrorException("Error accessing data while streaming all tasks");
+        }
+    }
+
+    public long getVersion(long id) {
+        try {
+            return jdbcTemplate.queryForObject(GET_VERSION, Long.class, id);
+        } catch (EmptyResultDataAccessException e) {
+            log.warn("No task found with id: {}", id);
+            throw new ResourceNotFoundException("Task not found with id: " + id);
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while fetching version of task with id: {}", id, e);
+            throw new InternalErrorException("Error accessing data while fetching task version");
+        }
+    }
+
+    public ListVersion getPageVersion(long afterId, int rows) {
+        return getListVersion(PAGE_VERSION, afterId, rows);
+    }
+
+    public ListVersion getPageVersionByUserId(long userId, long afterId, int rows) {
+        return getListVersion(PAGE_VERSION_BY_USER, afterId, userId, rows);
+    }
+
+    public ListVersion getPageVersionByProjectId(long projectId, long afterId, int rows) {
+        return getListVersion(PAGE_VERSION_BY_PROJECT, afterId, projectId, rows);
+    }
+
+    public ListVersion getPageVersionByStatus(TaskStatus status, long afterId, int rows) {
+        return getListVersion(PAGE_VERSION_BY_STATUS, afterId, status.toString(), rows);
+    }
+
+    private ListVersion getListVersion(String sql, Object... args) {
+        try {
+            return jdbcTemplate.queryForObject(sql, LIST_VERSION_MAPPER, args);
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while fetching task list version", e);
+            throw new InternalErrorException("Error accessing data while fetching task list version");
+        }
+    }
+
+    public List<ProjectStatusCount> countByProjectAndStatus() {
+        try {
+            return jdbcTemplate.query(COUNT_BY_PROJECT_AND_STATUS, (rs, rowNum) -> new ProjectStatusCount(
+                    rs.getLong(1),
+                    TaskStatus.fromString(rs.getString(2)),
+                    rs.getLong(3)
+            ));
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while counting tasks by project and status", e);
+            throw new InternalErrorException("Error accessing data while counting tasks");
+        }
+    }
+
     //ADD METHODS
 
-    public long add(TaskAddRequest request) {
+    public Task add(TaskAddRequest request) {
         try {
             final KeyHolder keyHolder = new GeneratedKeyHolder();
+            final Long projectId = request.getProjectId() != null && request.getProjectId() > 0 ? request.getProjectId() : null;
+            final OffsetDateTime createdAt = OffsetDateTime.now();
 
             jdbcTemplate.update(connection -> {
-                final PreparedStatement stmt = connection.prepareStatement(INSERT_TASK, PreparedStatement.RETURN_GENERATED_KEYS);
-                if (userRepository.getById(request.getUserId()) == null) {
-                    log.error("User not found with id: {}", request.getUserId());
-                    throw new ResourceNotFoundException("User not found with id: " + request.getUserId());
-                }
+                final PreparedStatement stmt = connection.prepareStatement(INSERT_TASK, new String[]{"id"});
                 stmt.setLong(1, request.getUserId());
-                if (request.getProjectId() != null && request.getProjectId() > 0) {
-                    stmt.setLong(2, request.getProjectId());
+                if (projectId != null) {
+                    stmt.setLong(2, projectId);
                 } else {
                     stmt.setNull(2, java.sql.Types.BIGINT);
                 }
@@ -107,94 +288,170 @@ public class TaskJdbcRepository {
                     stmt.setNull(4, java.sql.Types.VARCHAR);
                 }
                 stmt.setString(5, TaskStatus.NEW.toString());
-                stmt.setTimestamp(6, Timestamp.from(OffsetDateTime.now().toInstant()));
+                stmt.setTimestamp(6, Timestamp.from(createdAt.toInstant()));
                 return stmt;
             }, keyHolder);
             if (keyHolder.getKey() == null) {
                 log.error("Failed to insert task: {}", request);
                 throw new InternalErrorException("Failed to insert task");
             }
-            return keyHolder.getKey().longValue();
+            return new Task(keyHolder.getKey().longValue(), request.getUserId(), projectId, request.getName(),
+                    request.getDescription(), TaskStatus.NEW, createdAt);
         } catch (DataAccessException e) {
             log.error("Error accessing data while inserting task: {}", request, e);
             throw new InternalErrorException("Error accessing data while inserting task");
         }
     }
 
-    public void update(long id, TaskEditRequest request) {
+    public List<Task> addAll(List<TaskAddRequest> requests) {
         try {
-            jdbcTemplate.update(
-                    UPDATE,
-                    request.getName(),
-                    request.getDescription(),
-                    request.getStatus(),
-                    id
+            // one round trip reserves the whole block of ids, the inserts then go out as JDBC batches
+            final List<Long> ids = jdbcTemplate.queryForList(NEXT_TASK_IDS, Long.class, requests.size());
+            final OffsetDateTime now = OffsetDateTime.now();
+            final Timestamp createdAt = Timestamp.from(now.toInstant());
+            final List<Integer> rows = IntStream.range(0, requests.size()).boxed().toList();
+            jdbcTemplate.batchUpdate(INSERT_TASK_WITH_ID, rows, INSERT_BATCH_SIZE, (stmt, row) -> {
+                final TaskAddRequest request = requests.get(row);
+                stmt.setLong(1, ids.get(row));
+                stmt.setLong(2, request.getUserId());
+                if (request.getProjectId() != null && request.getProjectId() > 0) {
+                    stmt.setLong(3, request.getProjectId());
+                } else {
+                    stmt.setNull(3, java.sql.Types.BIGINT);
+                }
+                stmt.setString(4, request.getName());
+                if (request.getDescription() != null) {
+                    stmt.setString(5, request.getDescription());
+                } else {
+                    stmt.setNull(5, java.sql.Types.VARCHAR);
+                }
+                stmt.setString(6, TaskStatus.NEW.toString());
+                stmt.setTimestamp(7, createdAt);
+            });
+            return rows.stream()
+                    .map(row -> {
+                        final TaskAddRequest request = requests.get(row);
+                        final Long projectId = request.getProjectId() != null && request.getProjectId() > 0 ? request.getProjectId() : null;
+                        return new Task(ids.get(row), request.getUserId(), projectId, request.getName(),
+                                request.getDescription(), TaskStatus.NEW, now);
+                    })
+                    .toList();
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while inserting {} tasks", requests.size(), e);
+            throw new InternalErrorException("Error accessing data while inserting tasks");
+        }
+    }
+
+    public Task update(long id, String name, String description, TaskStatus status, Long expectedVersion) {
+        final List<Task> updated;
+        try {
+            updated = jdbcTemplate.query(
+                    expectedVersion != null ? UPDATE_IF_VERSION : UPDATE,
+                    taskMapper,
+                    withVersion(expectedVersion,
+                            name,
+                            description,
+                            status.toString(),
+                            id)
             );
         }catch (DataAccessException e){
             log.error("Error accessing data while updating task with id: {}", id, e);
             throw new InternalErrorException("Error accessing data while updating task with id: " + id);
         }
+        return requireTaskUpdated(updated, id, expectedVersion);
     }
 
-    public void updateStatus(long id, TaskStatus status) {
+    public Task updateStatus(long id, TaskStatus status, Long expectedVersion) {
+        final List<Task> updated;
         try {
-            jdbcTemplate.update(
-                    UPDATE_STATUS,
-                    status.toString(),
-                    id
+            updated = jdbcTemplate.query(
+                    expectedVersion != null ? UPDATE_STATUS_IF_VERSION : UPDATE_STATUS,
+                    taskMapper,
+                    withVersion(expectedVersion, status.toString(), id)
             );
         } catch (DataAccessException e) {
             log.error("Error accessing data while updating task status with id: {}", id, e);
             throw new InternalErrorException("Error accessing data while updating task status with id: " + id);
         }
+        return requireTaskUpdated(updated, id, expectedVersion);
     }
 
-    public void updateProject(long id, Long projectId) {
+    public List<Task> updateStatusByProjectId(long projectId, TaskStatus status) {
         try {
-            jdbcTemplate.update(
-                    UPDATE_PROJECT,
-                    projectId,
-                    id
-            );
+            return jdbcTemplate.query(UPDATE_STATUS_BY_PROJECT, taskMapper, status.toString(), projectId, status.toString());
         } catch (DataAccessException e) {
-            log.error("Error accessing data while updating task project with id: {}", id, e);
-            throw new InternalErrorException("Error accessing data while updating task project with id: " + id);
+            log.error("Error accessing data while updating task status for project id: {}", projectId, e);
+            throw new InternalErrorException("Error accessing data while updating task status for project id: " + projectId);
         }
     }
 
-    public void delete(long id){
+    public List<Task> updateStatusByUserId(long userId, TaskStatus status) {
         try {
-            jdbcTemplate.update(
-                    DELETE,
-                    id
-            );
+            return jdbcTemplate.query(UPDATE_STATUS_BY_USER, taskMapper, status.toString(), userId, status.toString());
         } catch (DataAccessException e) {
-            log.error("Error accessing data while deleting task with id: {}", id, e);
-            throw new InternalErrorException("Error accessing data while deleting task with id: " + id);
+            log.error("Error accessing data while updating task status for user id: {}", userId, e);
+            throw new InternalErrorException("Error accessing data while updating task status for user id: " + userId);
         }
     }
 
-    public void deleteAllByProject(long projectId) {
+    public List<Task> updateProjectByProjectId(long fromProjectId, long toProjectId) {
         try {
-            jdbcTemplate.update(
-                    DELETE_ALL_BY_PROJECT,
-                    projectId
+            return jdbcTemplate.query(UPDATE_PROJECT_BY_PROJECT, taskMapper, toProjectId, fromProjectId, toProjectId);
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while moving tasks from project id: {} to {}", fromProjectId, toProjectId, e);
+            throw new InternalErrorException("Error accessing data while moving tasks from project id: " + fromProjectId);
+        }
+    }
+
+    public Task updateProject(long id, Long projectId, Long expectedVersion) {
+        final List<Task> updated;
+        try {
+            updated = jdbcTemplate.query(
+                    expectedVersion != null ? UPDATE_PROJECT_IF_VERSION : UPDATE_PROJECT,
+                    taskMapper,
+                    withVersion(expectedVersion, projectId, id)
             );
         } catch (DataAccessException e) {
-            log.error("Error accessing data while deleting all tasks by project with id: {}", projectId, e);
-            throw new InternalErrorException("Error accessing data while deleting all tasks by project with id: " + projectId);
+            log.error("Error accessing data while updating task project with id: {}", id, e);
+            throw new InternalErrorException("Error accessing data while updating task project with id: " + id);
         }
+        return requireTaskUpdated(updated, id, expectedVersion);
     }
 
-    public void deleteAllByUser(long userId) {
+    public Task delete(long id, Long expectedVersion) {
+        final List<Task> deleted;
         try {
-            jdbcTemplate.update(
-                    DELETE_ALL_BY_USER,
-                    userId
+            deleted = jdbcTemplate.query(
+                    expectedVersion != null ? DELETE_IF_VERSION : DELETE,
+                    taskMapper,
+                    withVersion(expectedVersion, id)
             );
         } catch (DataAccessException e) {
-            log.error("Error accessing data while deleting all tasks by user with id: {}", userId, e);
-            throw new InternalErrorException("Error accessing data while deleting all tasks by user with id: " + userId);
+            log.error("Error accessing data while deleting task with id: {}", id, e);
+            throw new InternalErrorException("Error accessing data while deleting task with id: " + id);
+        }
+        return requireTaskUpdated(deleted, id, expectedVersion);
+    }
+
+    // no row either means no task or, for a compare-and-set write, a task at another version
+    private Task requireTaskUpdated(List<Task> rows, long id, Long expectedVersion) {
+        if (rows.isEmpty()) {
+            if (expectedVersion != null) {
+                final long version = getVersion(id);
+                throw new ConflictException("Task " + id + " is at version " + version + ", not " + expectedVersion);
+            }
+            log.warn("No task found with id: {}", id);
+            throw new ResourceNotFoundException("Task not found with id: " + id);
+        }
+        return rows.getFirst();
+    }
+
+    private static Object[] withVersion(Long expectedVersion, Object... args) {
+        if (expectedVersion == null) {
+            return args;
         }
+        final Object[] withVersion = Arrays.copyOf(args, args.length + 1);
+        withVersion[args.length] = expectedVersion;
+        return withVersion;
     }
 }
@@ -4,6 +4,7 @@ import com.spring.demo.api.exception.BadRequestException;
 import com.spring.demo.api.exception.InternalErrorException;
 import com.spring.demo.api.exception.ResourceNotFoundException;
 import com.spring.demo.api.request.UserAddRequest;
+import com.spring.demo.domain.ListVersion;
 import com.spring.demo.domain.User;
 import com.spring.demo.implementation.jdbc.mapper.UserRowMapper;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +14,7 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
@@ -20,15 +22,21 @@ import java.util.List;
 
 @Slf4j
 @Repository
+@Profile("jdbc")
 public class UserJdbcRepository {
 
     private final UserRowMapper userRowMapper;
     private final JdbcTemplate jdbcTemplate;
 
-    private static final String GET_ALL = "SELECT * FROM user";
-    private static final String GET_BY_ID = "SELECT * FROM user WHERE id = ?";
+    private static final String GET_ALL = "SELECT " + UserRowMapper.COLUMNS + " FROM user";
+    private static final String GET_BY_ID = "SELECT " + UserRowMapper.COLUMNS + " FROM user WHERE id = ?";
+    private static final String GET_PAGE = "SELECT " + UserRowMapper.COLUMNS + " FROM user WHERE id > ? ORDER BY id LIMIT ?";
     private static final String DELETE_USER = "DELETE FROM user WHERE id = ?";
     private static final String INSERT_USER = "INSERT INTO user (id, name, email) VALUES (next value for user_id_seq, ?, ?)";
+    private static final String GET_VERSION = "SELECT version FROM user WHERE id = ?";
+    // aggregates over the page's (id, changed) pairs only, the rows themselves are never read
+    private static final String PAGE_VERSION = "SELECT COUNT(*), COALESCE(SUM(id), 0), COALESCE(MAX(changed), 0)" +
+            " FROM (SELECT id, changed FROM user WHERE id > ? ORDER BY id LIMIT ?)";
 
     public UserJdbcRepository(UserRowMapper userRowMapper, JdbcTemplate jdbcTemplate) {
         this.userRowMapper = userRowMapper;
@@ -36,11 +44,33 @@ public class UserJdbcRepository {
     }
 
 
+    public long getVersion(long id) {
+        try {
+            return jdbcTemplate.queryForObject(GET_VERSION, Long.class, id);
+        } catch (EmptyResultDataAccessException e) {
+            log.warn("No user found with id: {}", id);
+            throw new ResourceNotFoundException("User not found with id: " + id);
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while fetching version of user with id: {}", id, e);
+            throw new InternalErrorException("Error accessing data while fetching user version");
+        }
+    }
+
+    public ListVersion getPageVersion(long afterId, int rows) {
+        try {
+            return jdbcTemplate.queryForObject(PAGE_VERSION, (rs, rowNum) ->
+                    new ListVersion(rs.getLong(1), rs.getLong(2), rs.getLong(3)), afterId, rows);
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while fetching user list version", e);
+            throw new InternalErrorException("Error accessing data while fetching user list version");
+        }
+    }
+
     public long add(UserAddRequest request){
         try {
             final KeyHolder keyHolder = new GeneratedKeyHolder();
             jdbcTemplate.update(connection -> {
-                final PreparedStatement stmt = connection.prepareStatement(INSERT_USER, PreparedStatement.RETURN_GENERATED_KEYS);
+                final PreparedStatement stmt = connection.prepareStatement(INSERT_USER, new String[]{"id"});
                 stmt.setString(1, request.getName());
                 stmt.setString(2, request.getEmail());
                 return stmt;
@@ -59,19 +89,34 @@ public class UserJdbcRepository {
         }
     }
 
+    // projects and tasks of the user go with it through ON DELETE CASCADE, in the same statement
     public void delete(long id){
+        final int deleted;
         try {
-            jdbcTemplate.update(DELETE_USER, id);
+            deleted = jdbcTemplate.update(DELETE_USER, id);
         } catch (DataAccessException e) {
             log.error("Error deleting user with id {}", id, e);
             throw new RuntimeException(e);
         }
+        if (deleted == 0) {
+            log.warn("User with id {} not found", id);
+            throw new ResourceNotFoundException("User not found with id: " + id);
+        }
     }
 
     public List<User> getAll() {
         return jdbcTemplate.query(GET_ALL, userRowMapper);
     }
 
+    public List<User> getPage(long afterId, int limit) {
+        try {
+            return jdbcTemplate.query(GET_PAGE, userRowMapper, afterId, limit);
+        } catch (DataAccessException e) {
+            log.error("Error accessing data while fetching user page after id: {}", afterId, e);
+            throw new InternalErrorException("Error accessing data while fetching user page");
+        }
+    }
+
     public User getById(long id) {
         try {
             return jdbcTemplate.queryForObject(GET_BY_ID, userRowMapper, id);
@@ -1,13 +1,18 @@
 package com.spring.demo.implementation.jdbc.service;
 
 import com.spring.demo.api.ProjectService;
+import com.spring.demo.api.UserService;
+import com.spring.demo.api.event.TasksChangedEvent;
 import com.spring.demo.api.request.ProjectAddRequest;
 import com.spring.demo.api.request.ProjectEditRequest;
+import com.spring.demo.domain.CursorPage;
+import com.spring.demo.domain.ListVersion;
 import com.spring.demo.domain.Project;
 import com.spring.demo.implementation.jdbc.repository.ProjectJdbcRepository;
-import com.spring.demo.implementation.jdbc.repository.TaskJdbcRepository;
-import com.spring.demo.implementation.jdbc.repository.UserJdbcRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
@@ -18,10 +23,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProjectServiceImpl implements ProjectService {
     private final ProjectJdbcRepository repository;
-    private final UserJdbcRepository userJdbcRepository;
-    private final TaskJdbcRepository taskJdbcRepository;
+    private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
+    @Cacheable(cacheNames = "projects", key = "#id")
     public Project get(long id) {
         return repository.getById(id);
     }
@@ -33,29 +39,56 @@ public class ProjectServiceImpl implements ProjectService {
 
     @Override
     public List<Project> getAllByUser(long userId) {
-        if(userJdbcRepository.getById(userId) != null) {
+        if(userService.get(userId) != null) {
             return repository.getAllByUser(userId);
         }
         return new ArrayList<>();
     }
 
     @Override
+    public CursorPage<Project> getPage(long afterId, int limit) {
+        return CursorPage.of(repository.getPage(afterId, limit + 1), limit, Project::getId);
+    }
+
+    @Override
+    public long getVersion(long id) {
+        return repository.getVersion(id);
+    }
+
+    @Override
+    public ListVersion getAllVersionByUser(long userId) {
+        userService.get(userId);
+        return repository.getPageVersionByUser(userId, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public ListVersion getPageVersion(long afterId, int limit) {
+        return repository.getPageVersion(afterId, limit + 1);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = "projects", key = "#id")
     public void delete(long id) {
-        if (this.get(id) != null) {
-            taskJdbcRepository.deleteAllByProject(id);
-            repository.deleteProject(id);
-        }
+        repository.deleteProject(id);
+        eventPublisher.publishEvent(TasksChangedEvent.projectDeleted(id));
     }
 
     @Override
+    @CacheEvict(cacheNames = "projects", key = "#result")
     public long add(ProjectAddRequest request) {
+        userService.get(request.getUserId());
         return repository.addProject(request);
     }
 
     @Override
+    @CacheEvict(cacheNames = "projects", key = "#id")
     public void edit(long id, ProjectEditRequest request) {
-        if (this.get(id) != null) {
-            repository.updateProject(id, request);
-        }
+        edit(id, request, null);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = "projects", key = "#id")
+    public void edit(long id, ProjectEditRequest request, Long expectedVersion) {
+        repository.updateProject(id, request, expectedVersion);
     }
 }
@@ -3,19 +3,30 @@ package com.spring.demo.implementation.jdbc.service;
 import com.spring.demo.api.ProjectService;
 import com.spring.demo.api.TaskService;
 import com.spring.demo.api.UserService;
+import com.spring.demo.api.event.TaskChangedEvent;
 import com.spring.demo.api.exception.BadRequestException;
 import com.spring.demo.api.request.TaskAddRequest;
 import com.spring.demo.api.request.TaskEditRequest;
+import com.spring.demo.domain.CursorPage;
+import com.spring.demo.domain.ListVersion;
 import com.spring.demo.domain.Project;
+import com.spring.demo.domain.ProjectStatusCount;
 import com.spring.demo.domain.Task;
 import com.spring.demo.domain.TaskStatus;
+import com.spring.demo.implementation.concurrent.LookupScope;
+import com.spring.demo.implementation.concurrent.LookupScopes;
+import com.spring.demo.implementation.index.TaskSearchIndex;
+import com.spring.demo.implementation.index.TaskStatusIndex;
 import com.spring.demo.implementation.jdbc.repository.TaskJdbcRepository;
-import com.spring.demo.implementation.jdbc.repository.UserJdbcRepository;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 @Service
 @Profile("jdbc")
@@ -24,49 +35,129 @@ public class TaskServiceImpl implements TaskService {
     private final TaskJdbcRepository repository;
     private final UserService userService;
     private final ProjectService projectService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskStatusIndex statusIndex;
+    private final TaskSearchIndex searchIndex;
+    private final LookupScopes lookupScopes;
 
-    public TaskServiceImpl(TaskJdbcRepository repository, UserService userService, ProjectService projectService) {
+    public TaskServiceImpl(TaskJdbcRepository repository, UserService userService, ProjectService projectService,
+                           ApplicationEventPublisher eventPublisher, TaskStatusIndex statusIndex, TaskSearchIndex searchIndex,
+                           LookupScopes lookupScopes) {
         this.repository = repository;
         this.userService = userService;
         this.projectService = projectService;
+        this.eventPublisher = eventPublisher;
+        this.statusIndex = statusIndex;
+        this.searchIndex = searchIndex;
+        this.lookupScopes = lookupScopes;
     }
 
     @Override
     public long add(TaskAddRequest request) {
-        return repository.add(request);
+        userService.get(request.getUserId());
+        final Task task = repository.add(request);
+        eventPublisher.publishEvent(TaskChangedEvent.added(task));
+        return task.getId();
     }
 
     @Override
-    public void edit(long taskId, TaskEditRequest request) {
-        if (this.get(taskId) != null){
-            repository.update(taskId, request);
+    @Transactional
+    public List<Long> addAll(List<TaskAddRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
         }
+        requests.stream()
+                .map(TaskAddRequest::getUserId)
+                .distinct()
+                .forEach(userService::get);
+        final List<Task> tasks = repository.addAll(requests);
+        tasks.forEach(task -> eventPublisher.publishEvent(TaskChangedEvent.added(task)));
+        return tasks.stream()
+                .map(Task::getId)
+                .toList();
+    }
+
+    @Override
+    public void edit(long taskId, TaskEditRequest request) {
+        edit(taskId, request, null);
     }
 
     @Override
     public void changeStatus(long id, TaskStatus status) {
-        if (this.get(id) != null) {
-            repository.updateStatus(id, status);
-        }
+        changeStatus(id, status, null);
     }
 
     @Override
     public void assignProject(long taskId, long projectId) {
-        final Task task = this.get(taskId);
-        final Project project = projectService.get(projectId);
+        assignProject(taskId, projectId, null);
+    }
+
+    @Override
+    public void delete(long id) {
+        delete(id, null);
+    }
+
+    @Override
+    public void edit(long taskId, TaskEditRequest request, Long expectedVersion) {
+        // parsed before the write, an unknown status must not reach the row or fail after it changed
+        final TaskStatus status = parseStatus(request.getStatus());
+        final Task before = repository.update(taskId, request.getName(), request.getDescription(), status, expectedVersion);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(before, before
+                .withName(request.getName())
+                .withDescription(request.getDescription())
+                .withStatus(status)));
+    }
+
+    @Override
+    public void changeStatus(long id, TaskStatus status, Long expectedVersion) {
+        final Task before = repository.updateStatus(id, status, expectedVersion);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(before, before.withStatus(status)));
+    }
+
+    @Override
+    public void assignProject(long taskId, long projectId, Long expectedVersion) {
+        final Task task;
+        final Project project;
+        try (LookupScope scope = lookupScopes.open()) {
+            final Supplier<Project> projectLookup = scope.fork(() -> projectService.get(projectId));
+            task = this.get(taskId);
+            scope.join();
+            project = projectLookup.get();
+        }
         if (task != null && project != null) {
             if (task.getUserId() != project.getUserId()) {
                 throw new BadRequestException("Task user and project user must be the same");
             }
-            repository.updateProject(taskId, projectId);
+            final Task before = repository.updateProject(taskId, projectId, expectedVersion);
+            eventPublisher.publishEvent(TaskChangedEvent.updated(before, before.withProjectId(projectId)));
         }
     }
 
     @Override
-    public void delete(long id) {
-        if (this.get(id) != null) {
-            repository.delete(id);
+    public void delete(long id, Long expectedVersion) {
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(repository.delete(id, expectedVersion)));
+    }
+
+    @Override
+    public int changeStatusByProjectId(long projectId, TaskStatus status) {
+        projectService.get(projectId);
+        return publishUpdated(repository.updateStatusByProjectId(projectId, status), before -> before.withStatus(status));
+    }
+
+    @Override
+    public int changeStatusByUserId(long userId, TaskStatus status) {
+        userService.get(userId);
+        return publishUpdated(repository.updateStatusByUserId(userId, status), before -> before.withStatus(status));
+    }
+
+    @Override
+    public int assignProjectByProjectId(long fromProjectId, long toProjectId) {
+        projectService.get(fromProjectId);
+        projectService.get(toProjectId);
+        if (fromProjectId == toProjectId) {
+            return 0;
         }
+        return publishUpdated(repository.updateProjectByProjectId(fromProjectId, toProjectId), before -> before.withProjectId(toProjectId));
     }
 
     @Override
@@ -94,5 +185,101 @@ public class TaskServiceImpl implements TaskService {
         }
         return List.of();
     }
-}
 
+    @Override
+    public CursorPage<Task> getPage(long afterId, int limit) {
+        return CursorPage.of(repository.getPage(afterId, limit + 1), limit, Task::getId);
+    }
+
+    @Override
+    public CursorPage<Task> getPageByUserId(long userId, long afterId, int limit) {
+        userService.get(userId);
+        return CursorPage.of(repository.getPageByUserId(userId, afterId, limit + 1), limit, Task::getId);
+    }
+
+    @Override
+    public CursorPage<Task> getPageByProjectId(long projectId, long afterId, int limit) {
+        projectService.get(projectId);
+        return CursorPage.of(repository.getPageByProjectId(projectId, afterId, limit + 1), limit, Task::getId);
+    }
+
+    @Override
+    public CursorPage<Task> getPageByStatus(TaskStatus status, long afterId, int limit) {
+        return statusIndex.getPage(status, afterId, limit, ids -> repository.getAllByIdsAndStatus(ids, status))
+                .orElseGet(() -> CursorPage.of(repository.getPageByStatus(status, afterId, limit + 1), limit, Task::getId));
+    }
+
+    @Override
+    public List<Long> getIdsByStatus(TaskStatus status) {
+        return repository.getIdsByStatus(status);
+    }
+
+    @Override
+    public void streamAll(int fetchSize, Consumer<Task> consumer) {
+        repository.streamAll(fetchSize, consumer);
+    }
+
+    @Override
+    public CursorPage<Task> search(String query, Long userId, int offset, int limit) {
+        return searchIndex.search(query, userId, offset, limit, repository::getAllByIds);
+    }
+
+    // list versions cover the extra row a page is fetched with, so they also change when a next page appears
+    @Override
+    public long getVersion(long id) {
+        return repository.getVersion(id);
+    }
+
+    @Override
+    public ListVersion getAllVersionByUserId(long userId) {
+        return getPageVersionByUserId(userId, 0, Integer.MAX_VALUE - 1);
+    }
+
+    @Override
+    public ListVersion getAllVersionByProjectId(long projectId) {
+        return getPageVersionByProjectId(projectId, 0, Integer.MAX_VALUE - 1);
+    }
+
+    @Override
+    public ListVersion getPageVersion(long afterId, int limit) {
+        return repository.getPageVersion(afterId, limit + 1);
+    }
+
+    @Override
+    public ListVersion getPageVersionByUserId(long userId, long afterId, int limit) {
+        userService.get(userId);
+        return repository.getPageVersionByUserId(userId, afterId, limit + 1);
+    }
+
+    @Override
+    public ListVersion getPageVersionByProjectId(long projectId, long afterId, int limit) {
+        projectService.get(projectId);
+        return repository.getPageVersionByProjectId(projectId, afterId, limit + 1);
+    }
+
+    @Override
+    public ListVersion getPageVersionByStatus(TaskStatus status, long afterId, int limit) {
+        return repository.getPageVersionByStatus(status, afterId, limit + 1);
+    }
+
+    @Override
+    public List<ProjectStatusCount> countByProjectAndStatus() {
+        return repository.countByProjectAndStatus();
+    }
+
+    private int publishUpdated(List<Task> before, UnaryOperator<Task> change) {
+        before.forEach(task -> eventPublisher.publishEvent(TaskChangedEvent.updated(task, change.apply(task))));
+        return before.size();
+    }
+
+    private static TaskStatus parseStatus(String status) {
+        if (status == null) {
+            throw new BadRequestException("status must not be null");
+        }
+        try {
+            return TaskStatus.fromString(status);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+}
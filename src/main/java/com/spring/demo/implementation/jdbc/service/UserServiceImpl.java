@@ -1,15 +1,22 @@
 package com.spring.demo.implementation.jdbc.service;
 
 import com.spring.demo.api.UserService;
+import com.spring.demo.api.event.TasksChangedEvent;
 import com.spring.demo.api.request.UserAddRequest;
+import com.spring.demo.domain.CursorPage;
+import com.spring.demo.domain.ListVersion;
 import com.spring.demo.domain.User;
 import com.spring.demo.implementation.jdbc.repository.ProjectJdbcRepository;
-import com.spring.demo.implementation.jdbc.repository.TaskJdbcRepository;
 import com.spring.demo.implementation.jdbc.repository.UserJdbcRepository;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 @Service
@@ -19,23 +26,31 @@ public class UserServiceImpl implements UserService {
 
     private final UserJdbcRepository userJdbcRepository;
     private final ProjectJdbcRepository projectJdbcRepository;
-    private final TaskJdbcRepository taskJdbcRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
+    @CacheEvict(cacheNames = "users", key = "#result")
     public long add(UserAddRequest request) {
         return userJdbcRepository.add(request);
     }
 
+    // the projects are deleted here rather than by the cascade only to learn their ids, their tasks still go through
+    // ON DELETE CASCADE; a missing user rolls the project delete back
     @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "users", key = "#id"),
+            @CacheEvict(cacheNames = "projects", allEntries = true)
+    })
     public void delete(long id) {
-        if(this.get(id) != null){
-            taskJdbcRepository.deleteAllByUser(id);
-            projectJdbcRepository.deleteAllByUser(id);
-            userJdbcRepository.delete(id);
-        }
+        final List<Long> projectIds = projectJdbcRepository.deleteAllByUser(id);
+        userJdbcRepository.delete(id);
+        projectIds.forEach(projectId -> eventPublisher.publishEvent(TasksChangedEvent.projectDeleted(projectId)));
+        eventPublisher.publishEvent(TasksChangedEvent.userDeleted(id));
     }
 
     @Override
+    @Cacheable(cacheNames = "users", key = "#id")
     public User get(long id) {
         return userJdbcRepository.getById(id);
     }
@@ -44,4 +59,19 @@ public class UserServiceImpl implements UserService {
     public List<User> getAll() {
         return userJdbcRepository.getAll();
     }
+
+    @Override
+    public CursorPage<User> getPage(long afterId, int limit) {
+        return CursorPage.of(userJdbcRepository.getPage(afterId, limit + 1), limit, User::getId);
+    }
+
+    @Override
+    public long getVersion(long id) {
+        return userJdbcRepository.getVersion(id);
+    }
+
+    @Override
+    public ListVersion getPageVersion(long afterId, int limit) {
+        return userJdbcRepository.getPageVersion(afterId, limit + 1);
+    }
 }
@@ -1,5 +1,6 @@
 package com.spring.demo.implementation.jpa.entity;
 
+import com.spring.demo.implementation.jpa.id.BlockSequence;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -16,8 +17,7 @@ import java.util.List;
 @AllArgsConstructor
 public class ProjectEntity {
     @Id
-    @SequenceGenerator(name = "project_id_seq", allocationSize = 1)
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "project_id_seq")
+    @BlockSequence(name = "project_id_seq")
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -35,7 +35,14 @@ public class ProjectEntity {
     @Column(nullable = false)
     private OffsetDateTime createdAt;
 
-    @OneToMany(mappedBy = "project", cascade = CascadeType.REMOVE)
+    @Version
+    private long version;
+
+    // stamped by the database on every insert and update, see schema.sql
+    @Column(insertable = false, updatable = false)
+    private long changed;
+
+    @OneToMany(mappedBy = "project")
     private List<TaskEntity> tasks = new ArrayList<>();
 
 
@@ -1,6 +1,7 @@
 package com.spring.demo.implementation.jpa.entity;
 
 import com.spring.demo.domain.TaskStatus;
+import com.spring.demo.implementation.jpa.id.BlockSequence;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -15,8 +16,7 @@ import java.time.OffsetDateTime;
 @Getter
 public class TaskEntity {
     @Id
-    @SequenceGenerator(name = "task_id_seq", allocationSize = 1)
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_id_seq")
+    @BlockSequence(name = "task_id_seq")
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -44,6 +44,13 @@ public class TaskEntity {
     @Column(nullable = false)
     private OffsetDateTime createdAt;
 
+    @Version
+    private long version;
+
+    // stamped by the database on every insert and update, see schema.sql
+    @Column(insertable = false, updatable = false)
+    private long changed;
+
     public TaskEntity(UserEntity user, ProjectEntity project, String name, String description, TaskStatus status, OffsetDateTime createdAt) {
         this.user = user;
         this.project = project;
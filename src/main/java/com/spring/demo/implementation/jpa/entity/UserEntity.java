@@ -1,5 +1,6 @@
 package com.spring.demo.implementation.jpa.entity;
 
+import com.spring.demo.implementation.jpa.id.BlockSequence;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -14,8 +15,7 @@ import java.util.List;
 @Getter
 public class UserEntity {
     @Id
-    @SequenceGenerator(name = "user_id_seq", allocationSize = 1)
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_id_seq")
+    @BlockSequence(name = "user_id_seq")
     private Long id;
 
     @Column(nullable = false)
@@ -23,10 +23,17 @@ public class UserEntity {
     @Column(nullable = false, unique = true)
     private String email;
 
-    @OneToMany(mappedBy = "user", cascade = CascadeType.REMOVE)
+    @Version
+    private long version;
+
+    // stamped by the database on every insert and update, see schema.sql
+    @Column(insertable = false, updatable = false)
+    private long changed;
+
+    @OneToMany(mappedBy = "user")
     private List<TaskEntity> tasks = new ArrayList<>();
 
-    @OneToMany(mappedBy = "user", cascade = CascadeType.REMOVE)
+    @OneToMany(mappedBy = "user")
     private List<ProjectEntity> projects = new ArrayList<>();
 
     public UserEntity(String name, String email) {
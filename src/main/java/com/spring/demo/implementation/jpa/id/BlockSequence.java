@@ -0,0 +1,21 @@
+package com.spring.demo.implementation.jpa.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Pooled id allocation on top of an "increment by 1" sequence, so data.sql can keep
+ * seeding rows with {@code next value for} while Hibernate reserves a whole block per round trip.
+ */
+@IdGeneratorType(BlockSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface BlockSequence {
+    String name();
+
+    int blockSize() default 50;
+}
@@ -0,0 +1,51 @@
+package com.spring.demo.implementation.jpa.id;
+
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+public class BlockSequenceGenerator implements IdentifierGenerator {
+    private final String sequenceName;
+    private final String sql;
+    private final Deque<Long> reserved = new ArrayDeque<>();
+
+    public BlockSequenceGenerator(BlockSequence config) {
+        this.sequenceName = config.name();
+        this.sql = "SELECT NEXT VALUE FOR " + config.name() + " FROM SYSTEM_RANGE(1, " + config.blockSize() + ")";
+    }
+
+    @Override
+    public synchronized Object generate(SharedSessionContractImplementor session, Object object) {
+        if (reserved.isEmpty()) {
+            reserveBlock(session);
+        }
+        return reserved.poll();
+    }
+
+    private void reserveBlock(SharedSessionContractImplementor session) {
+        final JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+        final PreparedStatement stmt = jdbcCoordinator.getStatementPreparer().prepareStatement(sql);
+        try {
+            final ResultSet rs = jdbcCoordinator.getResultSetReturn().extract(stmt, sql);
+            try {
+                while (rs.next()) {
+                    reserved.add(rs.getLong(1));
+                }
+            } finally {
+                jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(rs, stmt);
+            }
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper()
+                    .convert(e, "Could not reserve ids from sequence " + sequenceName, sql);
+        } finally {
+            jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(stmt);
+            jdbcCoordinator.afterStatementExecution();
+        }
+    }
+}
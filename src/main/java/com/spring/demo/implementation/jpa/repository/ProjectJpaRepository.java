@@ -1,12 +1,68 @@
 package com.spring.demo.implementation.jpa.repository;
 
+import com.spring.demo.domain.ListVersion;
+import com.spring.demo.domain.Project;
 import com.spring.demo.implementation.jpa.entity.ProjectEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProjectJpaRepository extends JpaRepository<ProjectEntity, Long> {
-    List<ProjectEntity> findAllByUserId(Long userId);
+    String SELECT_PROJECT = "select new com.spring.demo.domain.Project(p.id, p.user.id, p.name, p.description, p.createdAt) from project p";
+    String LIST_VERSION = "select new com.spring.demo.domain.ListVersion(count(*), coalesce(sum(v.id), 0), coalesce(max(v.changed), 0))" +
+            " from (select p.id as id, p.changed as changed from project p where p.id > :afterId";
+    String LIST_VERSION_PAGE = " order by p.id limit :rows) v";
+
+    @Query(SELECT_PROJECT + " where p.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Optional<Project> findProjectById(long id);
+
+    @Query(SELECT_PROJECT)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Project> findAllProjects();
+
+    @Query(SELECT_PROJECT + " where p.user.id = :userId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Project> findAllProjectsByUserId(long userId);
+
+    @Query("select p.id from project p where p.user.id = :userId")
+    List<Long> findProjectIdsByUserId(long userId);
+
+    @Query(SELECT_PROJECT + " where p.id > :afterId order by p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Project> findProjectPage(long afterId, Limit limit);
+
+    @Query("select p.version from project p where p.id = :id")
+    Optional<Long> findVersionById(long id);
+
+    @Query(LIST_VERSION + LIST_VERSION_PAGE)
+    ListVersion findPageVersion(long afterId, int rows);
+
+    @Query(LIST_VERSION + " and p.user.id = :userId" + LIST_VERSION_PAGE)
+    ListVersion findPageVersionByUserId(long userId, long afterId, int rows);
+
+    @Transactional
+    @Modifying
+    @Query("update project p set p.name = :name, p.description = :description, p.version = p.version + 1 where p.id = :id")
+    int updateProject(long id, String name, String description);
+
+    @Transactional
+    @Modifying
+    @Query("update project p set p.name = :name, p.description = :description, p.version = p.version + 1 where p.id = :id and p.version = :version")
+    int updateProjectIfVersion(long id, long version, String name, String description);
+
+    @Transactional
+    @Modifying
+    @Query("delete from project p where p.id = :id")
+    int deleteProjectById(long id);
 }
@@ -1,13 +1,138 @@
 package com.spring.demo.implementation.jpa.repository;
 
+import com.spring.demo.domain.ListVersion;
+import com.spring.demo.domain.ProjectStatusCount;
+import com.spring.demo.domain.Task;
+import com.spring.demo.domain.TaskStatus;
+import com.spring.demo.domain.VersionedTask;
 import com.spring.demo.implementation.jpa.entity.TaskEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TaskJpaRepository extends JpaRepository<TaskEntity, Long> {
-    List<TaskEntity> findAllByUserId(long userId);
-    List<TaskEntity> findAllByProjectId(long projectId);
+    // constructor expression: rows go straight into the domain Task, nothing enters the persistence context
+    String SELECT_TASK = "select new com.spring.demo.domain.Task(t.id, t.user.id, t.project.id, t.name, t.description, t.status, t.createdAt) from task t";
+    // aggregates over the page's (id, changed) pairs only, the rows themselves are never read
+    String LIST_VERSION = "select new com.spring.demo.domain.ListVersion(count(*), coalesce(sum(v.id), 0), coalesce(max(v.changed), 0))" +
+            " from (select t.id as id, t.changed as changed from task t where t.id > :afterId";
+    String LIST_VERSION_PAGE = " order by t.id limit :rows) v";
+
+    @Query(SELECT_TASK + " where t.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Optional<Task> findTaskById(long id);
+
+    // the version read here is the expected one of the following compare-and-set update
+    @Query("select new com.spring.demo.domain.VersionedTask(t.id, t.user.id, t.project.id, t.name, t.description, t.status, t.createdAt, t.version)" +
+            " from task t where t.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Optional<VersionedTask> findVersionedTaskById(long id);
+
+    @Query(SELECT_TASK)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Task> findAllTasks();
+
+    @Query(SELECT_TASK + " where t.user.id = :userId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Task> findAllTasksByUserId(long userId);
+
+    @Query(SELECT_TASK + " where t.project.id = :projectId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Task> findAllTasksByProjectId(long projectId);
+
+    @Query(SELECT_TASK + " where t.id > :afterId order by t.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Task> findTaskPage(long afterId, Limit limit);
+
+    @Query(SELECT_TASK + " where t.user.id = :userId and t.id > :afterId order by t.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Task> findTaskPageByUserId(long userId, long afterId, Limit limit);
+
+    @Query(SELECT_TASK + " where t.project.id = :projectId and t.id > :afterId order by t.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Task> findTaskPageByProjectId(long projectId, long afterId, Limit limit);
+
+    @Query(SELECT_TASK + " where t.status = :status and t.id > :afterId order by t.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Task> findTaskPageByStatus(TaskStatus status, long afterId, Limit limit);
+
+    @Query(SELECT_TASK + " where t.id in :ids")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Task> findAllTasksByIds(Collection<Long> ids);
+
+    @Query(SELECT_TASK + " where t.id in :ids and t.status = :status order by t.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Task> findAllTasksByIdsAndStatus(Collection<Long> ids, TaskStatus status);
+
+    @Query("select t.id from task t where t.status = :status")
+    List<Long> findIdsByStatus(TaskStatus status);
+
+    @Query("select new com.spring.demo.domain.ProjectStatusCount(t.project.id, t.status, count(t)) from task t" +
+            " where t.project is not null group by t.project.id, t.status")
+    List<ProjectStatusCount> countByProjectAndStatus();
+
+    @Query("select t.version from task t where t.id = :id")
+    Optional<Long> findVersionById(long id);
+
+    @Query(LIST_VERSION + LIST_VERSION_PAGE)
+    ListVersion findPageVersion(long afterId, int rows);
+
+    @Query(LIST_VERSION + " and t.user.id = :userId" + LIST_VERSION_PAGE)
+    ListVersion findPageVersionByUserId(long userId, long afterId, int rows);
+
+    @Query(LIST_VERSION + " and t.project.id = :projectId" + LIST_VERSION_PAGE)
+    ListVersion findPageVersionByProjectId(long projectId, long afterId, int rows);
+
+    @Query(LIST_VERSION + " and t.status = :status" + LIST_VERSION_PAGE)
+    ListVersion findPageVersionByStatus(TaskStatus status, long afterId, int rows);
+
+    // compare-and-set bulk statements: one round trip, 0 rows means the task is gone or no longer at that version
+    @Transactional
+    @Modifying
+    @Query("update task t set t.name = :name, t.description = :description, t.status = :status, t.version = t.version + 1 where t.id = :id and t.version = :version")
+    int updateTask(long id, long version, String name, String description, TaskStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("update task t set t.status = :status, t.version = t.version + 1 where t.id = :id and t.version = :version")
+    int updateStatus(long id, long version, TaskStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("update task t set t.project.id = :projectId, t.version = t.version + 1 where t.id = :id and t.version = :version")
+    int updateProject(long id, long version, long projectId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from task t where t.id = :id and t.version = :version")
+    int deleteTaskById(long id, long version);
+
+    // set-based writes, one statement each; the services publish a TasksChangedEvent instead of reading the rows
+    String BY_PROJECT_STATUS_CHANGE = " where t.project.id = :projectId and t.status <> :status";
+    String BY_USER_STATUS_CHANGE = " where t.user.id = :userId and t.status <> :status";
+    // the same-owner rule of assignProject as a predicate, tasks of other users stay where they are
+    String BY_PROJECT_OWNER_MOVE = " where t.project.id = :fromProjectId and t.user.id = (select p.user.id from project p where p.id = :toProjectId)";
+
+    @Modifying
+    @Query("update task t set t.status = :status, t.version = t.version + 1" + BY_PROJECT_STATUS_CHANGE)
+    int updateStatusByProjectId(long projectId, TaskStatus status);
+
+    @Modifying
+    @Query("update task t set t.status = :status, t.version = t.version + 1" + BY_USER_STATUS_CHANGE)
+    int updateStatusByUserId(long userId, TaskStatus status);
+
+    @Modifying
+    @Query("update task t set t.project.id = :toProjectId, t.version = t.version + 1" + BY_PROJECT_OWNER_MOVE)
+    int updateProjectByProjectId(long fromProjectId, long toProjectId);
 }
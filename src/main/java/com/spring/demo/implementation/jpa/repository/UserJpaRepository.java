@@ -1,11 +1,48 @@
 package com.spring.demo.implementation.jpa.repository;
 
+import com.spring.demo.domain.ListVersion;
+import com.spring.demo.domain.User;
 import com.spring.demo.implementation.jpa.entity.UserEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface UserJpaRepository extends JpaRepository<UserEntity, Long> {
+    String SELECT_USER = "select new com.spring.demo.domain.User(u.id, u.name, u.email) from user u";
+    String LIST_VERSION = "select new com.spring.demo.domain.ListVersion(count(*), coalesce(sum(v.id), 0), coalesce(max(v.changed), 0))" +
+            " from (select u.id as id, u.changed as changed from user u where u.id > :afterId order by u.id limit :rows) v";
+
+    @Query(SELECT_USER + " where u.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Optional<User> findUserById(long id);
+
+    @Query(SELECT_USER)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<User> findAllUsers();
+
+    @Query(SELECT_USER + " where u.id > :afterId order by u.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<User> findUserPage(long afterId, Limit limit);
+
+    @Query("select u.version from user u where u.id = :id")
+    Optional<Long> findVersionById(long id);
 
+    @Query(LIST_VERSION)
+    ListVersion findPageVersion(long afterId, int rows);
 
+    // projects and tasks are removed by the database (ON DELETE CASCADE), nothing is loaded into memory
+    @Transactional
+    @Modifying
+    @Query("delete from user u where u.id = :id")
+    int deleteUserById(long id);
 }
@@ -2,10 +2,14 @@ package com.spring.demo.implementation.jpa.service;
 
 import com.spring.demo.api.ProjectService;
 import com.spring.demo.api.UserService;
+import com.spring.demo.api.event.TasksChangedEvent;
 import com.spring.demo.api.exception.BadRequestException;
+import com.spring.demo.api.exception.ConflictException;
 import com.spring.demo.api.exception.ResourceNotFoundException;
 import com.spring.demo.api.request.ProjectAddRequest;
 import com.spring.demo.api.request.ProjectEditRequest;
+import com.spring.demo.domain.CursorPage;
+import com.spring.demo.domain.ListVersion;
 import com.spring.demo.domain.Project;
 import com.spring.demo.domain.User;
 import com.spring.demo.implementation.jpa.entity.ProjectEntity;
@@ -14,9 +18,13 @@ import com.spring.demo.implementation.jpa.repository.ProjectJpaRepository;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Primary;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.time.OffsetDateTime;
@@ -28,46 +36,67 @@ import java.util.List;
 public class ProjectServiceJpaImpl implements ProjectService {
     private final ProjectJpaRepository repository;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ProjectServiceJpaImpl(ProjectJpaRepository repository, UserService userService) {
+    public ProjectServiceJpaImpl(ProjectJpaRepository repository, UserService userService, ApplicationEventPublisher eventPublisher) {
         this.repository = repository;
         this.userService = userService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Cacheable(cacheNames = "projects", key = "#id")
     public Project get(long id) {
-        return repository.findById(id)
-                .map(this::mapProjectEntityToProject)
+        return repository.findProjectById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Project not found with id: " + id));
     }
 
     @Override
     public List<Project> getAll() {
-        return repository.findAll()
-                .stream()
-                .map(this::mapProjectEntityToProject)
-                .toList();
+        return repository.findAllProjects();
     }
 
     @Override
     public List<Project> getAllByUser(long userId) {
         if (userService.get(userId) != null){
-            return repository.findAllByUserId(userId)
-                      .stream()
-                      .map(this::mapProjectEntityToProject)
-                      .toList();
+            return repository.findAllProjectsByUserId(userId);
         }
         return List.of();
     }
 
     @Override
+    public CursorPage<Project> getPage(long afterId, int limit) {
+        return CursorPage.of(repository.findProjectPage(afterId, Limit.of(limit + 1)), limit, Project::getId);
+    }
+
+    @Override
+    public long getVersion(long id) {
+        return repository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Project not found with id: " + id));
+    }
+
+    @Override
+    public ListVersion getAllVersionByUser(long userId) {
+        userService.get(userId);
+        return repository.findPageVersionByUserId(userId, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public ListVersion getPageVersion(long afterId, int limit) {
+        return repository.findPageVersion(afterId, limit + 1);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = "projects", key = "#id")
     public void delete(long id) {
-        if (this.get(id) != null) {
-            repository.deleteById(id);
+        if (repository.deleteProjectById(id) == 0) {
+            throw new ResourceNotFoundException("Project not found with id: " + id);
         }
+        eventPublisher.publishEvent(TasksChangedEvent.projectDeleted(id));
     }
 
     @Override
+    @CacheEvict(cacheNames = "projects", key = "#result")
     public long add(ProjectAddRequest request) {
         final User user = userService.get(request.getUserId());
         final UserEntity userEntity = new UserEntity(
@@ -86,26 +115,23 @@ public class ProjectServiceJpaImpl implements ProjectService {
     }
 
     @Override
+    @CacheEvict(cacheNames = "projects", key = "#id")
     public void edit(long id, ProjectEditRequest request) {
-        final ProjectEntity projectEntity = repository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Project not found with id: " + id));
-
-        projectEntity.setName(request.getName());
-        projectEntity.setDescription(request.getDescription());
-
-        repository.save(projectEntity);
+        edit(id, request, null);
     }
 
-    private Project mapProjectEntityToProject(ProjectEntity entity) {
-        if (entity == null) {
-            return null;
+    @Override
+    @CacheEvict(cacheNames = "projects", key = "#id")
+    public void edit(long id, ProjectEditRequest request, Long expectedVersion) {
+        final int updated = expectedVersion != null
+                ? repository.updateProjectIfVersion(id, expectedVersion, request.getName(), request.getDescription())
+                : repository.updateProject(id, request.getName(), request.getDescription());
+        if (updated == 0 && expectedVersion != null) {
+            final long version = getVersion(id);
+            throw new ConflictException("Project " + id + " is at version " + version + ", not " + expectedVersion);
+        }
+        if (updated == 0) {
+            throw new ResourceNotFoundException("Project not found with id: " + id);
         }
-        return new Project(
-                entity.getId(),
-                entity.getUser().getId(),
-                entity.getName(),
-                entity.getDescription(),
-                entity.getCreatedAt()
-        );
     }
 }
@@ -3,27 +3,53 @@ package com.spring.demo.implementation.jpa.service;
 import com.spring.demo.api.ProjectService;
 import com.spring.demo.api.TaskService;
 import com.spring.demo.api.UserService;
+import com.spring.demo.api.event.TaskChangedEvent;
+import com.spring.demo.api.event.TasksChangedEvent;
 import com.spring.demo.api.exception.BadRequestException;
+import com.spring.demo.api.exception.ConflictException;
 import com.spring.demo.api.exception.InternalErrorException;
 import com.spring.demo.api.exception.ResourceNotFoundException;
 import com.spring.demo.api.request.TaskAddRequest;
 import com.spring.demo.api.request.TaskEditRequest;
+import com.spring.demo.domain.CursorPage;
+import com.spring.demo.domain.ListVersion;
 import com.spring.demo.domain.Project;
+import com.spring.demo.domain.ProjectStatusCount;
 import com.spring.demo.domain.Task;
 import com.spring.demo.domain.TaskStatus;
 import com.spring.demo.domain.User;
+import com.spring.demo.domain.VersionedTask;
+import com.spring.demo.implementation.concurrent.LookupScope;
+import com.spring.demo.implementation.concurrent.LookupScopes;
+import com.spring.demo.implementation.index.TaskSearchIndex;
+import com.spring.demo.implementation.index.TaskStatusIndex;
 import com.spring.demo.implementation.jpa.entity.ProjectEntity;
 import com.spring.demo.implementation.jpa.entity.TaskEntity;
 import com.spring.demo.implementation.jpa.entity.UserEntity;
 import com.spring.demo.implementation.jpa.repository.TaskJpaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceException;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.annotation.Primary;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.OffsetDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongToIntFunction;
+import java.util.function.Supplier;
 @Service
 @Profile("jpa")
 @Slf4j
@@ -31,104 +57,248 @@ public class TaskServiceJpaImpl implements TaskService {
     private final TaskJpaRepository repository;
     private final UserService userService;
     private final ProjectService projectService;
+    private final SessionFactory sessionFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskStatusIndex statusIndex;
+    private final TaskSearchIndex searchIndex;
+    private final LookupScopes lookupScopes;
 
-    public TaskServiceJpaImpl(TaskJpaRepository repository, UserService userService, ProjectService projectService) {
+    public TaskServiceJpaImpl(TaskJpaRepository repository, UserService userService, ProjectService projectService,
+                              EntityManagerFactory entityManagerFactory, ApplicationEventPublisher eventPublisher,
+                              TaskStatusIndex statusIndex, TaskSearchIndex searchIndex, LookupScopes lookupScopes) {
         this.repository = repository;
         this.userService = userService;
         this.projectService = projectService;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.eventPublisher = eventPublisher;
+        this.statusIndex = statusIndex;
+        this.searchIndex = searchIndex;
+        this.lookupScopes = lookupScopes;
     }
 
     @Override
     public long add(TaskAddRequest request) {
-        final User user = userService.get(request.getUserId());
+        final User user;
+        final Project project;
+        // both lookups are forked: a lookup on this thread would keep its connection bound to the request
+        // (open-in-view) while the fork waits for another one
+        try (LookupScope scope = lookupScopes.open()) {
+            final Supplier<User> userLookup = scope.fork(() -> userService.get(request.getUserId()));
+            final Supplier<Project> projectLookup = request.getProjectId() != null
+                    ? scope.fork(() -> projectService.get(request.getProjectId()))
+                    : () -> null;
+            scope.join();
+            user = userLookup.get();
+            project = projectLookup.get();
+        }
         final UserEntity userEntity = new UserEntity(user.getId(), user.getName(), user.getEmail());
         final ProjectEntity projectEntity;
 
-        if (request.getProjectId() != null){
-            final Project project = projectService.get(request.getProjectId());
+        if (project != null){
             projectEntity = new ProjectEntity(project.getId(), userEntity, project.getName(), project.getDescription(), project.getCreatedAt());
         }else {
             projectEntity = null;
         }
+        final TaskEntity taskEntity;
         try {
-            return repository.save(new TaskEntity(
+            taskEntity = repository.save(new TaskEntity(
                     userEntity,
                     projectEntity,
                     request.getName(),
                     request.getDescription(),
                     TaskStatus.NEW,
                     OffsetDateTime.now()
-            )).getId();
+            ));
         }catch (DataAccessException e){
             log.error("Error while adding task: {}", e.getMessage());
             throw new InternalErrorException("Failed to add task due to database error.");
         }
+        eventPublisher.publishEvent(TaskChangedEvent.added(toTask(taskEntity)));
+        return taskEntity.getId();
     }
 
+    // bulk path: a StatelessSession skips the persistence context and dirty checking, inserts go out as JDBC batches.
+    // Inside a caller's transaction the entities are persisted there instead, flushed as JDBC batches all the same
     @Override
+    public List<Long> addAll(List<TaskAddRequest> requests) {
+        final Map<Long, UserEntity> users = new HashMap<>();
+        final Map<Long, ProjectEntity> projects = new HashMap<>();
+        final OffsetDateTime createdAt = OffsetDateTime.now();
+        final List<TaskEntity> entities = requests.stream()
+                .map(request -> {
+                    final UserEntity userEntity = users.computeIfAbsent(request.getUserId(), userId -> {
+                        final User user = userService.get(userId);
+                        return new UserEntity(user.getId(), user.getName(), user.getEmail());
+                    });
+                    final ProjectEntity projectEntity = request.getProjectId() == null ? null
+                            : projects.computeIfAbsent(request.getProjectId(), projectId -> {
+                                final Project project = projectService.get(projectId);
+                                return new ProjectEntity(project.getId(), userEntity, project.getName(), project.getDescription(), project.getCreatedAt());
+                            });
+                    return new TaskEntity(userEntity, projectEntity, request.getName(), request.getDescription(), TaskStatus.NEW, createdAt);
+                })
+                .toList();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            try {
+                repository.saveAll(entities);
+            } catch (DataAccessException e) {
+                log.error("Error while adding {} tasks: {}", requests.size(), e.getMessage());
+                throw new InternalErrorException("Failed to add tasks due to database error.");
+            }
+        } else {
+            insertStateless(entities, requests.size());
+        }
+        entities.forEach(entity -> eventPublisher.publishEvent(TaskChangedEvent.added(toTask(entity))));
+        return entities.stream()
+                .map(TaskEntity::getId)
+                .toList();
+    }
+
+    private void insertStateless(List<TaskEntity> entities, int count) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(sessionFactory.getSessionFactoryOptions().getJdbcBatchSize());
+            final Transaction transaction = session.beginTransaction();
+            try {
+                entities.forEach(session::insert);
+                transaction.commit();
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        } catch (PersistenceException e) {
+            log.error("Error while adding {} tasks: {}", count, e.getMessage());
+            throw new InternalErrorException("Failed to add tasks due to database error.");
+        }
+    }
+
+    @Override
+    @Transactional
     public void edit(long id, TaskEditRequest request) {
-        final TaskEntity taskEntity = repository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + id));
-        taskEntity.setName(request.getName());
-        taskEntity.setDescription(request.getDescription());
-        taskEntity.setStatus(TaskStatus.valueOf(request.getStatus()));
-        repository.save(taskEntity);
+        edit(id, request, null);
     }
 
     @Override
+    @Transactional
     public void changeStatus(long id, TaskStatus status) {
-        final TaskEntity taskEntity = repository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + id));
-        taskEntity.setStatus(status);
-        repository.save(taskEntity);
+        changeStatus(id, status, null);
     }
 
     @Override
     public void assignProject(long taskId, long projectId) {
-        final TaskEntity taskEntity = repository.findById(taskId)
-                .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + taskId));
-        final Project project = projectService.get(projectId);
-        if (!taskEntity.getUser().getId().equals(project.getUserId())){
+        assignProject(taskId, projectId, null);
+    }
+
+    @Override
+    @Transactional
+    public void delete(long id) {
+        delete(id, null);
+    }
+
+    @Override
+    @Transactional
+    public void edit(long id, TaskEditRequest request, Long expectedVersion) {
+        final TaskStatus status = parseStatus(request.getStatus());
+        final Task before = compareAndSet(id, expectedVersion, readTask(id),
+                version -> repository.updateTask(id, version, request.getName(), request.getDescription(), status));
+        eventPublisher.publishEvent(TaskChangedEvent.updated(before, before
+                .withName(request.getName())
+                .withDescription(request.getDescription())
+                .withStatus(status)));
+    }
+
+    @Override
+    @Transactional
+    public void changeStatus(long id, TaskStatus status, Long expectedVersion) {
+        final Task before = compareAndSet(id, expectedVersion, readTask(id),
+                version -> repository.updateStatus(id, version, status));
+        eventPublisher.publishEvent(TaskChangedEvent.updated(before, before.withStatus(status)));
+    }
+
+    // not @Transactional: the lookups fork before any connection is taken, the compare-and-set update
+    // is a transaction of its own, as in the jdbc service
+    @Override
+    public void assignProject(long taskId, long projectId, Long expectedVersion) {
+        final VersionedTask current;
+        final Project project;
+        try (LookupScope scope = lookupScopes.open()) {
+            final Supplier<VersionedTask> taskLookup = scope.fork(() -> readTask(taskId));
+            final Supplier<Project> projectLookup = scope.fork(() -> projectService.get(projectId));
+            scope.join();
+            current = taskLookup.get();
+            project = projectLookup.get();
+        }
+        // the owner of a task never changes, so a retried write does not need to check it again
+        if (current.getTask().getUserId() != project.getUserId()){
             throw new BadRequestException("Cannot assign task to project that does not belong to the same user.");
         }
-        final ProjectEntity projectEntity = new ProjectEntity(
-                project.getId(),
-                taskEntity.getUser(),
-                project.getName(),
-                project.getDescription(),
-                project.getCreatedAt()
-        );
-        taskEntity.setProject(projectEntity);
-        repository.save(taskEntity);
+        final Task before = compareAndSet(taskId, expectedVersion, current,
+                version -> repository.updateProject(taskId, version, projectId));
+        eventPublisher.publishEvent(TaskChangedEvent.updated(before, before.withProjectId(projectId)));
     }
 
     @Override
-    public void delete(long id) {
-        if (this.get(id) != null) {
-            repository.deleteById(id);
+    @Transactional
+    public void delete(long id, Long expectedVersion) {
+        final Task before = compareAndSet(id, expectedVersion, readTask(id),
+                version -> repository.deleteTaskById(id, version));
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(before));
+    }
+
+    // one statement over the matching rows, which are never loaded: listeners get a TasksChangedEvent instead of one per row
+    @Override
+    @Transactional
+    public int changeStatusByProjectId(long projectId, TaskStatus status) {
+        projectService.get(projectId);
+        final int updated = repository.updateStatusByProjectId(projectId, status);
+        if (updated > 0) {
+            eventPublisher.publishEvent(TasksChangedEvent.statusChanged(projectId, null, status));
         }
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int changeStatusByUserId(long userId, TaskStatus status) {
+        userService.get(userId);
+        final int updated = repository.updateStatusByUserId(userId, status);
+        if (updated > 0) {
+            eventPublisher.publishEvent(TasksChangedEvent.statusChanged(null, userId, status));
+        }
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int assignProjectByProjectId(long fromProjectId, long toProjectId) {
+        projectService.get(fromProjectId);
+        final Project target = projectService.get(toProjectId);
+        if (fromProjectId == toProjectId) {
+            return 0;
+        }
+        final int updated = repository.updateProjectByProjectId(fromProjectId, toProjectId);
+        if (updated > 0) {
+            eventPublisher.publishEvent(TasksChangedEvent.assigned(fromProjectId, target.getUserId(), toProjectId));
+        }
+        return updated;
     }
 
     @Override
     public Task get(long id) {
-        return repository.findById(id)
-                .map(this::mapTaskEntityToTask)
+        return repository.findTaskById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + id));
     }
 
     @Override
     public List<Task> getAll() {
-        return repository.findAll().stream()
-                .map(this::mapTaskEntityToTask)
-                .toList();
+        return repository.findAllTasks();
     }
 
     @Override
     public List<Task> getAllByUserId(long userId) {
         if (userService.get(userId) != null){
-            return repository.findAllByUserId(userId).stream()
-                    .map(this::mapTaskEntityToTask)
-                    .toList();
+            return repository.findAllTasksByUserId(userId);
         }
         return null;
     }
@@ -136,22 +306,148 @@ public class TaskServiceJpaImpl implements TaskService {
     @Override
     public List<Task> getAllByProjectId(long projectId) {
         if (projectService.get(projectId) != null){
-            return repository.findAllByProjectId(projectId).stream()
-                    .map(this::mapTaskEntityToTask)
-                    .toList();
+            return repository.findAllTasksByProjectId(projectId);
         }
         return null;
     }
 
-    private Task mapTaskEntityToTask(TaskEntity taskEntity) {
+    @Override
+    public CursorPage<Task> getPage(long afterId, int limit) {
+        return CursorPage.of(repository.findTaskPage(afterId, Limit.of(limit + 1)), limit, Task::getId);
+    }
+
+    @Override
+    public CursorPage<Task> getPageByUserId(long userId, long afterId, int limit) {
+        userService.get(userId);
+        return CursorPage.of(repository.findTaskPageByUserId(userId, afterId, Limit.of(limit + 1)), limit, Task::getId);
+    }
+
+    @Override
+    public CursorPage<Task> getPageByProjectId(long projectId, long afterId, int limit) {
+        projectService.get(projectId);
+        return CursorPage.of(repository.findTaskPageByProjectId(projectId, afterId, Limit.of(limit + 1)), limit, Task::getId);
+    }
+
+    @Override
+    public CursorPage<Task> getPageByStatus(TaskStatus status, long afterId, int limit) {
+        return statusIndex.getPage(status, afterId, limit, ids -> repository.findAllTasksByIdsAndStatus(ids, status))
+                .orElseGet(() -> CursorPage.of(repository.findTaskPageByStatus(status, afterId, Limit.of(limit + 1)), limit, Task::getId));
+    }
+
+    @Override
+    public List<Long> getIdsByStatus(TaskStatus status) {
+        return repository.findIdsByStatus(status);
+    }
+
+    // a StatelessSession has no persistence context to grow, the scroll keeps one row of the cursor at a time
+    @Override
+    public void streamAll(int fetchSize, Consumer<Task> consumer) {
+        try (StatelessSession session = sessionFactory.openStatelessSession();
+             ScrollableResults<Task> tasks = session.createSelectionQuery(TaskJpaRepository.SELECT_TASK + " order by t.id", Task.class)
+                     .setFetchSize(fetchSize)
+                     .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (tasks.next()) {
+                consumer.accept(tasks.get());
+            }
+        } catch (PersistenceException e) {
+            log.error("Error while streaming all tasks: {}", e.getMessage());
+            throw new InternalErrorException("Failed to stream tasks due to database error.");
+        }
+    }
+
+    @Override
+    public CursorPage<Task> search(String query, Long userId, int offset, int limit) {
+        return searchIndex.search(query, userId, offset, limit, repository::findAllTasksByIds);
+    }
+
+    // list versions cover the extra row a page is fetched with, so they also change when a next page appears
+    @Override
+    public long getVersion(long id) {
+        return repository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + id));
+    }
+
+    @Override
+    public ListVersion getAllVersionByUserId(long userId) {
+        return getPageVersionByUserId(userId, 0, Integer.MAX_VALUE - 1);
+    }
+
+    @Override
+    public ListVersion getAllVersionByProjectId(long projectId) {
+        return getPageVersionByProjectId(projectId, 0, Integer.MAX_VALUE - 1);
+    }
+
+    @Override
+    public ListVersion getPageVersion(long afterId, int limit) {
+        return repository.findPageVersion(afterId, limit + 1);
+    }
+
+    @Override
+    public ListVersion getPageVersionByUserId(long userId, long afterId, int limit) {
+        userService.get(userId);
+        return repository.findPageVersionByUserId(userId, afterId, limit + 1);
+    }
+
+    @Override
+    public ListVersion getPageVersionByProjectId(long projectId, long afterId, int limit) {
+        projectService.get(projectId);
+        return repository.findPageVersionByProjectId(projectId, afterId, limit + 1);
+    }
+
+    @Override
+    public ListVersion getPageVersionByStatus(TaskStatus status, long afterId, int limit) {
+        return repository.findPageVersionByStatus(status, afterId, limit + 1);
+    }
+
+    @Override
+    public List<ProjectStatusCount> countByProjectAndStatus() {
+        return repository.countByProjectAndStatus();
+    }
+
+    private VersionedTask readTask(long id) {
+        return repository.findVersionedTaskById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + id));
+    }
+
+    /**
+     * Optimistic read-modify-write: {@code update} only applies to the version that was read and returns 0 otherwise.
+     * With an expected version a moved row is a conflict, without one the write is retried against the newer row
+     * for as long as it takes: the caller asked for no check, so a busy row must not turn into a 409. Each failed
+     * attempt means another write went through, so the retries always make progress.
+     * Returns the task as it was before the successful write.
+     */
+    private Task compareAndSet(long id, Long expectedVersion, VersionedTask current, LongToIntFunction update) {
+        while (true) {
+            if (expectedVersion != null && current.getVersion() != expectedVersion) {
+                throw new ConflictException("Task " + id + " is at version " + current.getVersion() + ", not " + expectedVersion);
+            }
+            if (update.applyAsInt(current.getVersion()) == 1) {
+                return current.getTask();
+            }
+            current = readTask(id);
+        }
+    }
+
+    private static TaskStatus parseStatus(String status) {
+        if (status == null) {
+            throw new BadRequestException("status must not be null");
+        }
+        try {
+            return TaskStatus.fromString(status);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    private static Task toTask(TaskEntity entity) {
         return new Task(
-                taskEntity.getId(),
-                taskEntity.getUser().getId(),
-                taskEntity.getProject() != null ? taskEntity.getProject().getId() : null,
-                taskEntity.getName(),
-                taskEntity.getDescription(),
-                taskEntity.getStatus(),
-                taskEntity.getCreatedAt()
+                entity.getId(),
+                entity.getUser().getId(),
+                entity.getProject() != null ? entity.getProject().getId() : null,
+                entity.getName(),
+                entity.getDescription(),
+                entity.getStatus(),
+                entity.getCreatedAt()
         );
     }
 }
@@ -1,18 +1,28 @@
 package com.spring.demo.implementation.jpa.service;
 
 import com.spring.demo.api.UserService;
+import com.spring.demo.api.event.TasksChangedEvent;
 import com.spring.demo.api.exception.BadRequestException;
 import com.spring.demo.api.exception.ResourceNotFoundException;
 import com.spring.demo.api.request.UserAddRequest;
+import com.spring.demo.domain.CursorPage;
+import com.spring.demo.domain.ListVersion;
 import com.spring.demo.domain.User;
 import com.spring.demo.implementation.jpa.entity.UserEntity;
+import com.spring.demo.implementation.jpa.repository.ProjectJpaRepository;
 import com.spring.demo.implementation.jpa.repository.UserJpaRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Primary;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,12 +33,17 @@ import java.util.Optional;
 public class UserServiceJpaImpl implements UserService {
 
     private final UserJpaRepository repository;
+    private final ProjectJpaRepository projectRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserServiceJpaImpl(UserJpaRepository repository) {
+    public UserServiceJpaImpl(UserJpaRepository repository, ProjectJpaRepository projectRepository, ApplicationEventPublisher eventPublisher) {
         this.repository = repository;
+        this.projectRepository = projectRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @CacheEvict(cacheNames = "users", key = "#result")
     public long add(UserAddRequest request) {
         try {
             return repository.save(new UserEntity(request.getName(), request.getEmail())).getId();
@@ -39,26 +54,47 @@ public class UserServiceJpaImpl implements UserService {
             throw new RuntimeException("Error accessing data while inserting user", e);
         }
     }
+    // the project ids are read for the events only, projects and tasks still go through ON DELETE CASCADE
     @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "users", key = "#id"),
+            @CacheEvict(cacheNames = "projects", allEntries = true)
+    })
     public void delete(long id) {
-        if (this.get(id) != null){
-            repository.deleteById(id);
+        final List<Long> projectIds = projectRepository.findProjectIdsByUserId(id);
+        if (repository.deleteUserById(id) == 0) {
+            throw new ResourceNotFoundException("User with id " + id + " not found");
         }
+        projectIds.forEach(projectId -> eventPublisher.publishEvent(TasksChangedEvent.projectDeleted(projectId)));
+        eventPublisher.publishEvent(TasksChangedEvent.userDeleted(id));
     }
 
     @Override
+    @Cacheable(cacheNames = "users", key = "#id")
     public User get(long id) {
-        return repository.findById(id).map(this::mapUserEntityToUser)
+        return repository.findUserById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User with id " + id + " not found"));
     }
 
     @Override
     public List<User> getAll() {
-        return repository.findAll().stream().map(this::mapUserEntityToUser)
-                .toList();
+        return repository.findAllUsers();
     }
 
-    private User mapUserEntityToUser(UserEntity entity) {
-        return new User(entity.getId(), entity.getName(), entity.getEmail());
+    @Override
+    public CursorPage<User> getPage(long afterId, int limit) {
+        return CursorPage.of(repository.findUserPage(afterId, Limit.of(limit + 1)), limit, User::getId);
+    }
+
+    @Override
+    public long getVersion(long id) {
+        return repository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User with id " + id + " not found"));
+    }
+
+    @Override
+    public ListVersion getPageVersion(long afterId, int limit) {
+        return repository.findPageVersion(afterId, limit + 1);
     }
 }
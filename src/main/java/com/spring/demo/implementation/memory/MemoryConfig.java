@@ -0,0 +1,58 @@
+package com.spring.demo.implementation.memory;
+
+import com.spring.demo.api.request.ProjectAddRequest;
+import com.spring.demo.api.request.TaskAddRequest;
+import com.spring.demo.api.request.UserAddRequest;
+import com.spring.demo.domain.TaskStatus;
+import com.spring.demo.implementation.memory.repository.ProjectMemoryRepository;
+import com.spring.demo.implementation.memory.repository.TaskMemoryRepository;
+import com.spring.demo.implementation.memory.repository.UserMemoryRepository;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * The memory profile keeps users, projects and tasks in columnar tables inside the JVM, no DataSource is configured
+ * (see application-memory.properties). The tables start with the rows of data.sql.
+ * <p>
+ * Isolation is read uncommitted: a transaction writes straight into the shared tables, so other threads see its
+ * rows before it commits and may act on rows it later rolls back. Rollback restores the rows from the undo log, and
+ * the after-commit listeners (indexes, stats, change feed) only ever see committed changes. A transaction asking for
+ * a stronger isolation level is refused by {@link MemoryTransactionManager}.
+ */
+@Configuration
+@Profile("memory")
+public class MemoryConfig {
+
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new MemoryTransactionManager();
+    }
+
+    @Bean
+    public InitializingBean memoryDataSeed(UserMemoryRepository users, ProjectMemoryRepository projects, TaskMemoryRepository tasks) {
+        return () -> {
+            users.add(new UserAddRequest("Richard Mrkvicka", "jozko.mrkvicka@gmail.com"));
+            users.add(new UserAddRequest("Maria Terezia", "maria.terezia@gmail.com"));
+            users.add(new UserAddRequest("Albert Einstein", "albert.einstein@gmail.com"));
+            users.add(new UserAddRequest("Ada Lovelace", "ada.lovelace@gmail.com"));
+            users.add(new UserAddRequest("Nikola Tesla", "nikola.tesla@gmail.com"));
+
+            projects.addProject(new ProjectAddRequest(1L, "Jozkov projekt", "Tasky v robote"));
+            projects.addProject(new ProjectAddRequest(2L, "Projekt Marie Terezie", "Moj Todolist"));
+            projects.addProject(new ProjectAddRequest(3L, "Relativita", "Výpočty ohýbania časopriestoru"));
+            projects.addProject(new ProjectAddRequest(4L, "Analýza algoritmov", "Matematická analýza výpočtov"));
+            projects.addProject(new ProjectAddRequest(5L, "Elektrický prúd", "Testovanie vysokofrekvenčných prúdov"));
+
+            tasks.add(new TaskAddRequest(1L, 1L, "Spravit API", "API ma byt pre noveho klienta"), TaskStatus.DONE);
+            tasks.add(new TaskAddRequest(1L, 1L, "Otestovat API", "Unit testy + integracne testy"), TaskStatus.NEW);
+            tasks.add(new TaskAddRequest(2L, 2L, "Kupit mame darcek", null), TaskStatus.NEW);
+            tasks.add(new TaskAddRequest(3L, 3L, "Spocitat casovy dilatacny efekt", "Porovnat so simulaciou"), TaskStatus.IN_PROGRESS);
+            tasks.add(new TaskAddRequest(4L, 4L, "Napísať pseudokód", "Preložiť do ASM"), TaskStatus.NEW);
+            tasks.add(new TaskAddRequest(5L, 5L, "Zmerať voltáž", "Testovanie Tesla cievky"), TaskStatus.DONE);
+            tasks.add(new TaskAddRequest(3L, 3L, "Nakresliť diagramy", "Vizualizácia časopriestoru"), TaskStatus.NEW);
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.spring.demo.implementation.memory;
+
+import org.springframework.transaction.InvalidIsolationLevelException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transactions of the memory profile. Writes are applied to the tables right away and are visible to other threads
+ * before commit, i.e. read uncommitted; what the transaction adds is the synchronization: after-commit event
+ * listeners, and the undo log the tables register to put rows back on rollback.
+ */
+public class MemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+    @Override
+    protected Object doGetTransaction() {
+        return new MemoryTransactionObject((RollbackFlag) TransactionSynchronizationManager.getResource(this));
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((MemoryTransactionObject) transaction).flag != null;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        if (definition.getIsolationLevel() > TransactionDefinition.ISOLATION_READ_UNCOMMITTED) {
+            throw new InvalidIsolationLevelException("The memory profile only supports read uncommitted, not isolation level "
+                    + definition.getIsolationLevel());
+        }
+        final RollbackFlag flag = new RollbackFlag();
+        ((MemoryTransactionObject) transaction).flag = flag;
+        TransactionSynchronizationManager.bindResource(this, flag);
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        ((MemoryTransactionObject) transaction).flag = null;
+        return TransactionSynchronizationManager.unbindResource(this);
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        TransactionSynchronizationManager.bindResource(this, suspendedResources);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((MemoryTransactionObject) status.getTransaction()).flag.rollbackOnly = true;
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionSynchronizationManager.unbindResource(this);
+    }
+
+    // shared by every participant of one transaction, so an inner failure marks the outer one rollback-only
+    private static final class RollbackFlag {
+        boolean rollbackOnly;
+    }
+
+    private static final class MemoryTransactionObject implements SmartTransactionObject {
+        RollbackFlag flag;
+
+        MemoryTransactionObject(RollbackFlag flag) {
+            this.flag = flag;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return flag != null && flag.rollbackOnly;
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
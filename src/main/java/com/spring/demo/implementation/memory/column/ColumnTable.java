@@ -0,0 +1,396 @@
+package com.spring.demo.implementation.memory.column;
+
+import com.github.benmanes.caffeine.cache.Interner;
+import com.spring.demo.api.exception.ConflictException;
+import com.spring.demo.api.exception.ResourceNotFoundException;
+import com.spring.demo.domain.ListVersion;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Base of the in-memory tables: rows live in parallel primitive arrays, one per column, at a slot index.
+ * <p>
+ * Ids are handed out in increasing order and rows are only appended, so slot order is id order and a row is found by
+ * binary search over {@link #ids}. Deleted rows stay behind as tombstones (negative version) until enough of them pile
+ * up, then the table is compacted and subclasses rebuild their indexes.
+ * <p>
+ * Concurrency: inserts, deletes and anything touching an index take the write lock. Readers take the read lock, and so
+ * do writers that only change columns of one row; those serialize on a lock stripe of the slot and bracket their
+ * writes with the row's stamp, a seqlock readers use to get a consistent copy of the row without blocking.
+ * <p>
+ * Inside a Spring transaction every write leaves an undo action behind which restores the row on rollback. Undo actions
+ * never throw: a row another transaction deleted in the meantime (it could see the uncommitted write) stays deleted.
+ * <p>
+ * There are no foreign keys: a write that references rows of another table runs inside {@link #whileExisting} of that
+ * table, and deletes cascade in the services.
+ * <p>
+ * Every write, its undo included, stamps the row with the next value of the table's change sequence, the
+ * {@code lastChange} of {@link ListVersion}.
+ */
+public abstract class ColumnTable {
+    private static final VarHandle STAMPS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int STRIPES = 64;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 1024;
+    protected static final long DELETED = -1;
+    // repeated names and descriptions share one String, the weak interner drops them with their last row
+    private static final Interner<String> STRINGS = Interner.newWeakInterner();
+
+    private final String entity;
+    private final StampedLock lock = new StampedLock();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong changeSequence = new AtomicLong();
+    // compaction moves rows, which would send pending undo actions to the wrong slot
+    private final AtomicInteger pendingUndo = new AtomicInteger();
+    // rows inserted by transactions that are still open, by id, with the undo log of that transaction
+    private final Map<Long, UndoLog> uncommittedInserts = new ConcurrentHashMap<>();
+
+    protected long[] ids = new long[INITIAL_CAPACITY];
+    protected long[] versions = new long[INITIAL_CAPACITY];
+    private long[] changes = new long[INITIAL_CAPACITY];
+    private long[] stamps = new long[INITIAL_CAPACITY];
+    protected int size;
+    private int tombstones;
+
+    protected ColumnTable(String entity) {
+        this.entity = entity;
+        Arrays.setAll(stripes, i -> new ReentrantLock());
+    }
+
+    protected abstract void resize(int capacity);
+
+    protected abstract void moveRow(int from, int to);
+
+    // drops references held by slots that are no longer in use
+    protected abstract void clearRows(int from, int to);
+
+    protected abstract void rebuildIndexes();
+
+    protected static String intern(String value) {
+        return value == null ? null : STRINGS.intern(value);
+    }
+
+    protected <T> T read(Supplier<T> action) {
+        final long stamp = lock.readLock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    protected <T> T write(Supplier<T> action) {
+        final long stamp = lock.writeLock();
+        try {
+            final T result = action.get();
+            compactIfSparse();
+            return result;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    protected void write(Runnable action) {
+        write(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code action} with the rows of {@code ids} held in place, the foreign key check of another table's write:
+     * deletes of this table wait until it returns. A row inserted by another transaction that is still open fails the
+     * check, its rollback would leave the referencing row behind.
+     */
+    public <T> T whileExisting(Collection<Long> ids, Supplier<T> action) {
+        return read(() -> {
+            final UndoLog current = UndoLog.current();
+            for (long id : ids) {
+                requireSlot(id);
+                final UndoLog owner = uncommittedInserts.get(id);
+                if (owner != null && owner != current) {
+                    throw new ConflictException(entity + " " + id + " is not committed yet");
+                }
+            }
+            return action.get();
+        });
+    }
+
+    /**
+     * Changes columns of one existing row in place, holding only the read lock and the row's stripe.
+     * {@code change} runs between the stamp increments and gets the slot, the version goes up by one afterwards.
+     */
+    protected <T> T updateRow(long id, Long expectedVersion, IntFunction<T> change) {
+        return read(() -> writeRow(requireSlot(id), expectedVersion, change));
+    }
+
+    // rollback of an in-place update: puts the columns and the version back as they were, unless the row is gone
+    protected void restoreRow(long id, long version, IntConsumer restore) {
+        read(() -> {
+            final int slot = slotOf(id);
+            if (slot >= 0) {
+                writeRow(slot, null, row -> {
+                    restore.accept(row);
+                    versions[row] = version - 1; // writeRow adds the one back
+                    return null;
+                });
+            }
+            return null;
+        });
+    }
+
+    // read lock held
+    private <T> T writeRow(int slot, Long expectedVersion, IntFunction<T> change) {
+        final ReentrantLock stripe = stripes[slot & (STRIPES - 1)];
+        stripe.lock();
+        try {
+            requireVersion(slot, expectedVersion);
+            beginWrite(slot);
+            try {
+                final T result = change.apply(slot);
+                versions[slot]++;
+                touch(slot);
+                return result;
+            } finally {
+                endWrite(slot);
+            }
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    // write lock held: claims the next slot with a new id and version 0, columns are left to the caller
+    protected int appendRow() {
+        if (size == ids.length) {
+            final int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            changes = Arrays.copyOf(changes, capacity);
+            stamps = Arrays.copyOf(stamps, capacity);
+            resize(capacity);
+        }
+        final int slot = size++;
+        ids[slot] = sequence.incrementAndGet();
+        versions[slot] = 0;
+        stamps[slot] = 0;
+        touch(slot);
+        return slot;
+    }
+
+    // write lock, or the read lock and the row's stripe inside its stamp brackets, held
+    protected void touch(int slot) {
+        changes[slot] = changeSequence.incrementAndGet();
+    }
+
+    // write lock held
+    protected void markDeleted(int slot) {
+        versions[slot] = DELETED;
+        tombstones++;
+    }
+
+    // write lock held
+    protected void revive(int slot, long version) {
+        versions[slot] = version;
+        touch(slot);
+        tombstones--;
+    }
+
+    protected boolean isLive(int slot) {
+        return versions[slot] >= 0;
+    }
+
+    protected long idOf(int slot) {
+        return ids[slot];
+    }
+
+    // read or write lock held: the slot of a live row, -1 when there is none with that id
+    protected int slotOf(long id) {
+        final int slot = Arrays.binarySearch(ids, 0, size, id);
+        return slot >= 0 && isLive(slot) ? slot : -1;
+    }
+
+    protected int requireSlot(long id) {
+        final int slot = slotOf(id);
+        if (slot < 0) {
+            throw notFound(id);
+        }
+        return slot;
+    }
+
+    protected void requireVersion(int slot, Long expectedVersion) {
+        if (expectedVersion != null && versions[slot] != expectedVersion) {
+            throw new ConflictException(entity + " " + ids[slot] + " is at version " + versions[slot] + ", not " + expectedVersion);
+        }
+    }
+
+    protected ResourceNotFoundException notFound(long id) {
+        return new ResourceNotFoundException(entity + " not found with id: " + id);
+    }
+
+    // first slot whose id is greater than afterId, live or not
+    protected int firstSlotAfter(long afterId) {
+        final int slot = Arrays.binarySearch(ids, 0, size, afterId);
+        return slot >= 0 ? slot + 1 : -slot - 1;
+    }
+
+    protected void beginWrite(int slot) {
+        STAMPS.setOpaque(stamps, slot, stamps[slot] + 1);
+        VarHandle.releaseFence();
+    }
+
+    protected void endWrite(int slot) {
+        STAMPS.setRelease(stamps, slot, stamps[slot] + 1);
+    }
+
+    /**
+     * Reads a row through its seqlock: retried until no writer of the row ran in between, never blocks them.
+     */
+    protected <T> T readRow(int slot, IntFunction<T> reader) {
+        while (true) {
+            final long stamp = (long) STAMPS.getAcquire(stamps, slot);
+            if ((stamp & 1) == 0) {
+                final T row = reader.apply(slot);
+                VarHandle.acquireFence();
+                if ((long) STAMPS.getOpaque(stamps, slot) == stamp) {
+                    return row;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    protected long readVersion(int slot) {
+        return readColumn(versions, slot);
+    }
+
+    private long readColumn(long[] column, int slot) {
+        while (true) {
+            final long stamp = (long) STAMPS.getAcquire(stamps, slot);
+            if ((stamp & 1) == 0) {
+                final long value = column[slot];
+                VarHandle.acquireFence();
+                if ((long) STAMPS.getOpaque(stamps, slot) == stamp) {
+                    return value;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    // live rows from slot `from` on, in id order
+    protected <T> List<T> collect(int from, int limit, IntPredicate match, IntFunction<T> reader) {
+        final List<T> rows = new ArrayList<>(Math.min(limit, 64));
+        for (int slot = from; slot < size && rows.size() < limit; slot++) {
+            if (isLive(slot) && match.test(slot)) {
+                rows.add(readRow(slot, reader));
+            }
+        }
+        return rows;
+    }
+
+    // rows of an index entry, slots[from, count) are live and in id order
+    protected <T> List<T> collect(int[] slots, int from, int count, int limit, IntFunction<T> reader) {
+        final int end = (int) Math.min(count, (long) from + limit);
+        final List<T> rows = new ArrayList<>(Math.max(0, end - from));
+        for (int i = from; i < end; i++) {
+            rows.add(readRow(slots[i], reader));
+        }
+        return rows;
+    }
+
+    protected ListVersion listVersion(int from, int rows, IntPredicate match) {
+        long count = 0, idSum = 0, lastChange = 0;
+        for (int slot = from; slot < size && count < rows; slot++) {
+            if (isLive(slot) && match.test(slot)) {
+                count++;
+                idSum += ids[slot];
+                lastChange = Math.max(lastChange, readColumn(changes, slot));
+            }
+        }
+        return new ListVersion(count, idSum, lastChange);
+    }
+
+    protected ListVersion listVersion(int[] slots, int from, int count, int rows) {
+        final int end = (int) Math.min(count, (long) from + rows);
+        long idSum = 0, lastChange = 0;
+        for (int i = from; i < end; i++) {
+            idSum += ids[slots[i]];
+            lastChange = Math.max(lastChange, readColumn(changes, slots[i]));
+        }
+        return new ListVersion(Math.max(0, end - from), idSum, lastChange);
+    }
+
+    // first position in an index entry whose row id is greater than afterId
+    protected int firstAfter(int[] slots, int count, long afterId) {
+        int low = 0, high = count;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (ids[slots[mid]] <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    protected void onRollback(Runnable undo) {
+        UndoLog.register(this, undo);
+    }
+
+    // rollback of an insert other tables may reference, the row does not count for whileExisting until the commit
+    protected void onInsertRollback(long id, Runnable undo) {
+        final UndoLog log = UndoLog.register(this, undo);
+        if (log != null) {
+            uncommittedInserts.put(id, log);
+            log.onCompletion(() -> uncommittedInserts.remove(id));
+        }
+    }
+
+    void undoRegistered() {
+        pendingUndo.incrementAndGet();
+    }
+
+    void undoCompleted() {
+        pendingUndo.decrementAndGet();
+    }
+
+    private void compactIfSparse() {
+        if (tombstones < MIN_TOMBSTONES_TO_COMPACT || tombstones < size / 2 || pendingUndo.get() > 0) {
+            return;
+        }
+        int to = 0;
+        for (int from = 0; from < size; from++) {
+            if (isLive(from)) {
+                if (from != to) {
+                    ids[to] = ids[from];
+                    versions[to] = versions[from];
+                    changes[to] = changes[from];
+                    stamps[to] = stamps[from];
+                    moveRow(from, to);
+                }
+                to++;
+            }
+        }
+        clearRows(to, size);
+        size = to;
+        tombstones = 0;
+        rebuildIndexes();
+    }
+}
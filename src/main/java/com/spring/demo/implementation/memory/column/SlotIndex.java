@@ -0,0 +1,129 @@
+package com.spring.demo.implementation.memory.column;
+
+import java.util.Arrays;
+
+/**
+ * Secondary index from a long key (user id, project id) to the slots of its rows, kept in ascending slot order.
+ * <p>
+ * Open addressing with linear probing over primitive arrays, key 0 marks a free bucket since ids start at 1.
+ * Not thread-safe: reads need the owning table's read lock, changes its write lock.
+ */
+public final class SlotIndex {
+    private static final int[] NO_SLOTS = new int[0];
+
+    private long[] keys = new long[16];
+    private int[][] slots = new int[16][];
+    private int[] counts = new int[16];
+    private int size;
+
+    public int count(long key) {
+        final int bucket = find(key);
+        return keys[bucket] == key ? counts[bucket] : 0;
+    }
+
+    // backing array of the key, only its first count(key) entries are in use
+    public int[] slots(long key) {
+        final int bucket = find(key);
+        return keys[bucket] == key ? slots[bucket] : NO_SLOTS;
+    }
+
+    public void add(long key, int slot) {
+        int bucket = find(key);
+        if (keys[bucket] != key) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                rehash(keys.length * 2);
+                bucket = find(key);
+            }
+            keys[bucket] = key;
+            slots[bucket] = new int[4];
+            counts[bucket] = 0;
+            size++;
+        }
+        int[] entry = slots[bucket];
+        final int count = counts[bucket];
+        if (count == entry.length) {
+            entry = slots[bucket] = Arrays.copyOf(entry, count * 2);
+        }
+        // new rows get the highest slot, so this is an append unless a rolled back delete is put back
+        int position = count;
+        while (position > 0 && entry[position - 1] > slot) {
+            position--;
+        }
+        System.arraycopy(entry, position, entry, position + 1, count - position);
+        entry[position] = slot;
+        counts[bucket] = count + 1;
+    }
+
+    public void remove(long key, int slot) {
+        final int bucket = find(key);
+        if (keys[bucket] != key) {
+            return;
+        }
+        final int[] entry = slots[bucket];
+        final int count = counts[bucket];
+        final int position = Arrays.binarySearch(entry, 0, count, slot);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(entry, position + 1, entry, position, count - position - 1);
+        if (count == 1) {
+            delete(bucket);
+        } else {
+            counts[bucket] = count - 1;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(slots, null);
+        Arrays.fill(counts, 0);
+        size = 0;
+    }
+
+    private int find(long key) {
+        final int mask = keys.length - 1;
+        int bucket = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        while (keys[bucket] != 0 && keys[bucket] != key) {
+            bucket = (bucket + 1) & mask;
+        }
+        return bucket;
+    }
+
+    // backward shift deletion, keeps every probe sequence free of gaps
+    private void delete(int bucket) {
+        final int mask = keys.length - 1;
+        int gap = bucket;
+        int next = (gap + 1) & mask;
+        while (keys[next] != 0) {
+            final int home = Long.hashCode(keys[next] * 0x9E3779B97F4A7C15L) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                slots[gap] = slots[next];
+                counts[gap] = counts[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        slots[gap] = null;
+        counts[gap] = 0;
+        size--;
+    }
+
+    private void rehash(int capacity) {
+        final long[] oldKeys = keys;
+        final int[][] oldSlots = slots;
+        final int[] oldCounts = counts;
+        keys = new long[capacity];
+        slots = new int[capacity][];
+        counts = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                final int bucket = find(oldKeys[i]);
+                keys[bucket] = oldKeys[i];
+                slots[bucket] = oldSlots[i];
+                counts[bucket] = oldCounts[i];
+            }
+        }
+    }
+}
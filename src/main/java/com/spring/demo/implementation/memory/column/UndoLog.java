@@ -0,0 +1,77 @@
+package com.spring.demo.implementation.memory.column;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Undo actions of the writes made by one transaction, run newest first when it rolls back.
+ * Bound to the transaction as a resource, so any transaction manager with synchronization works.
+ * A failing action is logged and skipped, the older ones still run.
+ */
+@Slf4j
+final class UndoLog implements TransactionSynchronization {
+    private final List<ColumnTable> tables = new ArrayList<>();
+    private final List<Runnable> actions = new ArrayList<>();
+    // run once the transaction is over, after the undo actions of a rollback
+    private final List<Runnable> completions = new ArrayList<>();
+
+    // the log of the current transaction, null outside of one
+    static UndoLog register(ColumnTable table, Runnable undo) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        UndoLog log = (UndoLog) TransactionSynchronizationManager.getResource(UndoLog.class);
+        if (log == null) {
+            log = new UndoLog();
+            TransactionSynchronizationManager.bindResource(UndoLog.class, log);
+            TransactionSynchronizationManager.registerSynchronization(log);
+        }
+        table.undoRegistered();
+        log.tables.add(table);
+        log.actions.add(undo);
+        return log;
+    }
+
+    static UndoLog current() {
+        return TransactionSynchronizationManager.isSynchronizationActive()
+                ? (UndoLog) TransactionSynchronizationManager.getResource(UndoLog.class)
+                : null;
+    }
+
+    void onCompletion(Runnable completion) {
+        completions.add(completion);
+    }
+
+    @Override
+    public void suspend() {
+        TransactionSynchronizationManager.unbindResource(UndoLog.class);
+    }
+
+    @Override
+    public void resume() {
+        TransactionSynchronizationManager.bindResource(UndoLog.class, this);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(UndoLog.class);
+        try {
+            if (status != STATUS_COMMITTED) {
+                for (int i = actions.size() - 1; i >= 0; i--) {
+                    try {
+                        actions.get(i).run();
+                    } catch (RuntimeException e) {
+                        log.error("Undo action {} of a rolled back transaction failed, continuing with the rest", i, e);
+                    }
+                }
+            }
+        } finally {
+            completions.forEach(Runnable::run);
+            tables.forEach(ColumnTable::undoCompleted);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.spring.demo.implementation.memory.repository;
+
+import com.spring.demo.api.exception.BadRequestException;
+
+// the NOT NULL and length constraints of schema.sql, which the database enforces for the other profiles
+final class Columns {
+    static final int NAME_LENGTH = 45;
+    static final int DESCRIPTION_LENGTH = 160;
+
+    private Columns() {
+    }
+
+    static void require(String column, String value, int maxLength) {
+        if (value == null) {
+            throw new BadRequestException(column + " must not be null");
+        }
+        optional(column, value, maxLength);
+    }
+
+    static void optional(String column, String value, int maxLength) {
+        if (value != null && value.length() > maxLength) {
+            throw new BadRequestException(column + " must be at most " + maxLength + " characters");
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.spring.demo.implementation.memory.repository;
+
+import com.spring.demo.api.exception.BadRequestException;
+import com.spring.demo.api.request.ProjectAddRequest;
+import com.spring.demo.api.request.ProjectEditRequest;
+import com.spring.demo.domain.ListVersion;
+import com.spring.demo.domain.Project;
+import com.spring.demo.implementation.memory.column.ColumnTable;
+import com.spring.demo.implementation.memory.column.SlotIndex;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@Profile("memory")
+public class ProjectMemoryRepository extends ColumnTable {
+    private long[] userIds = new long[ids.length];
+    private String[] names = new String[ids.length];
+    private String[] descriptions = new String[ids.length];
+    private long[] createdAt = new long[ids.length];
+    private final SlotIndex byUser = new SlotIndex();
+    // the UNIQUE constraint on name, live rows only
+    private final Map<String, Integer> slotsByName = new HashMap<>();
+
+    public ProjectMemoryRepository() {
+        super("Project");
+    }
+
+    public Project getById(long id) {
+        return read(() -> readRow(requireSlot(id), this::toProject));
+    }
+
+    public List<Project> getAll() {
+        return read(() -> collect(0, Integer.MAX_VALUE, slot -> true, this::toProject));
+    }
+
+    public List<Project> getAllByUser(long userId) {
+        return read(() -> collect(byUser.slots(userId), 0, byUser.count(userId), Integer.MAX_VALUE, this::toProject));
+    }
+
+    public List<Project> getPage(long afterId, int limit) {
+        return read(() -> collect(firstSlotAfter(afterId), limit, slot -> true, this::toProject));
+    }
+
+    public long getVersion(long id) {
+        return read(() -> readVersion(requireSlot(id)));
+    }
+
+    public ListVersion getPageVersion(long afterId, int rows) {
+        return read(() -> listVersion(firstSlotAfter(afterId), rows, slot -> true));
+    }
+
+    public ListVersion getPageVersionByUser(long userId, long afterId, int rows) {
+        return read(() -> {
+            final int[] slots = byUser.slots(userId);
+            final int count = byUser.count(userId);
+            return listVersion(slots, firstAfter(slots, count, afterId), count, rows);
+        });
+    }
+
+    public long addProject(ProjectAddRequest request) {
+        Columns.require("name", request.getName(), Columns.NAME_LENGTH);
+        Columns.optional("description", request.getDescription(), Columns.DESCRIPTION_LENGTH);
+        final long now = System.currentTimeMillis();
+        return write(() -> {
+            requireUniqueName(request.getName(), -1);
+            final int slot = appendRow();
+            userIds[slot] = request.getUserId();
+            names[slot] = request.getName();
+            descriptions[slot] = intern(request.getDescription());
+            createdAt[slot] = now;
+            byUser.add(userIds[slot], slot);
+            slotsByName.put(names[slot], slot);
+            onInsertRollback(idOf(slot), () -> write(() -> {
+                if (isLive(slot)) {
+                    remove(slot);
+                }
+            }));
+            return idOf(slot);
+        });
+    }
+
+    // a rename moves the row in the unique name map, so edits take the write lock instead of the row's stripe
+    public void updateProject(long id, ProjectEditRequest request, Long expectedVersion) {
+        Columns.require("name", request.getName(), Columns.NAME_LENGTH);
+        Columns.optional("description", request.getDescription(), Columns.DESCRIPTION_LENGTH);
+        write(() -> {
+            final int slot = requireSlot(id);
+            requireVersion(slot, expectedVersion);
+            requireUniqueName(request.getName(), slot);
+            final String name = names[slot];
+            final String description = descriptions[slot];
+            final long version = versions[slot];
+            rename(slot, request.getName());
+            descriptions[slot] = intern(request.getDescription());
+            versions[slot]++;
+            touch(slot);
+            onRollback(() -> write(() -> {
+                if (!isLive(slot)) {
+                    return;
+                }
+                rename(slot, name);
+                descriptions[slot] = description;
+                versions[slot] = version;
+                touch(slot);
+            }));
+        });
+    }
+
+    // tasks of the project are removed by the service
+    public void deleteProject(long id) {
+        write(() -> {
+            final int slot = requireSlot(id);
+            final long version = versions[slot];
+            remove(slot);
+            onRollback(() -> write(() -> restore(slot, version)));
+        });
+    }
+
+    // ids of the user's projects, which are gone afterwards
+    public List<Long> deleteAllByUser(long userId) {
+        return write(() -> {
+            final int[] slots = Arrays.copyOf(byUser.slots(userId), byUser.count(userId));
+            final List<Long> deleted = new ArrayList<>(slots.length);
+            for (int slot : slots) {
+                final long version = versions[slot];
+                deleted.add(idOf(slot));
+                remove(slot);
+                onRollback(() -> write(() -> restore(slot, version)));
+            }
+            return deleted;
+        });
+    }
+
+    private void requireUniqueName(String name, int slot) {
+        final Integer existing = slotsByName.get(name);
+        if (existing != null && existing != slot) {
+            throw new BadRequestException("Project with name " + name + " already exists");
+        }
+    }
+
+    private void rename(int slot, String name) {
+        slotsByName.remove(names[slot]);
+        names[slot] = name;
+        slotsByName.put(name, slot);
+    }
+
+    private void remove(int slot) {
+        markDeleted(slot);
+        byUser.remove(userIds[slot], slot);
+        slotsByName.remove(names[slot]);
+    }
+
+    private void restore(int slot, long version) {
+        revive(slot, version);
+        byUser.add(userIds[slot], slot);
+        slotsByName.put(names[slot], slot);
+    }
+
+    private Project toProject(int slot) {
+        return new Project(ids[slot], userIds[slot], names[slot], descriptions[slot],
+                Instant.ofEpochMilli(createdAt[slot]).atOffset(ZoneOffset.UTC));
+    }
+
+    @Override
+    protected void resize(int capacity) {
+        userIds = Arrays.copyOf(userIds, capacity);
+        names = Arrays.copyOf(names, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+    }
+
+    @Override
+    protected void moveRow(int from, int to) {
+        userIds[to] = userIds[from];
+        names[to] = names[from];
+        descriptions[to] = descriptions[from];
+        createdAt[to] = createdAt[from];
+    }
+
+    @Override
+    protected void clearRows(int from, int to) {
+        Arrays.fill(names, from, to, null);
+        Arrays.fill(descriptions, from, to, null);
+    }
+
+    @Override
+    protected void rebuildIndexes() {
+        byUser.clear();
+        slotsByName.clear();
+        for (int slot = 0; slot < size; slot++) {
+            if (isLive(slot)) {
+                byUser.add(userIds[slot], slot);
+                slotsByName.put(names[slot], slot);
+            }
+        }
+    }
+}
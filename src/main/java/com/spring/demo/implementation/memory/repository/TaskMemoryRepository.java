@@ -0,0 +1,444 @@
+package com.spring.demo.implementation.memory.repository;
+
+import com.spring.demo.api.request.TaskAddRequest;
+import com.spring.demo.domain.ListVersion;
+import com.spring.demo.domain.ProjectStatusCount;
+import com.spring.demo.domain.Task;
+import com.spring.demo.domain.TaskStatus;
+import com.spring.demo.implementation.memory.column.ColumnTable;
+import com.spring.demo.implementation.memory.column.SlotIndex;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@Profile("memory")
+public class TaskMemoryRepository extends ColumnTable {
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final long NO_PROJECT = 0;
+
+    private long[] userIds = new long[ids.length];
+    private long[] projectIds = new long[ids.length];
+    private String[] names = new String[ids.length];
+    private String[] descriptions = new String[ids.length];
+    private int[] statuses = new int[ids.length];
+    private long[] createdAt = new long[ids.length];
+    private final SlotIndex byUser = new SlotIndex();
+    private final SlotIndex byProject = new SlotIndex();
+
+    public TaskMemoryRepository() {
+        super("Task");
+    }
+
+    // GET METHODS
+    public List<Task> getAll() {
+        return read(() -> collect(0, Integer.MAX_VALUE, slot -> true, this::toTask));
+    }
+
+    public Task getById(long id) {
+        return read(() -> readRow(requireSlot(id), this::toTask));
+    }
+
+    public List<Task> getAllByUserId(long userId) {
+        return read(() -> collect(byUser.slots(userId), 0, byUser.count(userId), Integer.MAX_VALUE, this::toTask));
+    }
+
+    public List<Task> getAllByProjectId(long projectId) {
+        return read(() -> collect(byProject.slots(projectId), 0, byProject.count(projectId), Integer.MAX_VALUE, this::toTask));
+    }
+
+    public List<Task> getPage(long afterId, int limit) {
+        return read(() -> collect(firstSlotAfter(afterId), limit, slot -> true, this::toTask));
+    }
+
+    public List<Task> getPageByUserId(long userId, long afterId, int limit) {
+        return read(() -> page(byUser, userId, afterId, limit));
+    }
+
+    public List<Task> getPageByProjectId(long projectId, long afterId, int limit) {
+        return read(() -> page(byProject, projectId, afterId, limit));
+    }
+
+    // a scan of the status column from afterId on, no row is materialized unless it matches
+    public List<Task> getPageByStatus(TaskStatus status, long afterId, int limit) {
+        final int ordinal = status.ordinal();
+        return read(() -> collect(firstSlotAfter(afterId), limit, slot -> statuses[slot] == ordinal, this::toTask));
+    }
+
+    public List<Task> getAllByIds(List<Long> taskIds) {
+        return read(() -> {
+            final List<Task> tasks = new ArrayList<>(taskIds.size());
+            for (long id : taskIds) {
+                final int slot = slotOf(id);
+                if (slot >= 0) {
+                    tasks.add(readRow(slot, this::toTask));
+                }
+            }
+            return tasks;
+        });
+    }
+
+    public List<Task> getAllByIdsAndStatus(List<Long> taskIds, TaskStatus status) {
+        final List<Task> tasks = new ArrayList<>(getAllByIds(taskIds.stream().sorted().toList()));
+        tasks.removeIf(task -> task.getStatus() != status);
+        return tasks;
+    }
+
+    public List<Long> getIdsByStatus(TaskStatus status) {
+        final int ordinal = status.ordinal();
+        return read(() -> {
+            final List<Long> matching = new ArrayList<>();
+            for (int slot = 0; slot < size; slot++) {
+                if (isLive(slot) && statuses[slot] == ordinal) {
+                    matching.add(idOf(slot));
+                }
+            }
+            return matching;
+        });
+    }
+
+    public long getVersion(long id) {
+        return read(() -> readVersion(requireSlot(id)));
+    }
+
+    public ListVersion getPageVersion(long afterId, int rows) {
+        return read(() -> listVersion(firstSlotAfter(afterId), rows, slot -> true));
+    }
+
+    public ListVersion getPageVersionByUserId(long userId, long afterId, int rows) {
+        return read(() -> pageVersion(byUser, userId, afterId, rows));
+    }
+
+    public ListVersion getPageVersionByProjectId(long projectId, long afterId, int rows) {
+        return read(() -> pageVersion(byProject, projectId, afterId, rows));
+    }
+
+    public ListVersion getPageVersionByStatus(TaskStatus status, long afterId, int rows) {
+        final int ordinal = status.ordinal();
+        return read(() -> listVersion(firstSlotAfter(afterId), rows, slot -> statuses[slot] == ordinal));
+    }
+
+    public List<ProjectStatusCount> countByProjectAndStatus() {
+        return read(() -> {
+            final Map<Long, long[]> counts = new HashMap<>();
+            for (int slot = 0; slot < size; slot++) {
+                if (isLive(slot) && projectIds[slot] != NO_PROJECT) {
+                    counts.computeIfAbsent(projectIds[slot], projectId -> new long[STATUSES.length])[statuses[slot]]++;
+                }
+            }
+            final List<ProjectStatusCount> rows = new ArrayList<>();
+            counts.forEach((projectId, byStatus) -> {
+                for (int status = 0; status < byStatus.length; status++) {
+                    if (byStatus[status] > 0) {
+                        rows.add(new ProjectStatusCount(projectId, STATUSES[status], byStatus[status]));
+                    }
+                }
+            });
+            return rows;
+        });
+    }
+
+    //ADD METHODS
+
+    public Task add(TaskAddRequest request) {
+        return add(request, TaskStatus.NEW);
+    }
+
+    public Task add(TaskAddRequest request, TaskStatus status) {
+        requireColumns(request);
+        final long now = System.currentTimeMillis();
+        return write(() -> toTask(insert(request, status, now)));
+    }
+
+    // one write lock for the whole batch, readers never see part of it
+    public List<Task> addAll(List<TaskAddRequest> requests) {
+        requests.forEach(TaskMemoryRepository::requireColumns);
+        final long now = System.currentTimeMillis();
+        return write(() -> {
+            final List<Task> tasks = new ArrayList<>(requests.size());
+            for (TaskAddRequest request : requests) {
+                tasks.add(toTask(insert(request, TaskStatus.NEW, now)));
+            }
+            return tasks;
+        });
+    }
+
+    // the update methods hand back the task as it was before the change
+    public Task update(long id, String name, String description, TaskStatus status, Long expectedVersion) {
+        Columns.require("name", name, Columns.NAME_LENGTH);
+        Columns.optional("description", description, Columns.DESCRIPTION_LENGTH);
+        return updateRow(id, expectedVersion, slot -> {
+            final Task before = toTask(slot);
+            final long version = versions[slot];
+            names[slot] = intern(name);
+            descriptions[slot] = intern(description);
+            statuses[slot] = status.ordinal();
+            onRollback(() -> restoreRow(id, version, row -> {
+                names[row] = before.getName();
+                descriptions[row] = before.getDescription();
+                statuses[row] = before.getStatus().ordinal();
+            }));
+            return before;
+        });
+    }
+
+    public Task updateStatus(long id, TaskStatus status, Long expectedVersion) {
+        return updateRow(id, expectedVersion, slot -> {
+            final Task before = toTask(slot);
+            final long version = versions[slot];
+            statuses[slot] = status.ordinal();
+            onRollback(() -> restoreRow(id, version, row -> statuses[row] = before.getStatus().ordinal()));
+            return before;
+        });
+    }
+
+    // moves the row between project index entries, so this one takes the write lock
+    public Task updateProject(long id, long projectId, Long expectedVersion) {
+        return write(() -> {
+            final int slot = requireSlot(id);
+            requireVersion(slot, expectedVersion);
+            final Task before = toTask(slot);
+            final long version = versions[slot];
+            moveToProject(slot, projectId);
+            versions[slot]++;
+            touch(slot);
+            onRollback(() -> write(() -> {
+                if (!isLive(slot)) {
+                    return;
+                }
+                moveToProject(slot, before.getProjectId() != null ? before.getProjectId() : NO_PROJECT);
+                versions[slot] = version;
+                touch(slot);
+            }));
+            return before;
+        });
+    }
+
+    // set-based writes under one write lock, they hand back the changed tasks as they were before
+    public List<Task> updateStatusByProjectId(long projectId, TaskStatus status) {
+        return write(() -> updateStatus(byProject, projectId, status));
+    }
+
+    public List<Task> updateStatusByUserId(long userId, TaskStatus status) {
+        return write(() -> updateStatus(byUser, userId, status));
+    }
+
+    // only the rows of ownerId move, the same-owner rule of a single assignment
+    public List<Task> updateProjectByProjectId(long fromProjectId, long toProjectId, long ownerId) {
+        return write(() -> {
+            final int[] slots = Arrays.copyOf(byProject.slots(fromProjectId), byProject.count(fromProjectId));
+            final List<Task> changed = new ArrayList<>();
+            final int[] moved = new int[slots.length];
+            final long[] movedVersions = new long[slots.length];
+            for (int slot : slots) {
+                if (userIds[slot] == ownerId) {
+                    changed.add(toTask(slot));
+                    moved[changed.size() - 1] = slot;
+                    movedVersions[changed.size() - 1] = versions[slot];
+                    moveToProject(slot, toProjectId);
+                    versions[slot]++;
+                    touch(slot);
+                }
+            }
+            final int count = changed.size();
+            if (count > 0) {
+                onRollback(() -> write(() -> {
+                    for (int i = 0; i < count; i++) {
+                        if (!isLive(moved[i])) {
+                            continue;
+                        }
+                        moveToProject(moved[i], fromProjectId);
+                        versions[moved[i]] = movedVersions[i];
+                        touch(moved[i]);
+                    }
+                }));
+            }
+            return changed;
+        });
+    }
+
+    public Task delete(long id, Long expectedVersion) {
+        return write(() -> {
+            final int slot = requireSlot(id);
+            requireVersion(slot, expectedVersion);
+            return delete(slot);
+        });
+    }
+
+    public List<Task> deleteAllByUser(long userId) {
+        return write(() -> deleteAll(byUser, userId));
+    }
+
+    public List<Task> deleteAllByProject(long projectId) {
+        return write(() -> deleteAll(byProject, projectId));
+    }
+
+    private static void requireColumns(TaskAddRequest request) {
+        Columns.require("name", request.getName(), Columns.NAME_LENGTH);
+        Columns.optional("description", request.getDescription(), Columns.DESCRIPTION_LENGTH);
+    }
+
+    private List<Task> page(SlotIndex index, long key, long afterId, int limit) {
+        final int[] slots = index.slots(key);
+        final int count = index.count(key);
+        return collect(slots, firstAfter(slots, count, afterId), count, limit, this::toTask);
+    }
+
+    private ListVersion pageVersion(SlotIndex index, long key, long afterId, int rows) {
+        final int[] slots = index.slots(key);
+        final int count = index.count(key);
+        return listVersion(slots, firstAfter(slots, count, afterId), count, rows);
+    }
+
+    private List<Task> updateStatus(SlotIndex index, long key, TaskStatus status) {
+        final int ordinal = status.ordinal();
+        final int[] slots = index.slots(key);
+        final int rows = index.count(key);
+        final List<Task> changed = new ArrayList<>();
+        final int[] updated = new int[rows];
+        final long[] updatedVersions = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            final int slot = slots[i];
+            if (statuses[slot] != ordinal) {
+                changed.add(toTask(slot));
+                updated[changed.size() - 1] = slot;
+                updatedVersions[changed.size() - 1] = versions[slot];
+                statuses[slot] = ordinal;
+                versions[slot]++;
+                touch(slot);
+            }
+        }
+        final int count = changed.size();
+        if (count > 0) {
+            onRollback(() -> write(() -> {
+                for (int i = 0; i < count; i++) {
+                    if (!isLive(updated[i])) {
+                        continue;
+                    }
+                    statuses[updated[i]] = changed.get(i).getStatus().ordinal();
+                    versions[updated[i]] = updatedVersions[i];
+                    touch(updated[i]);
+                }
+            }));
+        }
+        return changed;
+    }
+
+    private int insert(TaskAddRequest request, TaskStatus status, long now) {
+        final int slot = appendRow();
+        userIds[slot] = request.getUserId();
+        projectIds[slot] = request.getProjectId() != null && request.getProjectId() > 0 ? request.getProjectId() : NO_PROJECT;
+        names[slot] = intern(request.getName());
+        descriptions[slot] = intern(request.getDescription());
+        statuses[slot] = status.ordinal();
+        createdAt[slot] = now;
+        addToIndexes(slot);
+        onRollback(() -> write(() -> {
+            if (isLive(slot)) {
+                remove(slot);
+            }
+        }));
+        return slot;
+    }
+
+    private Task delete(int slot) {
+        final Task before = toTask(slot);
+        final long version = versions[slot];
+        remove(slot);
+        onRollback(() -> write(() -> {
+            revive(slot, version);
+            addToIndexes(slot);
+        }));
+        return before;
+    }
+
+    private List<Task> deleteAll(SlotIndex index, long key) {
+        final int[] slots = Arrays.copyOf(index.slots(key), index.count(key));
+        final List<Task> deleted = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            deleted.add(delete(slot));
+        }
+        return deleted;
+    }
+
+    private void remove(int slot) {
+        markDeleted(slot);
+        byUser.remove(userIds[slot], slot);
+        if (projectIds[slot] != NO_PROJECT) {
+            byProject.remove(projectIds[slot], slot);
+        }
+    }
+
+    private void addToIndexes(int slot) {
+        byUser.add(userIds[slot], slot);
+        if (projectIds[slot] != NO_PROJECT) {
+            byProject.add(projectIds[slot], slot);
+        }
+    }
+
+    private void moveToProject(int slot, long projectId) {
+        if (projectIds[slot] != NO_PROJECT) {
+            byProject.remove(projectIds[slot], slot);
+        }
+        projectIds[slot] = projectId;
+        if (projectId != NO_PROJECT) {
+            byProject.add(projectId, slot);
+        }
+    }
+
+    private Task toTask(int slot) {
+        return new Task(
+                ids[slot],
+                userIds[slot],
+                projectIds[slot] != NO_PROJECT ? projectIds[slot] : null,
+                names[slot],
+                descriptions[slot],
+                STATUSES[statuses[slot]],
+                Instant.ofEpochMilli(createdAt[slot]).atOffset(ZoneOffset.UTC)
+        );
+    }
+
+    @Override
+    protected void resize(int capacity) {
+        userIds = Arrays.copyOf(userIds, capacity);
+        projectIds = Arrays.copyOf(projectIds, capacity);
+        names = Arrays.copyOf(names, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+    }
+
+    @Override
+    protected void moveRow(int from, int to) {
+        userIds[to] = userIds[from];
+        projectIds[to] = projectIds[from];
+        names[to] = names[from];
+        descriptions[to] = descriptions[from];
+        statuses[to] = statuses[from];
+        createdAt[to] = createdAt[from];
+    }
+
+    @Override
+    protected void clearRows(int from, int to) {
+        Arrays.fill(names, from, to, null);
+        Arrays.fill(descriptions, from, to, null);
+    }
+
+    @Override
+    protected void rebuildIndexes() {
+        byUser.clear();
+        byProject.clear();
+        for (int slot = 0; slot < size; slot++) {
+            if (isLive(slot)) {
+                addToIndexes(slot);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.spring.demo.implementation.memory.repository;
+
+import com.spring.demo.api.exception.BadRequestException;
+import com.spring.demo.api.request.UserAddRequest;
+import com.spring.demo.domain.ListVersion;
+import com.spring.demo.domain.User;
+import com.spring.demo.implementation.memory.column.ColumnTable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@Profile("memory")
+public class UserMemoryRepository extends ColumnTable {
+    private String[] names = new String[ids.length];
+    private String[] emails = new String[ids.length];
+    // the UNIQUE constraint on email, live rows only
+    private final Map<String, Integer> slotsByEmail = new HashMap<>();
+
+    public UserMemoryRepository() {
+        super("User");
+    }
+
+    public User getById(long id) {
+        return read(() -> readRow(requireSlot(id), this::toUser));
+    }
+
+    public List<User> getAll() {
+        return read(() -> collect(0, Integer.MAX_VALUE, slot -> true, this::toUser));
+    }
+
+    public List<User> getPage(long afterId, int limit) {
+        return read(() -> collect(firstSlotAfter(afterId), limit, slot -> true, this::toUser));
+    }
+
+    public long getVersion(long id) {
+        return read(() -> readVersion(requireSlot(id)));
+    }
+
+    public ListVersion getPageVersion(long afterId, int rows) {
+        return read(() -> listVersion(firstSlotAfter(afterId), rows, slot -> true));
+    }
+
+    public long add(UserAddRequest request) {
+        Columns.require("name", request.getName(), Columns.NAME_LENGTH);
+        Columns.require("email", request.getEmail(), Columns.NAME_LENGTH);
+        return write(() -> {
+            if (slotsByEmail.containsKey(request.getEmail())) {
+                throw new BadRequestException("User with email " + request.getEmail() + " already exists");
+            }
+            final int slot = appendRow();
+            names[slot] = request.getName();
+            emails[slot] = request.getEmail();
+            slotsByEmail.put(request.getEmail(), slot);
+            onInsertRollback(idOf(slot), () -> write(() -> {
+                if (isLive(slot)) {
+                    remove(slot);
+                }
+            }));
+            return idOf(slot);
+        });
+    }
+
+    // the user's projects and tasks are removed by the service, there are no foreign keys to cascade
+    public void delete(long id) {
+        write(() -> {
+            final int slot = requireSlot(id);
+            final long version = versions[slot];
+            remove(slot);
+            onRollback(() -> write(() -> {
+                revive(slot, version);
+                slotsByEmail.put(emails[slot], slot);
+            }));
+        });
+    }
+
+    private void remove(int slot) {
+        markDeleted(slot);
+        slotsByEmail.remove(emails[slot]);
+    }
+
+    private User toUser(int slot) {
+        return new User(ids[slot], names[slot], emails[slot]);
+    }
+
+    @Override
+    protected void resize(int capacity) {
+        names = Arrays.copyOf(names, capacity);
+        emails = Arrays.copyOf(emails, capacity);
+    }
+
+    @Override
+    protected void moveRow(int from, int to) {
+        names[to] = names[from];
+        emails[to] = emails[from];
+    }
+
+    @Override
+    protected void clearRows(int from, int to) {
+        Arrays.fill(names, from, to, null);
+        Arrays.fill(emails, from, to, null);
+    }
+
+    @Override
+    protected void rebuildIndexes() {
+        slotsByEmail.clear();
+        for (int slot = 0; slot < size; slot++) {
+            if (isLive(slot)) {
+                slotsByEmail.put(emails[slot], slot);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.spring.demo.implementation.memory.service;
+
+import com.spring.demo.api.ProjectService;
+import com.spring.demo.api.UserService;
+import com.spring.demo.api.event.TasksChangedEvent;
+import com.spring.demo.api.request.ProjectAddRequest;
+import com.spring.demo.api.request.ProjectEditRequest;
+import com.spring.demo.domain.CursorPage;
+import com.spring.demo.domain.ListVersion;
+import com.spring.demo.domain.Project;
+import com.spring.demo.implementation.memory.repository.ProjectMemoryRepository;
+import com.spring.demo.implementation.memory.repository.TaskMemoryRepository;
+import com.spring.demo.implementation.memory.repository.UserMemoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@Profile("memory")
+@RequiredArgsConstructor
+public class ProjectServiceMemoryImpl implements ProjectService {
+    private final ProjectMemoryRepository repository;
+    private final TaskMemoryRepository taskRepository;
+    private final UserMemoryRepository userRepository;
+    private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Cacheable(cacheNames = "projects", key = "#id")
+    public Project get(long id) {
+        return repository.getById(id);
+    }
+
+    @Override
+    public List<Project> getAll() {
+        return repository.getAll();
+    }
+
+    @Override
+    public List<Project> getAllByUser(long userId) {
+        userService.get(userId);
+        return repository.getAllByUser(userId);
+    }
+
+    @Override
+    public CursorPage<Project> getPage(long afterId, int limit) {
+        return CursorPage.of(repository.getPage(afterId, limit + 1), limit, Project::getId);
+    }
+
+    @Override
+    public long getVersion(long id) {
+        return repository.getVersion(id);
+    }
+
+    @Override
+    public ListVersion getAllVersionByUser(long userId) {
+        userService.get(userId);
+        return repository.getPageVersionByUser(userId, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public ListVersion getPageVersion(long afterId, int limit) {
+        return repository.getPageVersion(afterId, limit + 1);
+    }
+
+    // the project goes first, no task can be added to it afterwards and the task delete finds them all
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = "projects", key = "#id")
+    public void delete(long id) {
+        repository.deleteProject(id);
+        taskRepository.deleteAllByProject(id);
+        eventPublisher.publishEvent(TasksChangedEvent.projectDeleted(id));
+    }
+
+    @Override
+    @CacheEvict(cacheNames = "projects", key = "#result")
+    public long add(ProjectAddRequest request) {
+        // the user cannot be deleted until the project is in, and the delete then takes it along
+        return userRepository.whileExisting(List.of(request.getUserId()), () -> repository.addProject(request));
+    }
+
+    @Override
+    @CacheEvict(cacheNames = "projects", key = "#id")
+    public void edit(long id, ProjectEditRequest request) {
+        edit(id, request, null);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = "projects", key = "#id")
+    public void edit(long id, ProjectEditRequest request, Long expectedVersion) {
+        repository.updateProject(id, request, expectedVersion);
+    }
+}
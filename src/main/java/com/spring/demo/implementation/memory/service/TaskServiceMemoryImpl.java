@@ -0,0 +1,284 @@
+package com.spring.demo.implementation.memory.service;
+
+import com.spring.demo.api.ProjectService;
+import com.spring.demo.api.TaskService;
+import com.spring.demo.api.UserService;
+import com.spring.demo.api.event.TaskChangedEvent;
+import com.spring.demo.api.exception.BadRequestException;
+import com.spring.demo.api.request.TaskAddRequest;
+import com.spring.demo.api.request.TaskEditRequest;
+import com.spring.demo.domain.CursorPage;
+import com.spring.demo.domain.ListVersion;
+import com.spring.demo.domain.Project;
+import com.spring.demo.domain.ProjectStatusCount;
+import com.spring.demo.domain.Task;
+import com.spring.demo.domain.TaskStatus;
+import com.spring.demo.implementation.index.TaskSearchIndex;
+import com.spring.demo.implementation.index.TaskStatusIndex;
+import com.spring.demo.implementation.memory.repository.ProjectMemoryRepository;
+import com.spring.demo.implementation.memory.repository.TaskMemoryRepository;
+import com.spring.demo.implementation.memory.repository.UserMemoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+@Service
+@Profile("memory")
+@RequiredArgsConstructor
+public class TaskServiceMemoryImpl implements TaskService {
+    private final TaskMemoryRepository repository;
+    private final UserMemoryRepository userRepository;
+    private final ProjectMemoryRepository projectRepository;
+    private final UserService userService;
+    private final ProjectService projectService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskStatusIndex statusIndex;
+    private final TaskSearchIndex searchIndex;
+
+    // no foreign keys here, the referenced user and project are held in place while the task goes in
+    @Override
+    public long add(TaskAddRequest request) {
+        final Task task = withReferences(List.of(request), () -> repository.add(request));
+        eventPublisher.publishEvent(TaskChangedEvent.added(task));
+        return task.getId();
+    }
+
+    @Override
+    @Transactional
+    public List<Long> addAll(List<TaskAddRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        final List<Task> tasks = withReferences(requests, () -> repository.addAll(requests));
+        tasks.forEach(task -> eventPublisher.publishEvent(TaskChangedEvent.added(task)));
+        return tasks.stream()
+                .map(Task::getId)
+                .toList();
+    }
+
+    @Override
+    public void edit(long id, TaskEditRequest request) {
+        edit(id, request, null);
+    }
+
+    @Override
+    public void changeStatus(long id, TaskStatus status) {
+        changeStatus(id, status, null);
+    }
+
+    @Override
+    public void assignProject(long taskId, long projectId) {
+        assignProject(taskId, projectId, null);
+    }
+
+    @Override
+    public void delete(long id) {
+        delete(id, null);
+    }
+
+    @Override
+    public void edit(long id, TaskEditRequest request, Long expectedVersion) {
+        final TaskStatus status = parseStatus(request.getStatus());
+        final Task before = repository.update(id, request.getName(), request.getDescription(), status, expectedVersion);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(before, before
+                .withName(request.getName())
+                .withDescription(request.getDescription())
+                .withStatus(status)));
+    }
+
+    @Override
+    public void changeStatus(long id, TaskStatus status, Long expectedVersion) {
+        final Task before = repository.updateStatus(id, status, expectedVersion);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(before, before.withStatus(status)));
+    }
+
+    @Override
+    public void assignProject(long taskId, long projectId, Long expectedVersion) {
+        final Task task = repository.getById(taskId);
+        final Project project = projectService.get(projectId);
+        if (task.getUserId() != project.getUserId()) {
+            throw new BadRequestException("Task user and project user must be the same");
+        }
+        final Task before = projectRepository.whileExisting(List.of(projectId),
+                () -> repository.updateProject(taskId, projectId, expectedVersion));
+        eventPublisher.publishEvent(TaskChangedEvent.updated(before, before.withProjectId(projectId)));
+    }
+
+    @Override
+    public void delete(long id, Long expectedVersion) {
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(repository.delete(id, expectedVersion)));
+    }
+
+    @Override
+    @Transactional
+    public int changeStatusByProjectId(long projectId, TaskStatus status) {
+        projectService.get(projectId);
+        return publishUpdated(repository.updateStatusByProjectId(projectId, status), before -> before.withStatus(status));
+    }
+
+    @Override
+    @Transactional
+    public int changeStatusByUserId(long userId, TaskStatus status) {
+        userService.get(userId);
+        return publishUpdated(repository.updateStatusByUserId(userId, status), before -> before.withStatus(status));
+    }
+
+    @Override
+    @Transactional
+    public int assignProjectByProjectId(long fromProjectId, long toProjectId) {
+        projectService.get(fromProjectId);
+        final Project target = projectService.get(toProjectId);
+        if (fromProjectId == toProjectId) {
+            return 0;
+        }
+        return publishUpdated(projectRepository.whileExisting(List.of(toProjectId),
+                () -> repository.updateProjectByProjectId(fromProjectId, toProjectId, target.getUserId())),
+                before -> before.withProjectId(toProjectId));
+    }
+
+    @Override
+    public Task get(long id) {
+        return repository.getById(id);
+    }
+
+    @Override
+    public List<Task> getAll() {
+        return repository.getAll();
+    }
+
+    @Override
+    public List<Task> getAllByUserId(long userId) {
+        userService.get(userId);
+        return repository.getAllByUserId(userId);
+    }
+
+    @Override
+    public List<Task> getAllByProjectId(long projectId) {
+        projectService.get(projectId);
+        return repository.getAllByProjectId(projectId);
+    }
+
+    @Override
+    public CursorPage<Task> getPage(long afterId, int limit) {
+        return CursorPage.of(repository.getPage(afterId, limit + 1), limit, Task::getId);
+    }
+
+    @Override
+    public CursorPage<Task> getPageByUserId(long userId, long afterId, int limit) {
+        userService.get(userId);
+        return CursorPage.of(repository.getPageByUserId(userId, afterId, limit + 1), limit, Task::getId);
+    }
+
+    @Override
+    public CursorPage<Task> getPageByProjectId(long projectId, long afterId, int limit) {
+        projectService.get(projectId);
+        return CursorPage.of(repository.getPageByProjectId(projectId, afterId, limit + 1), limit, Task::getId);
+    }
+
+    @Override
+    public CursorPage<Task> getPageByStatus(TaskStatus status, long afterId, int limit) {
+        return statusIndex.getPage(status, afterId, limit, ids -> repository.getAllByIdsAndStatus(ids, status))
+                .orElseGet(() -> CursorPage.of(repository.getPageByStatus(status, afterId, limit + 1), limit, Task::getId));
+    }
+
+    @Override
+    public List<Long> getIdsByStatus(TaskStatus status) {
+        return repository.getIdsByStatus(status);
+    }
+
+    // there is no cursor to hold open, pages of fetchSize rows are copied out one read lock at a time
+    @Override
+    public void streamAll(int fetchSize, Consumer<Task> consumer) {
+        List<Task> page = repository.getPage(0, fetchSize);
+        while (!page.isEmpty()) {
+            page.forEach(consumer);
+            page = page.size() < fetchSize ? List.of() : repository.getPage(page.getLast().getId(), fetchSize);
+        }
+    }
+
+    @Override
+    public CursorPage<Task> search(String query, Long userId, int offset, int limit) {
+        return searchIndex.search(query, userId, offset, limit, repository::getAllByIds);
+    }
+
+    // list versions cover the extra row a page is fetched with, so they also change when a next page appears
+    @Override
+    public long getVersion(long id) {
+        return repository.getVersion(id);
+    }
+
+    @Override
+    public ListVersion getAllVersionByUserId(long userId) {
+        return getPageVersionByUserId(userId, 0, Integer.MAX_VALUE - 1);
+    }
+
+    @Override
+    public ListVersion getAllVersionByProjectId(long projectId) {
+        return getPageVersionByProjectId(projectId, 0, Integer.MAX_VALUE - 1);
+    }
+
+    @Override
+    public ListVersion getPageVersion(long afterId, int limit) {
+        return repository.getPageVersion(afterId, limit + 1);
+    }
+
+    @Override
+    public ListVersion getPageVersionByUserId(long userId, long afterId, int limit) {
+        userService.get(userId);
+        return repository.getPageVersionByUserId(userId, afterId, limit + 1);
+    }
+
+    @Override
+    public ListVersion getPageVersionByProjectId(long projectId, long afterId, int limit) {
+        projectService.get(projectId);
+        return repository.getPageVersionByProjectId(projectId, afterId, limit + 1);
+    }
+
+    @Override
+    public ListVersion getPageVersionByStatus(TaskStatus status, long afterId, int limit) {
+        return repository.getPageVersionByStatus(status, afterId, limit + 1);
+    }
+
+    @Override
+    public List<ProjectStatusCount> countByProjectAndStatus() {
+        return repository.countByProjectAndStatus();
+    }
+
+    private int publishUpdated(List<Task> before, UnaryOperator<Task> change) {
+        before.forEach(task -> eventPublisher.publishEvent(TaskChangedEvent.updated(task, change.apply(task))));
+        return before.size();
+    }
+
+    // one lock per table for all of the requests, taken user, project, task like every path that nests them
+    private <T> T withReferences(List<TaskAddRequest> requests, Supplier<T> insert) {
+        final Set<Long> userIds = new TreeSet<>();
+        final Set<Long> projectIds = new TreeSet<>();
+        for (TaskAddRequest request : requests) {
+            userIds.add(request.getUserId());
+            if (request.getProjectId() != null && request.getProjectId() > 0) {
+                projectIds.add(request.getProjectId());
+            }
+        }
+        return userRepository.whileExisting(userIds, () -> projectRepository.whileExisting(projectIds, insert));
+    }
+
+    private static TaskStatus parseStatus(String status) {
+        if (status == null) {
+            throw new BadRequestException("status must not be null");
+        }
+        try {
+            return TaskStatus.fromString(status);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.spring.demo.implementation.memory.service;
+
+import com.spring.demo.api.UserService;
+import com.spring.demo.api.event.TasksChangedEvent;
+import com.spring.demo.api.request.UserAddRequest;
+import com.spring.demo.domain.CursorPage;
+import com.spring.demo.domain.ListVersion;
+import com.spring.demo.domain.User;
+import com.spring.demo.implementation.memory.repository.ProjectMemoryRepository;
+import com.spring.demo.implementation.memory.repository.TaskMemoryRepository;
+import com.spring.demo.implementation.memory.repository.UserMemoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@Profile("memory")
+@RequiredArgsConstructor
+public class UserServiceMemoryImpl implements UserService {
+    private final UserMemoryRepository repository;
+    private final ProjectMemoryRepository projectRepository;
+    private final TaskMemoryRepository taskRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @CacheEvict(cacheNames = "users", key = "#result")
+    public long add(UserAddRequest request) {
+        return repository.add(request);
+    }
+
+    // what ON DELETE CASCADE does for the other profiles, undone as a whole if any step fails
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "users", key = "#id"),
+            @CacheEvict(cacheNames = "projects", allEntries = true)
+    })
+    public void delete(long id) {
+        repository.delete(id);
+        for (long projectId : projectRepository.deleteAllByUser(id)) {
+            // tasks of other users in these projects go with them, as they would through project_id
+            taskRepository.deleteAllByProject(projectId);
+            eventPublisher.publishEvent(TasksChangedEvent.projectDeleted(projectId));
+        }
+        taskRepository.deleteAllByUser(id);
+        eventPublisher.publishEvent(TasksChangedEvent.userDeleted(id));
+    }
+
+    @Override
+    @Cacheable(cacheNames = "users", key = "#id")
+    public User get(long id) {
+        return repository.getById(id);
+    }
+
+    @Override
+    public List<User> getAll() {
+        return repository.getAll();
+    }
+
+    @Override
+    public CursorPage<User> getPage(long afterId, int limit) {
+        return CursorPage.of(repository.getPage(afterId, limit + 1), limit, User::getId);
+    }
+
+    @Override
+    public long getVersion(long id) {
+        return repository.getVersion(id);
+    }
+
+    @Override
+    public ListVersion getPageVersion(long afterId, int limit) {
+        return repository.getPageVersion(afterId, limit + 1);
+    }
+}
@@ -0,0 +1,131 @@
+package com.spring.demo.implementation.stats;
+
+import com.spring.demo.api.ProjectService;
+import com.spring.demo.api.ProjectStatsService;
+import com.spring.demo.api.TaskService;
+import com.spring.demo.api.event.TaskChangedEvent;
+import com.spring.demo.api.event.TasksChangedEvent;
+import com.spring.demo.domain.ProjectStatusCount;
+import com.spring.demo.domain.ProjectStats;
+import com.spring.demo.domain.Task;
+import com.spring.demo.domain.TaskBulkChange;
+import com.spring.demo.domain.TaskStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-project task counters, moved by {@link TaskChangedEvent}s instead of counting rows on every request.
+ * <p>
+ * A {@link TasksChangedEvent} over a whole project is applied to its counters, one that only touches some tasks of
+ * a project (those of a user) recounts from the database. Changes that bypass the services (direct SQL) and events
+ * racing with a reconciliation can leave the counters off; the scheduled reconciliation recounts them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProjectStatsServiceImpl implements ProjectStatsService {
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final TaskService taskService;
+    private final ProjectService projectService;
+    private final Map<Long, AtomicLongArray> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public ProjectStats get(long projectId) {
+        projectService.get(projectId);
+        final AtomicLongArray projectCounters = counters.get(projectId);
+        final Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        long total = 0;
+        for (TaskStatus status : STATUSES) {
+            final long count = projectCounters != null ? projectCounters.get(status.ordinal()) : 0;
+            counts.put(status, count);
+            total += count;
+        }
+        return new ProjectStats(projectId, counts, total);
+    }
+
+    // fallbackExecution: the jdbc services mostly publish outside of a transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        move(event.getBefore(), -1);
+        move(event.getAfter(), 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTasksChanged(TasksChangedEvent event) {
+        final TaskBulkChange change = event.getChange();
+        if (change.getUserId() != null) {
+            reconcile();
+            return;
+        }
+        switch (event.getType()) {
+            case TASKS_DELETED -> counters.remove(change.getProjectId());
+            case TASKS_STATUS_CHANGED -> {
+                final AtomicLongArray projectCounters = counters.get(change.getProjectId());
+                if (projectCounters != null) {
+                    // every task of the project has the new status now
+                    for (TaskStatus status : STATUSES) {
+                        if (status != change.getStatus()) {
+                            projectCounters.addAndGet(change.getStatus().ordinal(), projectCounters.getAndSet(status.ordinal(), 0));
+                        }
+                    }
+                }
+            }
+            default -> reconcile();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${project.stats.reconcile-interval:PT5M}", initialDelayString = "${project.stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        final Map<Long, long[]> actual = new HashMap<>();
+        for (ProjectStatusCount row : taskService.countByProjectAndStatus()) {
+            actual.computeIfAbsent(row.getProjectId(), id -> new long[STATUSES.length])[row.getStatus().ordinal()] = row.getCount();
+        }
+        int corrected = 0;
+        for (Map.Entry<Long, long[]> entry : actual.entrySet()) {
+            final AtomicLongArray current = counters.get(entry.getKey());
+            if (current == null || !Arrays.equals(snapshot(current), entry.getValue())) {
+                counters.put(entry.getKey(), new AtomicLongArray(entry.getValue()));
+                corrected++;
+            }
+        }
+        for (Long projectId : counters.keySet()) {
+            if (!actual.containsKey(projectId)) {
+                counters.remove(projectId);
+                corrected++;
+            }
+        }
+        if (corrected > 0) {
+            log.info("Reconciled task counters of {} projects", corrected);
+        }
+    }
+
+    private void move(Task task, int delta) {
+        if (task == null || task.getProjectId() == null) {
+            return;
+        }
+        counters.computeIfAbsent(task.getProjectId(), id -> new AtomicLongArray(STATUSES.length))
+                .addAndGet(task.getStatus().ordinal(), delta);
+    }
+
+    private static long[] snapshot(AtomicLongArray counters) {
+        final long[] values = new long[counters.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = counters.get(i);
+        }
+        return values;
+    }
+}
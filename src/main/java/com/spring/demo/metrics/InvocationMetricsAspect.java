@@ -0,0 +1,55 @@
+package com.spring.demo.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Latency timers for the service implementations and the JDBC and in-memory repositories.
+ * <p>
+ * JPA repositories are already timed by Spring Boot as {@code spring.data.repository.invocations};
+ * the other repositories are recorded under the same name and tags so every profile shows up in one metric.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class InvocationMetricsAspect {
+    static final String SERVICE_INVOCATIONS = "service.invocations";
+    static final String REPOSITORY_INVOCATIONS = "spring.data.repository.invocations";
+
+    private final MeterRegistry registry;
+
+    @Around("within(com.spring.demo.implementation..service..*)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(joinPoint, SERVICE_INVOCATIONS, "service");
+    }
+
+    @Around("within(com.spring.demo.implementation.jdbc.repository..*) || within(com.spring.demo.implementation.memory.repository..*)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(joinPoint, REPOSITORY_INVOCATIONS, "repository");
+    }
+
+    private Object record(ProceedingJoinPoint joinPoint, String name, String typeTag) throws Throwable {
+        final Timer.Sample sample = Timer.start(registry);
+        String state = "SUCCESS";
+        String exception = "None";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            state = "ERROR";
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .tag(typeTag, joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("state", state)
+                    .tag("exception", exception)
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.spring.demo.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig {
+
+    // static: the post processor has to exist before the DataSource bean is created
+    @Bean
+    public static BeanPostProcessor roundTripCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof RoundTripCountingDataSource)) {
+                    return new RoundTripCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<RoundTripMetricsFilter> roundTripMetricsFilter(MeterRegistry registry) {
+        final FilterRegistrationBean<RoundTripMetricsFilter> registration = new FilterRegistrationBean<>(new RoundTripMetricsFilter(registry));
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    // picked up by Boot's application task executor
+    @Bean
+    public TaskDecorator roundTripCounterTaskDecorator() {
+        return RoundTripCounter.propagate();
+    }
+}
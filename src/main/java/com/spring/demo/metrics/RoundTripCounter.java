@@ -0,0 +1,50 @@
+package com.spring.demo.metrics;
+
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-request count of database round trips, opened and closed around each HTTP request by {@link RoundTripMetricsFilter}.
+ * {@link #propagate()} carries the count over to tasks the request hands to the application task executor.
+ */
+public final class RoundTripCounter {
+    private static final ThreadLocal<AtomicInteger> COUNT = new ThreadLocal<>();
+
+    private RoundTripCounter() {
+    }
+
+    static void start() {
+        COUNT.set(new AtomicInteger());
+    }
+
+    static int stop() {
+        final AtomicInteger count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count.get();
+    }
+
+    static void increment() {
+        final AtomicInteger count = COUNT.get();
+        if (count != null) {
+            count.incrementAndGet();
+        }
+    }
+
+    static TaskDecorator propagate() {
+        return task -> {
+            final AtomicInteger count = COUNT.get();
+            if (count == null) {
+                return task;
+            }
+            return () -> {
+                COUNT.set(count);
+                try {
+                    task.run();
+                } finally {
+                    COUNT.remove();
+                }
+            };
+        };
+    }
+}
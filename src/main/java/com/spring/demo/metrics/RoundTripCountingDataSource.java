@@ -0,0 +1,74 @@
+package com.spring.demo.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Counts every statement execution (one batch counts once) towards the {@link RoundTripCounter} of the current thread.
+ */
+public class RoundTripCountingDataSource extends DelegatingDataSource {
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch"
+    );
+
+    public RoundTripCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, super.getConnection(), this::wrapStatement);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, super.getConnection(username, password), this::wrapStatement);
+    }
+
+    private Object wrapStatement(Method method, Object result) {
+        return switch (method.getName()) {
+            case "createStatement" -> proxy(Statement.class, result, this::countExecution);
+            case "prepareStatement" -> proxy(PreparedStatement.class, result, this::countExecution);
+            case "prepareCall" -> proxy(CallableStatement.class, result, this::countExecution);
+            default -> result;
+        };
+    }
+
+    private Object countExecution(Method method, Object result) {
+        if (EXECUTE_METHODS.contains(method.getName())) {
+            RoundTripCounter.increment();
+        }
+        return result;
+    }
+
+    private <T> T proxy(Class<T> type, Object target, ResultHandler handler) {
+        final InvocationHandler invocationHandler = (proxy, method, args) -> switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> {
+                try {
+                    yield handler.handle(method, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, invocationHandler));
+    }
+
+    @FunctionalInterface
+    private interface ResultHandler {
+        Object handle(Method method, Object result);
+    }
+}
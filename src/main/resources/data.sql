@@ -4,7 +4,7 @@ create sequence project_id_seq start with 1 increment by 1;
 create sequence task_id_seq start with 1 increment by 1;
 
 -- Používatelia: id, name, email
-INSERT INTO user VALUES
+INSERT INTO user (id, name, email) VALUES
 (next value for user_id_seq, 'Richard Mrkvicka', 'jozko.mrkvicka@gmail.com'),
 (next value for user_id_seq, 'Maria Terezia', 'maria.terezia@gmail.com'),
 (next value for user_id_seq, 'Albert Einstein', 'albert.einstein@gmail.com'),
@@ -12,7 +12,7 @@ INSERT INTO user VALUES
 (next value for user_id_seq, 'Nikola Tesla', 'nikola.tesla@gmail.com');
 
 -- Projekty: id, user_id, name, description, created_at
-INSERT INTO project VALUES
+INSERT INTO project (id, user_id, name, description, created_at) VALUES
 (next value for project_id_seq, 1, 'Jozkov projekt', 'Tasky v robote', CURRENT_TIMESTAMP),
 (next value for project_id_seq, 2, 'Projekt Marie Terezie', 'Moj Todolist', CURRENT_TIMESTAMP),
 (next value for project_id_seq, 3, 'Relativita', 'Výpočty ohýbania časopriestoru', CURRENT_TIMESTAMP),
@@ -20,7 +20,7 @@ INSERT INTO project VALUES
 (next value for project_id_seq, 5, 'Elektrický prúd', 'Testovanie vysokofrekvenčných prúdov', CURRENT_TIMESTAMP);
 
 -- Tasky: id, user_id, project_id, name, description, status, created_at
-INSERT INTO task VALUES
+INSERT INTO task (id, user_id, project_id, name, description, status, created_at) VALUES
 (next value for task_id_seq, 1, 1, 'Spravit API', 'API ma byt pre noveho klienta', 'DONE', CURRENT_TIMESTAMP),
 (next value for task_id_seq, 1, 1, 'Otestovat API', 'Unit testy + integracne testy', 'NEW', CURRENT_TIMESTAMP),
 (next value for task_id_seq, 2, 2, 'Kupit mame darcek', null, 'NEW', CURRENT_TIMESTAMP),
@@ -1,8 +1,13 @@
+-- Stamps every insert and update of user, project and task, list ETags take the highest stamp of the listed rows
+CREATE SEQUENCE IF NOT EXISTS change_seq;
+
 DROP TABLE IF EXISTS user;
 CREATE TABLE user (
   id bigint NOT NULL AUTO_INCREMENT,
   name varchar(45) NOT NULL,
   email varchar(45) NOT NULL UNIQUE,
+  version bigint NOT NULL DEFAULT 0,
+  changed bigint NOT NULL DEFAULT NEXT VALUE FOR change_seq ON UPDATE NEXT VALUE FOR change_seq,
   PRIMARY KEY (id)
 );
 
@@ -13,8 +18,10 @@ CREATE TABLE project (
   name varchar(45) NOT NULL UNIQUE,
   description varchar(160),
   created_at datetime NOT NULL,
+  version bigint NOT NULL DEFAULT 0,
+  changed bigint NOT NULL DEFAULT NEXT VALUE FOR change_seq ON UPDATE NEXT VALUE FOR change_seq,
   PRIMARY KEY (id),
-  CONSTRAINT project_user_id_fk FOREIGN KEY (user_id) REFERENCES user (id)
+  CONSTRAINT project_user_id_fk FOREIGN KEY (user_id) REFERENCES user (id) ON DELETE CASCADE
 );
 
 DROP TABLE IF EXISTS task;
@@ -26,7 +33,15 @@ CREATE TABLE task (
   description varchar(160),
   status varchar(15) NOT NULL,
   created_at datetime NOT NULL,
+  version bigint NOT NULL DEFAULT 0,
+  changed bigint NOT NULL DEFAULT NEXT VALUE FOR change_seq ON UPDATE NEXT VALUE FOR change_seq,
   PRIMARY KEY (id),
-  CONSTRAINT task_user_id_fk FOREIGN KEY (user_id) REFERENCES user (id),
-  CONSTRAINT task_project_id_fk FOREIGN KEY (project_id) REFERENCES project (id)
-);
\ No newline at end of file
+  CONSTRAINT task_user_id_fk FOREIGN KEY (user_id) REFERENCES user (id) ON DELETE CASCADE,
+  CONSTRAINT task_project_id_fk FOREIGN KEY (project_id) REFERENCES project (id) ON DELETE CASCADE
+);
+
+-- Keyset pagination: (fk, id) lets "WHERE fk = ? AND id > ? ORDER BY id LIMIT ?" run as an index range scan
+CREATE INDEX task_user_id_idx ON task (user_id, id);
+CREATE INDEX task_project_id_idx ON task (project_id, id);
+-- Rebuilding the status index and the fallback status page both read by status
+CREATE INDEX task_status_idx ON task (status, id);
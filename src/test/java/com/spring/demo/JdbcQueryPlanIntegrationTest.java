@@ -0,0 +1,10 @@
+package com.spring.demo;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * {@link QueryPlanIntegrationTest} against the jdbc profile, the default build only runs the jpa statements.
+ */
+@ActiveProfiles("jdbc")
+public class JdbcQueryPlanIntegrationTest extends QueryPlanIntegrationTest {
+}
@@ -3,18 +3,31 @@ package com.spring.demo;
 import com.spring.demo.api.exception.ResourceNotFoundException;
 import com.spring.demo.api.request.ProjectAddRequest;
 import com.spring.demo.api.request.ProjectEditRequest;
+import com.spring.demo.api.request.TaskAddRequest;
+import com.spring.demo.api.request.TaskChangeStatusRequest;
 import com.spring.demo.domain.Project;
+import com.spring.demo.domain.ProjectStats;
+import com.spring.demo.domain.TaskChange;
+import com.spring.demo.domain.TaskChangeType;
+import com.spring.demo.domain.TaskStatus;
+import com.spring.demo.implementation.feed.TaskChangeFeed;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Duration;
 import java.util.List;
 
 public class ProjectIntegrationTest extends IntegrationTest {
+    @Autowired
+    private TaskChangeFeed changeFeed;
+
     @Test
     public void getAllProjects() {
         final ResponseEntity<List<Project>> projectResponse = restTemplate.exchange(
@@ -106,6 +119,26 @@ public class ProjectIntegrationTest extends IntegrationTest {
         Assertions.assertEquals(HttpStatus.NOT_FOUND, getResponse.getStatusCode());
     }
 
+    @Test
+    public void deleteProjectWithTasks() throws InterruptedException {
+        final long projectId = insertTestProject(generateRandomProject());
+        final Long taskId = restTemplate.postForEntity("/task", new TaskAddRequest(1L, projectId, "Cascaded task", null), Long.class).getBody();
+        final Long otherTaskId = restTemplate.postForEntity("/task", new TaskAddRequest(2L, projectId, "Cascaded task", null), Long.class).getBody();
+
+        final List<TaskChange> changes;
+        try (TaskChangeFeed.Subscription subscription = changeFeed.subscribe(null)) {
+            restTemplate.delete("/project/" + projectId);
+            changes = subscription.poll(1000, Duration.ZERO);
+        }
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, restTemplate.getForEntity("/task/" + taskId, String.class).getStatusCode());
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, restTemplate.getForEntity("/task/" + otherTaskId, String.class).getStatusCode());
+        // one change for the project's tasks, the rows are not fanned out one by one
+        Assertions.assertEquals(1, changes.stream()
+                .filter(change -> change.getType() == TaskChangeType.TASKS_DELETED && change.concernsProject(projectId))
+                .count(), "Expected one bulk delete of the project's tasks, got " + changes);
+        Assertions.assertTrue(changes.stream().noneMatch(change -> change.getType() == TaskChangeType.DELETED), "Expected no per-task deletes, got " + changes);
+    }
+
     @Test
     public void updateProject(){
         final ProjectAddRequest request = generateRandomProject();
@@ -131,7 +164,81 @@ public class ProjectIntegrationTest extends IntegrationTest {
         Assertions.assertEquals(editRequest.getName(), projectResponse.getBody().getName());
         Assertions.assertEquals(editRequest.getDescription(), projectResponse.getBody().getDescription());
     }
+    @Test
+    public void updateProjectIfMatch(){
+        final long projectId = insertTestProject(generateRandomProject());
+        final String etag = restTemplate.getForEntity("/project/" + projectId, Project.class).getHeaders().getETag();
+        Assertions.assertNotNull(etag, "ETag should be present");
+
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(etag);
+        final HttpEntity<ProjectEditRequest> edit = new HttpEntity<>(new ProjectEditRequest("ifMatchName", "ifMatchDescription"), headers);
+        Assertions.assertEquals(HttpStatus.NO_CONTENT,
+                restTemplate.exchange("/project/" + projectId, HttpMethod.PUT, edit, Void.class).getStatusCode());
+        // the first write moved the version on, the same ETag is stale now
+        Assertions.assertEquals(HttpStatus.CONFLICT,
+                restTemplate.exchange("/project/" + projectId, HttpMethod.PUT, edit, String.class).getStatusCode());
+    }
+
+    @Test
+    public void updateMissingProject(){
+        final ResponseEntity<String> updateResponse = restTemplate.exchange(
+                "/project/" + Long.MAX_VALUE,
+                HttpMethod.PUT,
+                new HttpEntity<>(new ProjectEditRequest("editedName", "editedDescription")),
+                String.class
+        );
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, updateResponse.getStatusCode());
+    }
+    @Test
+    public void getProjectsByUserIfNoneMatch(){
+        final long projectId = insertTestProject(generateRandomProject());
+        final String listEtag = restTemplate.getForEntity("/project?userId=1", String.class).getHeaders().getETag();
+        final String projectEtag = restTemplate.getForEntity("/project/" + projectId, String.class).getHeaders().getETag();
+        Assertions.assertNotNull(listEtag, "ETag should be present");
+        Assertions.assertNotNull(projectEtag, "ETag should be present");
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, getIfNoneMatch("/project?userId=1", listEtag).getStatusCode());
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, getIfNoneMatch("/project/" + projectId, projectEtag).getStatusCode());
+
+        restTemplate.put("/project/" + projectId, new ProjectEditRequest("edited " + System.nanoTime(), "editedDescription"));
+        Assertions.assertEquals(HttpStatus.OK, getIfNoneMatch("/project?userId=1", listEtag).getStatusCode());
+        Assertions.assertEquals(HttpStatus.OK, getIfNoneMatch("/project/" + projectId, projectEtag).getStatusCode());
+    }
+
+    @Test
+    public void getProjectStats(){
+        final long projectId = insertTestProject(generateRandomProject());
+        final Long doneTaskId = restTemplate.postForEntity("/task", new TaskAddRequest(1L, projectId, "done task", null), Long.class).getBody();
+        final Long deletedTaskId = restTemplate.postForEntity("/task", new TaskAddRequest(1L, projectId, "deleted task", null), Long.class).getBody();
+        restTemplate.postForEntity("/task", new TaskAddRequest(1L, projectId, "new task", null), Long.class);
+        restTemplate.put("/task/" + doneTaskId + "/status", new TaskChangeStatusRequest(TaskStatus.DONE));
+        restTemplate.delete("/task/" + deletedTaskId);
+
+        final ResponseEntity<ProjectStats> statsResponse = restTemplate.getForEntity(
+                "/project/" + projectId + "/stats",
+                ProjectStats.class
+        );
+        Assertions.assertEquals(HttpStatus.OK, statsResponse.getStatusCode());
+        Assertions.assertNotNull(statsResponse.getBody());
+        Assertions.assertEquals(2, statsResponse.getBody().getTotal());
+        Assertions.assertEquals(1, statsResponse.getBody().getCounts().get(TaskStatus.NEW));
+        Assertions.assertEquals(1, statsResponse.getBody().getCounts().get(TaskStatus.DONE));
+        Assertions.assertEquals(0, statsResponse.getBody().getCounts().get(TaskStatus.IN_PROGRESS));
+
+        final ResponseEntity<String> missingResponse = restTemplate.getForEntity(
+                "/project/" + Long.MAX_VALUE + "/stats",
+                String.class
+        );
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, missingResponse.getStatusCode());
+    }
+
     // UTILS
+    private ResponseEntity<String> getIfNoneMatch(String url, String etag) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
     private ProjectAddRequest generateRandomProject() {
         return new ProjectAddRequest(
                 1L,
@@ -0,0 +1,306 @@
+package com.spring.demo;
+
+import com.spring.demo.api.ProjectService;
+import com.spring.demo.api.TaskService;
+import com.spring.demo.api.UserService;
+import com.spring.demo.api.request.ProjectAddRequest;
+import com.spring.demo.api.request.ProjectEditRequest;
+import com.spring.demo.api.request.TaskAddRequest;
+import com.spring.demo.api.request.TaskEditRequest;
+import com.spring.demo.api.request.UserAddRequest;
+import com.spring.demo.domain.TaskStatus;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.junit.jupiter.DisabledIf;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Runs every service method of the active profile against a seeded database, records each distinct SQL statement
+ * with the parameters it ran with and fails when H2's EXPLAIN shows a table scan for one of them.
+ * <p>
+ * Statements without a WHERE clause and GROUP BY aggregates (the project stats rebuild) read the whole table on
+ * purpose and may scan. The memory profile has no SQL to check, {@link JdbcQueryPlanIntegrationTest} repeats the run
+ * for the jdbc profile whichever profile the build is on.
+ */
+@DisabledIf(expression = "#{environment.matchesProfiles('memory')}", loadContext = true)
+@Import(QueryPlanIntegrationTest.StatementCaptureConfig.class)
+public class QueryPlanIntegrationTest extends IntegrationTest {
+    private static final int USERS = 200;
+    private static final int TASKS = 20_000;
+    private static final Pattern WHERE = Pattern.compile("\\bwhere\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern GROUP_BY = Pattern.compile("\\bgroup\\s+by\\b", Pattern.CASE_INSENSITIVE);
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "addBatch");
+
+    // statements keyed by SQL, the value holds the parameters of their first execution
+    private static final Map<String, Map<Integer, Object>> statements = new LinkedHashMap<>();
+    private static volatile boolean capturing;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ProjectService projectService;
+    @Autowired
+    private TaskService taskService;
+
+    @Test
+    public void everyFilteredStatementUsesAnIndex() throws SQLException {
+        // the jdbc subclass runs in the same JVM, it must not explain the statements of another profile
+        synchronized (statements) {
+            statements.clear();
+        }
+        seed();
+        capturing = true;
+        try {
+            exerciseServices();
+        } finally {
+            capturing = false;
+        }
+        Assertions.assertFalse(statements.isEmpty(), "No statements were captured");
+
+        final Map<String, String> scans = new TreeMap<>();
+        try (Connection connection = jdbcTemplate.getDataSource().getConnection()) {
+            synchronized (statements) {
+                for (Map.Entry<String, Map<Integer, Object>> statement : statements.entrySet()) {
+                    final String plan = explain(connection, statement.getKey(), statement.getValue());
+                    if (plan.contains(".tableScan") && mustUseIndex(statement.getKey())) {
+                        scans.put(statement.getKey(), plan);
+                    }
+                }
+            }
+        }
+        Assertions.assertTrue(scans.isEmpty(), () -> "Statements falling back to a table scan:\n" + String.join("\n\n", scans.values()));
+    }
+
+    private static boolean mustUseIndex(String sql) {
+        return WHERE.matcher(sql).find() && !GROUP_BY.matcher(sql).find();
+    }
+
+    private void seed() {
+        final Timestamp now = Timestamp.from(Instant.now());
+        final String prefix = UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.batchUpdate("INSERT INTO user (id, name, email) VALUES (next value for user_id_seq, ?, ?)", IntStream.range(0, USERS).boxed().toList(), 1000,
+                (stmt, i) -> {
+                    stmt.setString(1, "Plan user " + i);
+                    stmt.setString(2, prefix + "-plan" + i + "@example.com");
+                });
+        final List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM user WHERE email LIKE ? ORDER BY id", Long.class, prefix + "-plan%");
+        jdbcTemplate.batchUpdate("INSERT INTO project (id, user_id, name, created_at) VALUES (next value for project_id_seq, ?, ?, ?)", IntStream.range(0, USERS).boxed().toList(), 1000,
+                (stmt, i) -> {
+                    stmt.setLong(1, userIds.get(i));
+                    stmt.setString(2, prefix + " plan project " + i);
+                    stmt.setTimestamp(3, now);
+                });
+        final List<Long> projectIds = jdbcTemplate.queryForList("SELECT id FROM project WHERE name LIKE ? ORDER BY id", Long.class, prefix + " plan project%");
+        final TaskStatus[] statuses = TaskStatus.values();
+        jdbcTemplate.batchUpdate("INSERT INTO task (id, user_id, project_id, name, description, status, created_at)" +
+                        " VALUES (next value for task_id_seq, ?, ?, ?, ?, ?, ?)",
+                IntStream.range(0, TASKS).boxed().toList(), 1000,
+                (stmt, i) -> {
+                    stmt.setLong(1, userIds.get(i % USERS));
+                    stmt.setLong(2, projectIds.get(i % USERS));
+                    stmt.setString(3, "Plan task " + i);
+                    stmt.setString(4, "Seeded for query plans");
+                    stmt.setString(5, statuses[i % statuses.length].name());
+                    stmt.setTimestamp(6, now);
+                });
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    private void exerciseServices() {
+        final long userId = userService.add(new UserAddRequest("Plan user", UUID.randomUUID().toString().substring(0, 20) + "@example.com"));
+        userService.get(userId);
+        userService.getAll();
+        userService.getPage(0, 10);
+        userService.getVersion(userId);
+        userService.getPageVersion(0, 10);
+
+        final long projectId = projectService.add(new ProjectAddRequest(userId, "Plan " + UUID.randomUUID().toString().substring(0, 30), null));
+        final long otherProjectId = projectService.add(new ProjectAddRequest(userId, "Plan " + UUID.randomUUID().toString().substring(0, 30), null));
+        projectService.get(projectId);
+        projectService.getAll();
+        projectService.getAllByUser(userId);
+        projectService.getPage(0, 10);
+        projectService.getVersion(projectId);
+        projectService.getAllVersionByUser(userId);
+        projectService.getPageVersion(0, 10);
+        projectService.edit(projectId, new ProjectEditRequest("Plan edited " + UUID.randomUUID().toString().substring(0, 20), null));
+        projectService.edit(projectId, new ProjectEditRequest("Plan edited " + UUID.randomUUID().toString().substring(0, 20), null),
+                projectService.getVersion(projectId));
+
+        final long taskId = taskService.add(new TaskAddRequest(userId, projectId, "Plan task", "Plan description"));
+        final List<Long> batchIds = taskService.addAll(List.of(
+                new TaskAddRequest(userId, projectId, "Plan batch 1", null),
+                new TaskAddRequest(userId, null, "Plan batch 2", null)));
+        taskService.get(taskId);
+        taskService.getAll();
+        taskService.streamAll(1000, task -> {
+        });
+        taskService.getAllByUserId(userId);
+        taskService.getAllByProjectId(projectId);
+        taskService.getPage(0, 10);
+        taskService.getPageByUserId(userId, 0, 10);
+        taskService.getPageByProjectId(projectId, 0, 10);
+        taskService.getPageByStatus(TaskStatus.NEW, 0, 10);
+        taskService.getIdsByStatus(TaskStatus.DONE);
+        taskService.getVersion(taskId);
+        taskService.getAllVersionByUserId(userId);
+        taskService.getAllVersionByProjectId(projectId);
+        taskService.getPageVersion(0, 10);
+        taskService.getPageVersionByUserId(userId, 0, 10);
+        taskService.getPageVersionByProjectId(projectId, 0, 10);
+        taskService.getPageVersionByStatus(TaskStatus.NEW, 0, 10);
+        taskService.countByProjectAndStatus();
+        taskService.search("plan", userId, 0, 10);
+        taskService.edit(taskId, new TaskEditRequest("Plan edited", null, TaskStatus.IN_PROGRESS.name()));
+        taskService.edit(taskId, new TaskEditRequest("Plan edited", null, TaskStatus.IN_PROGRESS.name()), taskService.getVersion(taskId));
+        taskService.changeStatus(taskId, TaskStatus.DONE);
+        taskService.changeStatus(taskId, TaskStatus.NEW, taskService.getVersion(taskId));
+        taskService.assignProject(taskId, otherProjectId);
+        taskService.assignProject(taskId, projectId, taskService.getVersion(taskId));
+        taskService.changeStatusByProjectId(projectId, TaskStatus.IN_PROGRESS);
+        taskService.changeStatusByUserId(userId, TaskStatus.NEW);
+        taskService.assignProjectByProjectId(projectId, otherProjectId);
+        taskService.assignProjectByProjectId(otherProjectId, projectId);
+        taskService.delete(batchIds.getFirst());
+        taskService.delete(batchIds.getLast(), taskService.getVersion(batchIds.getLast()));
+
+        projectService.delete(otherProjectId);
+        userService.delete(userId);
+    }
+
+    private static String explain(Connection connection, String sql, Map<Integer, Object> parameters) throws SQLException {
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                explain.setObject(parameter.getKey(), parameter.getValue());
+            }
+            final StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = explain.executeQuery()) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1));
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+        @Bean
+        static BeanPostProcessor statementCapturingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof StatementCapturingDataSource)) {
+                        return new StatementCapturingDataSource(dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    static class StatementCapturingDataSource extends DelegatingDataSource {
+        StatementCapturingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            final Connection connection = super.getConnection();
+            return proxy(Connection.class, (method, args) -> {
+                final Object result = invoke(connection, method, args);
+                if (method.getName().equals("prepareStatement")) {
+                    return capturing((PreparedStatement) result, (String) args[0]);
+                }
+                if (method.getName().equals("createStatement")) {
+                    return capturing((Statement) result);
+                }
+                return result;
+            });
+        }
+
+        private static PreparedStatement capturing(PreparedStatement statement, String sql) {
+            final Map<Integer, Object> parameters = new TreeMap<>();
+            return proxy(PreparedStatement.class, (method, args) -> {
+                final String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    parameters.put(index, name.equals("setNull") ? null : args[1]);
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                } else if (EXECUTE_METHODS.contains(name) && (args == null || args.length == 0)) {
+                    record(sql, parameters);
+                }
+                return invoke(statement, method, args);
+            });
+        }
+
+        private static Statement capturing(Statement statement) {
+            return proxy(Statement.class, (method, args) -> {
+                if (EXECUTE_METHODS.contains(method.getName()) && args != null && args.length > 0 && args[0] instanceof String sql) {
+                    record(sql, Map.of());
+                }
+                return invoke(statement, method, args);
+            });
+        }
+
+        private static void record(String sql, Map<Integer, Object> parameters) {
+            if (capturing) {
+                synchronized (statements) {
+                    statements.putIfAbsent(sql, new TreeMap<>(parameters));
+                }
+            }
+        }
+
+        private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, Handler handler) {
+            final InvocationHandler invocationHandler = (proxy, method, args) -> switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> handler.handle(method, args);
+            };
+            return (T) Proxy.newProxyInstance(StatementCapturingDataSource.class.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+        }
+
+        @FunctionalInterface
+        private interface Handler {
+            Object handle(java.lang.reflect.Method method, Object[] args) throws Throwable;
+        }
+    }
+}
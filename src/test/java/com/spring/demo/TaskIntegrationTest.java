@@ -1,23 +1,114 @@
 package com.spring.demo;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.demo.api.codec.CompactCodec;
+import com.spring.demo.api.ProjectService;
+import com.spring.demo.api.TaskService;
+import com.spring.demo.api.UserService;
+import com.spring.demo.api.event.TaskChangedEvent;
+import com.spring.demo.api.exception.InternalErrorException;
 import com.spring.demo.api.exception.ResourceNotFoundException;
+import com.spring.demo.api.request.BatchOperation;
+import com.spring.demo.api.request.ProjectAddRequest;
 import com.spring.demo.api.request.TaskAddRequest;
 import com.spring.demo.api.request.TaskAssignStatusRequest;
 import com.spring.demo.api.request.TaskChangeStatusRequest;
 import com.spring.demo.api.request.TaskEditRequest;
+import com.spring.demo.api.request.UserAddRequest;
+import com.spring.demo.domain.BatchOperationType;
+import com.spring.demo.domain.BatchResult;
+import com.spring.demo.domain.ExportJob;
+import com.spring.demo.domain.ImportJob;
+import com.spring.demo.domain.ImportRowError;
+import com.spring.demo.domain.JobStatus;
+import com.spring.demo.domain.ListVersion;
+import com.spring.demo.domain.ProjectStats;
 import com.spring.demo.domain.Task;
+import com.spring.demo.domain.TaskChange;
 import com.spring.demo.domain.TaskStatus;
+import com.spring.demo.implementation.concurrent.LookupScope;
+import com.spring.demo.implementation.concurrent.LookupScopes;
+import com.spring.demo.implementation.export.TaskExporter;
+import com.spring.demo.implementation.feed.TaskChangeFeed;
+import com.spring.demo.implementation.groupcommit.GroupCommitExecutor;
+import com.spring.demo.implementation.groupcommit.GroupCommitOperation;
+import com.spring.demo.implementation.groupcommit.GroupCommitProperties;
+import com.spring.demo.implementation.importing.ImportFailedException;
+import com.spring.demo.implementation.importing.ImportFormat;
+import com.spring.demo.implementation.importing.TaskImporter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.InvalidIsolationLevelException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 public class TaskIntegrationTest extends IntegrationTest {
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ProjectService projectService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private Environment environment;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TaskImporter taskImporter;
+    @Autowired
+    private LookupScopes lookupScopes;
+
     @Test
     public void getAllTasks() {
         final ResponseEntity<List<Task>> taskResponse = restTemplate.exchange(
@@ -32,6 +123,335 @@ public class TaskIntegrationTest extends IntegrationTest {
         Assertions.assertFalse(taskResponse.getBody().isEmpty());
     }
 
+    @Test
+    public void getTasksPaged() {
+        final ResponseEntity<List<Task>> firstPage = restTemplate.exchange(
+                "/task?limit=2",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                }
+        );
+        Assertions.assertEquals(HttpStatus.OK, firstPage.getStatusCode());
+        Assertions.assertNotNull(firstPage.getBody());
+        Assertions.assertEquals(2, firstPage.getBody().size());
+        final String cursor = firstPage.getHeaders().getFirst("X-Next-Cursor");
+        Assertions.assertNotNull(cursor, "Next cursor should be present");
+
+        final ResponseEntity<List<Task>> secondPage = restTemplate.exchange(
+                "/task?limit=2&after=" + cursor,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                }
+        );
+        Assertions.assertEquals(HttpStatus.OK, secondPage.getStatusCode());
+        Assertions.assertNotNull(secondPage.getBody());
+        Assertions.assertFalse(secondPage.getBody().isEmpty());
+        Assertions.assertTrue(secondPage.getBody().getFirst().getId() > firstPage.getBody().getLast().getId());
+    }
+
+    @Test
+    public void getTasksWithInvalidCursor() {
+        final ResponseEntity<String> taskResponse = restTemplate.getForEntity(
+                "/task?after=not-a-cursor",
+                String.class
+        );
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, taskResponse.getStatusCode());
+    }
+
+    @Test
+    public void getTasksByStatus() {
+        final long firstId = insertTestTask(generateRandomTask());
+        final long secondId = insertTestTask(generateRandomTask());
+        restTemplate.put("/task/" + firstId + "/status", new TaskChangeStatusRequest(TaskStatus.IN_PROGRESS));
+        restTemplate.put("/task/" + secondId + "/status", new TaskChangeStatusRequest(TaskStatus.IN_PROGRESS));
+
+        final List<Task> tasks = new ArrayList<>();
+        String cursor = "";
+        do {
+            final ResponseEntity<List<Task>> page = restTemplate.exchange(
+                    "/task?status=IN_PROGRESS&limit=1&after=" + cursor,
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<>() {
+                    }
+            );
+            Assertions.assertEquals(HttpStatus.OK, page.getStatusCode());
+            Assertions.assertNotNull(page.getBody());
+            tasks.addAll(page.getBody());
+            cursor = page.getHeaders().getFirst("X-Next-Cursor");
+        } while (cursor != null);
+
+        Assertions.assertTrue(tasks.stream().allMatch(task -> task.getStatus() == TaskStatus.IN_PROGRESS));
+        final List<Long> ids = tasks.stream().map(Task::getId).toList();
+        Assertions.assertTrue(ids.containsAll(List.of(firstId, secondId)));
+        Assertions.assertEquals(ids.stream().sorted().toList(), ids);
+    }
+
+    @Test
+    public void getTaskIfNoneMatch() {
+        final long taskId = insertTestTask(generateRandomTask());
+        final ResponseEntity<Task> first = restTemplate.getForEntity("/task/" + taskId, Task.class);
+        final String etag = first.getHeaders().getETag();
+        Assertions.assertNotNull(etag, "ETag should be present");
+
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, getIfNoneMatch("/task/" + taskId, etag).getStatusCode());
+
+        restTemplate.put("/task/" + taskId + "/status", new TaskChangeStatusRequest(TaskStatus.DONE));
+        final ResponseEntity<String> changed = getIfNoneMatch("/task/" + taskId, etag);
+        Assertions.assertEquals(HttpStatus.OK, changed.getStatusCode());
+        Assertions.assertNotEquals(etag, changed.getHeaders().getETag());
+    }
+
+    @Test
+    public void changeStatusIfMatch() {
+        final long taskId = insertTestTask(generateRandomTask());
+        final String etag = restTemplate.getForEntity("/task/" + taskId, Task.class).getHeaders().getETag();
+        Assertions.assertNotNull(etag, "ETag should be present");
+
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(etag);
+        final ResponseEntity<String> first = restTemplate.exchange("/task/" + taskId + "/status", HttpMethod.PUT,
+                new HttpEntity<>(new TaskChangeStatusRequest(TaskStatus.IN_PROGRESS), headers), String.class);
+        Assertions.assertEquals(HttpStatus.OK, first.getStatusCode());
+
+        final ResponseEntity<String> stale = restTemplate.exchange("/task/" + taskId + "/status", HttpMethod.PUT,
+                new HttpEntity<>(new TaskChangeStatusRequest(TaskStatus.DONE), headers), String.class);
+        Assertions.assertEquals(HttpStatus.CONFLICT, stale.getStatusCode());
+        Assertions.assertEquals(TaskStatus.IN_PROGRESS, restTemplate.getForObject("/task/" + taskId, Task.class).getStatus());
+
+        final HttpHeaders malformed = new HttpHeaders();
+        malformed.set(HttpHeaders.IF_MATCH, "W/" + etag);
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, restTemplate.exchange("/task/" + taskId, HttpMethod.DELETE,
+                new HttpEntity<>(malformed), String.class).getStatusCode());
+    }
+
+    @Test
+    public void getTasksByUserIfNoneMatch() {
+        final ResponseEntity<String> first = restTemplate.getForEntity("/task?userId=1", String.class);
+        final String etag = first.getHeaders().getETag();
+        Assertions.assertNotNull(etag, "ETag should be present");
+
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, getIfNoneMatch("/task?userId=1", etag).getStatusCode());
+
+        insertTestTask(generateRandomTask());
+        final ResponseEntity<String> changed = getIfNoneMatch("/task?userId=1", etag);
+        Assertions.assertEquals(HttpStatus.OK, changed.getStatusCode());
+        Assertions.assertNotEquals(etag, changed.getHeaders().getETag());
+    }
+
+    @Test
+    public void statusListVersionChangesWhenTasksSwapStatus() {
+        final List<Long> ids = taskService.addAll(List.of(generateRandomTask(), generateRandomTask(), generateRandomTask(), generateRandomTask()));
+        taskService.changeStatus(ids.get(1), TaskStatus.DONE);
+        taskService.changeStatus(ids.get(2), TaskStatus.DONE);
+        final ListVersion before = taskService.getPageVersionByStatus(TaskStatus.DONE, ids.getFirst() - 1, 10);
+
+        // with consecutive ids count, id sum and version sum of the DONE page all come out the same
+        taskService.changeStatus(ids.get(1), TaskStatus.NEW);
+        taskService.changeStatus(ids.get(2), TaskStatus.NEW);
+        taskService.changeStatus(ids.get(0), TaskStatus.DONE);
+        taskService.changeStatus(ids.get(3), TaskStatus.DONE);
+        final ListVersion after = taskService.getPageVersionByStatus(TaskStatus.DONE, ids.getFirst() - 1, 10);
+
+        Assertions.assertEquals(before.getCount(), after.getCount());
+        Assertions.assertNotEquals(before, after);
+    }
+
+    @Test
+    public void getTasksCompact() {
+        final ResponseEntity<List<Task>> json = restTemplate.exchange(
+                "/task?userId=1", HttpMethod.GET, null, new ParameterizedTypeReference<>() {}
+        );
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(CompactCodec.MEDIA_TYPE));
+        final ResponseEntity<byte[]> compact = restTemplate.exchange(
+                "/task?userId=1", HttpMethod.GET, new HttpEntity<>(headers), byte[].class
+        );
+        Assertions.assertEquals(HttpStatus.OK, compact.getStatusCode());
+        Assertions.assertTrue(CompactCodec.MEDIA_TYPE.isCompatibleWith(compact.getHeaders().getContentType()));
+        Assertions.assertNotEquals(json.getHeaders().getETag(), compact.getHeaders().getETag());
+        Assertions.assertEquals(List.of(HttpHeaders.ACCEPT), json.getHeaders().getVary());
+        Assertions.assertEquals(List.of(HttpHeaders.ACCEPT), compact.getHeaders().getVary());
+
+        // the 304 names Accept too, a cache holding the compact list must not answer a JSON request with it
+        headers.setIfNoneMatch(compact.getHeaders().getETag());
+        final ResponseEntity<byte[]> notModified = restTemplate.exchange(
+                "/task?userId=1", HttpMethod.GET, new HttpEntity<>(headers), byte[].class
+        );
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        Assertions.assertEquals(List.of(HttpHeaders.ACCEPT), notModified.getHeaders().getVary());
+        Assertions.assertEquals(List.of(HttpHeaders.ACCEPT), restTemplate.exchange(
+                "/task/search?q=task", HttpMethod.GET, new HttpEntity<>(headers), byte[].class).getHeaders().getVary());
+
+        final List<Task> decoded = Assertions.assertDoesNotThrow(() -> CompactCodec.decodeTasks(new ByteArrayInputStream(compact.getBody())));
+        Assertions.assertFalse(decoded.isEmpty());
+        Assertions.assertEquals(atUtc(json.getBody()), atUtc(decoded));
+    }
+
+    @Test
+    public void streamTaskChanges() {
+        final String name = "Streamed task " + System.nanoTime();
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(restTemplate.getRootUri() + "/task/stream?userId=1"))
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .build();
+        final List<String> received = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+            final HttpResponse<Stream<String>> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofLines());
+            Assertions.assertEquals(HttpStatus.OK.value(), response.statusCode());
+            try (Stream<String> lines = response.body()) {
+                final Iterator<String> iterator = lines.iterator();
+                Assertions.assertEquals(":subscribed", iterator.next());
+                insertTestTask(new TaskAddRequest(1L, 2L, name, null));
+                final List<String> event = new ArrayList<>();
+                while (iterator.hasNext()) {
+                    final String line = iterator.next();
+                    event.add(line);
+                    if (line.startsWith("data:") && line.contains(name)) {
+                        return event;
+                    }
+                }
+                return event;
+            }
+        });
+        Assertions.assertTrue(received.contains("event:ADDED"), "Expected an ADDED event, got " + received);
+        Assertions.assertTrue(received.getLast().contains(name));
+    }
+
+    @Test
+    public void taskChangeFeedCountsDropsOfLappedSubscribers() throws InterruptedException {
+        final TaskChangeFeed feed = new TaskChangeFeed(4, new SimpleMeterRegistry());
+        final Task task = new Task(1L, 1L, null, "Feed task", null, TaskStatus.NEW, OffsetDateTime.now());
+        try (TaskChangeFeed.Subscription subscription = feed.subscribe(null)) {
+            for (int i = 0; i < 10; i++) {
+                feed.onTaskChanged(TaskChangedEvent.added(task));
+            }
+            final List<TaskChange> changes = subscription.poll(100, Duration.ZERO);
+            Assertions.assertEquals(List.of(7L, 8L, 9L, 10L), changes.stream().map(TaskChange::getSequence).toList());
+            Assertions.assertEquals(6, subscription.dropped());
+        }
+    }
+
+    @Test
+    public void groupCommitBatchesConcurrentStatusChanges() throws Exception {
+        final GroupCommitProperties.Lane lane = new GroupCommitProperties.Lane();
+        lane.setEnabled(true);
+        lane.setMaxDelay(Duration.ofMillis(200));
+        final GroupCommitProperties properties = new GroupCommitProperties();
+        properties.getOperations().put(GroupCommitOperation.CHANGE_STATUS, lane);
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final GroupCommitExecutor groupCommit = new GroupCommitExecutor(properties, transactionManager, registry);
+
+        final List<Long> taskIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            taskIds.add(insertTestTask(generateRandomTask()));
+        }
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            final List<Future<?>> updates = new ArrayList<>();
+            for (long taskId : taskIds) {
+                updates.add(callers.submit(() -> groupCommit.run(GroupCommitOperation.CHANGE_STATUS,
+                        () -> taskService.changeStatus(taskId, TaskStatus.DONE))));
+            }
+            final Future<?> missing = callers.submit(() -> groupCommit.run(GroupCommitOperation.CHANGE_STATUS,
+                    () -> taskService.changeStatus(Long.MAX_VALUE, TaskStatus.DONE)));
+            for (Future<?> update : updates) {
+                update.get(10, TimeUnit.SECONDS);
+            }
+            final ExecutionException failure = Assertions.assertThrows(ExecutionException.class, () -> missing.get(10, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(ResourceNotFoundException.class, failure.getCause());
+        } finally {
+            groupCommit.shutdown();
+        }
+
+        for (long taskId : taskIds) {
+            Assertions.assertEquals(TaskStatus.DONE, taskService.get(taskId).getStatus());
+        }
+        final DistributionSummary batchSize = registry.get("task.group-commit.batch.size").summary();
+        Assertions.assertEquals(9, (long) batchSize.totalAmount());
+        Assertions.assertTrue(batchSize.count() < 9, "Expected operations to share batches");
+    }
+
+    @Test
+    public void groupCommitBoundsReplaysOfBatchWithSeveralFailures() throws Exception {
+        final GroupCommitProperties.Lane lane = new GroupCommitProperties.Lane();
+        lane.setEnabled(true);
+        lane.setMaxDelay(Duration.ofSeconds(1));
+        lane.setMaxReplays(1);
+        final GroupCommitProperties properties = new GroupCommitProperties();
+        properties.getOperations().put(GroupCommitOperation.CHANGE_STATUS, lane);
+        final GroupCommitExecutor groupCommit = new GroupCommitExecutor(properties, transactionManager, new SimpleMeterRegistry());
+
+        final List<Long> taskIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            taskIds.add(insertTestTask(generateRandomTask()));
+        }
+        final AtomicInteger validAttempts = new AtomicInteger();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            // queued in order within one batch: the valid operations first, then four that fail
+            final List<Future<?>> updates = new ArrayList<>();
+            for (long taskId : taskIds) {
+                updates.add(callers.submit(() -> groupCommit.run(GroupCommitOperation.CHANGE_STATUS, () -> {
+                    validAttempts.incrementAndGet();
+                    taskService.changeStatus(taskId, TaskStatus.DONE);
+                })));
+                Thread.sleep(20);
+            }
+            final List<Future<?>> missing = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                final long missingId = Long.MAX_VALUE - i;
+                missing.add(callers.submit(() -> groupCommit.run(GroupCommitOperation.CHANGE_STATUS,
+                        () -> taskService.changeStatus(missingId, TaskStatus.DONE))));
+                Thread.sleep(20);
+            }
+            for (Future<?> update : updates) {
+                update.get(10, TimeUnit.SECONDS);
+            }
+            for (Future<?> failed : missing) {
+                final ExecutionException failure = Assertions.assertThrows(ExecutionException.class, () -> failed.get(10, TimeUnit.SECONDS));
+                Assertions.assertInstanceOf(ResourceNotFoundException.class, failure.getCause());
+            }
+        } finally {
+            groupCommit.shutdown();
+        }
+
+        for (long taskId : taskIds) {
+            Assertions.assertEquals(TaskStatus.DONE, taskService.get(taskId).getStatus());
+        }
+        // the first pass and one replay run all four, then each commits alone; replaying per failure would take 20
+        Assertions.assertTrue(validAttempts.get() <= 12, "Valid operations ran " + validAttempts.get() + " times");
+        Assertions.assertThrows(InternalErrorException.class,
+                () -> groupCommit.run(GroupCommitOperation.CHANGE_STATUS, () -> taskService.changeStatus(taskIds.getFirst(), TaskStatus.NEW)));
+    }
+
+    @Test
+    public void searchTasks() {
+        final ResponseEntity<List<Task>> folded = restTemplate.exchange(
+                "/task/search?q=zmerat volt", HttpMethod.GET, null, new ParameterizedTypeReference<>() {}
+        );
+        Assertions.assertEquals(HttpStatus.OK, folded.getStatusCode());
+        Assertions.assertNotNull(folded.getBody());
+        Assertions.assertTrue(folded.getBody().stream().anyMatch(task -> task.getName().equals("Zmerať voltáž")));
+        final ResponseEntity<List<Task>> otherUser = restTemplate.exchange(
+                "/task/search?q=zmerat volt&userId=1", HttpMethod.GET, null, new ParameterizedTypeReference<>() {}
+        );
+        Assertions.assertEquals(List.of(), otherUser.getBody());
+
+        final String word = "Kľúčové" + System.nanoTime();
+        final long inDescription = insertTestTask(new TaskAddRequest(1L, 2L, "Search description", word));
+        final long inName = insertTestTask(new TaskAddRequest(1L, 2L, word, "Search name"));
+        final ResponseEntity<List<Task>> firstPage = restTemplate.exchange(
+                "/task/search?limit=1&q=" + word, HttpMethod.GET, null, new ParameterizedTypeReference<>() {}
+        );
+        Assertions.assertEquals(List.of(inName), firstPage.getBody().stream().map(Task::getId).toList());
+        final String cursor = firstPage.getHeaders().getFirst("X-Next-Cursor");
+        Assertions.assertNotNull(cursor, "Next cursor should be present");
+        final ResponseEntity<List<Task>> secondPage = restTemplate.exchange(
+                "/task/search?limit=1&after=" + cursor + "&q=" + word.toUpperCase(), HttpMethod.GET, null, new ParameterizedTypeReference<>() {}
+        );
+        Assertions.assertEquals(List.of(inDescription), secondPage.getBody().stream().map(Task::getId).toList());
+        Assertions.assertNull(secondPage.getHeaders().getFirst("X-Next-Cursor"));
+    }
+
     @Test
     public void getTaskById() {
         final ResponseEntity<Task> taskResponse = restTemplate.getForEntity(
@@ -43,6 +463,129 @@ public class TaskIntegrationTest extends IntegrationTest {
         Assertions.assertEquals(1L, taskResponse.getBody().getId());
     }
 
+    @Test
+    public void lookupScopeStopsAfterTheFirstFailure() throws InterruptedException {
+        // inside a transaction the forks run one by one on the calling thread, the failed one shuts the rest out
+        final AtomicBoolean laterForkRan = new AtomicBoolean();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try (LookupScope scope = lookupScopes.open()) {
+                scope.fork(() -> taskService.get(Long.MAX_VALUE));
+                scope.fork(() -> laterForkRan.getAndSet(true));
+                Assertions.assertThrows(ResourceNotFoundException.class, scope::join);
+            }
+        });
+        Assertions.assertFalse(laterForkRan.get());
+
+        // closing the scope leaves a running lookup alone instead of interrupting it
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+        try (LookupScope scope = lookupScopes.open()) {
+            scope.fork(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                    interrupted.complete(false);
+                } catch (InterruptedException e) {
+                    interrupted.complete(true);
+                }
+                return null;
+            });
+            Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+        }
+        release.countDown();
+        Assertions.assertFalse(interrupted.join());
+    }
+
+    @Test
+    public void memoryTransactionsAreReadUncommitted() {
+        Assumptions.assumeTrue(environment.matchesProfiles("memory"));
+        final long taskId = insertTestTask(generateRandomTask());
+        final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            taskService.changeStatus(taskId, TaskStatus.DONE);
+            // another thread already sees the uncommitted write
+            final TaskStatus seen = CompletableFuture.supplyAsync(() -> taskService.get(taskId).getStatus()).join();
+            Assertions.assertEquals(TaskStatus.DONE, seen);
+            status.setRollbackOnly();
+        });
+        Assertions.assertEquals(TaskStatus.NEW, taskService.get(taskId).getStatus());
+
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        Assertions.assertThrows(InvalidIsolationLevelException.class, () -> transaction.executeWithoutResult(status -> {
+        }));
+    }
+
+    @Test
+    public void memoryRollbackSkipsRowsDeletedInTheMeantime() {
+        Assumptions.assumeTrue(environment.matchesProfiles("memory"));
+        final long taskId = insertTestTask(generateRandomTask());
+        final long otherTaskId = insertTestTask(generateRandomTask());
+        final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            taskService.changeStatus(otherTaskId, TaskStatus.DONE);
+            taskService.changeStatus(taskId, TaskStatus.DONE);
+            // committed by another thread while this transaction is still open
+            CompletableFuture.runAsync(() -> taskService.delete(taskId)).join();
+            status.setRollbackOnly();
+        });
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, restTemplate.getForEntity("/task/" + taskId, String.class).getStatusCode());
+        // the undo of the deleted row is skipped, the older ones still run
+        Assertions.assertEquals(TaskStatus.NEW, taskService.get(otherTaskId).getStatus());
+    }
+
+    @Test
+    public void memoryReferencesToUncommittedRowsAreRefused() {
+        Assumptions.assumeTrue(environment.matchesProfiles("memory"));
+        final String email = "uncommitted" + System.nanoTime() + "@example.com";
+        final long[] userId = new long[1];
+        final List<ResponseEntity<String>> children = new ArrayList<>();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userId[0] = userService.add(new UserAddRequest("Uncommitted user", email));
+            // other requests see the user but may not build on it, the rollback would orphan their rows
+            children.add(CompletableFuture.supplyAsync(() -> restTemplate.postForEntity("/project",
+                    new ProjectAddRequest(userId[0], "Orphan " + System.nanoTime(), null), String.class)).join());
+            children.add(CompletableFuture.supplyAsync(() -> restTemplate.postForEntity("/task",
+                    new TaskAddRequest(userId[0], null, "Orphan", null), String.class)).join());
+            // the transaction itself may
+            projectService.add(new ProjectAddRequest(userId[0], "Own " + System.nanoTime(), null));
+            status.setRollbackOnly();
+        });
+        Assertions.assertEquals(List.of(HttpStatus.CONFLICT, HttpStatus.CONFLICT),
+                children.stream().map(ResponseEntity::getStatusCode).toList());
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, restTemplate.getForEntity("/user/" + userId[0], String.class).getStatusCode());
+
+        final long committedUserId = userService.add(new UserAddRequest("Committed user", email));
+        Assertions.assertEquals(HttpStatus.CREATED, restTemplate.postForEntity("/project",
+                new ProjectAddRequest(committedUserId, "Referenced " + System.nanoTime(), null), String.class).getStatusCode());
+    }
+
+    @Test
+    public void dataAccessMetrics() {
+        // connection pool and round trip metrics need a database
+        Assumptions.assumeFalse(environment.matchesProfiles("memory"));
+        Assertions.assertEquals(HttpStatus.OK, restTemplate.getForEntity("/task/1", Task.class).getStatusCode());
+
+        for (String metric : List.of("service.invocations", "spring.data.repository.invocations",
+                "http.server.requests.db.round.trips", "hikaricp.connections.acquire")) {
+            final ResponseEntity<Map> metricResponse = restTemplate.getForEntity(
+                    "/actuator/metrics/" + metric,
+                    Map.class
+            );
+            Assertions.assertEquals(HttpStatus.OK, metricResponse.getStatusCode(), metric + " should be registered");
+        }
+        final ResponseEntity<Map> roundTrips = restTemplate.getForEntity(
+                "/actuator/metrics/http.server.requests.db.round.trips?tag=uri:{uri}",
+                Map.class,
+                "/task/{id}"
+        );
+        Assertions.assertEquals(HttpStatus.OK, roundTrips.getStatusCode());
+        final List<Map<String, Object>> measurements = (List<Map<String, Object>>) roundTrips.getBody().get("measurements");
+        Assertions.assertTrue(measurements.stream()
+                .filter(m -> "TOTAL".equals(m.get("statistic")))
+                .allMatch(m -> ((Number) m.get("value")).doubleValue() >= 1));
+    }
+
     @Test
     public void getAllByUserId() {
         final ResponseEntity<List<Task>> taskResponse = restTemplate.exchange(
@@ -102,6 +645,44 @@ public class TaskIntegrationTest extends IntegrationTest {
         Assertions.assertNull(getResponse.getBody().getDescription(), "Task description should be null");
     }
 
+    @Test
+    public void insertTaskBatch() {
+        final List<TaskAddRequest> requests = List.of(generateRandomTask(), generateRandomTask(), generateRandomTask());
+        final ResponseEntity<List<Long>> batchResponse = restTemplate.exchange(
+                "/task/batch",
+                HttpMethod.POST,
+                new HttpEntity<>(requests),
+                new ParameterizedTypeReference<>() {
+                }
+        );
+        Assertions.assertEquals(HttpStatus.CREATED, batchResponse.getStatusCode());
+        Assertions.assertNotNull(batchResponse.getBody());
+        Assertions.assertEquals(requests.size(), batchResponse.getBody().size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            final ResponseEntity<Task> getResponse = restTemplate.getForEntity(
+                    "/task/" + batchResponse.getBody().get(i),
+                    Task.class
+            );
+            Assertions.assertEquals(HttpStatus.OK, getResponse.getStatusCode());
+            Assertions.assertNotNull(getResponse.getBody(), "Task should not be null");
+            Assertions.assertEquals(requests.get(i).getName(), getResponse.getBody().getName(), "Task name should match");
+            Assertions.assertEquals(TaskStatus.NEW, getResponse.getBody().getStatus(), "Task status should be NEW");
+        }
+    }
+
+    @Test
+    public void insertTaskBatchWithUnknownUser() {
+        final TaskAddRequest request = generateRandomTask();
+        request.setUserId(Long.MAX_VALUE);
+        final ResponseEntity<String> batchResponse = restTemplate.postForEntity(
+                "/task/batch",
+                List.of(generateRandomTask(), request),
+                String.class
+        );
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, batchResponse.getStatusCode());
+    }
+
     @Test
     public void deleteTask(){
         final TaskAddRequest request = generateRandomTask();
@@ -154,6 +735,24 @@ public class TaskIntegrationTest extends IntegrationTest {
         Assertions.assertEquals(TaskStatus.DONE, getResponse.getBody().getStatus(), "Task status should be DONE");
     }
 
+    @Test
+    public void updateTaskWithUnknownStatus() {
+        final TaskAddRequest request = generateRandomTask();
+        final long taskId = insertTestTask(request);
+
+        final ResponseEntity<String> updateResponse = restTemplate.exchange(
+                "/task/" + taskId,
+                HttpMethod.PUT,
+                new HttpEntity<>(new TaskEditRequest("Renamed " + request.getName(), null, "ARCHIVED")),
+                String.class
+        );
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, updateResponse.getStatusCode());
+        final Task task = restTemplate.getForEntity("/task/" + taskId, Task.class).getBody();
+        Assertions.assertNotNull(task);
+        Assertions.assertEquals(request.getName(), task.getName(), "A rejected edit must not change the task");
+        Assertions.assertEquals(TaskStatus.NEW, task.getStatus());
+    }
+
     @Test
     public void changeStatus() {
         final TaskAddRequest request = generateRandomTask();
@@ -179,6 +778,25 @@ public class TaskIntegrationTest extends IntegrationTest {
         Assertions.assertEquals(TaskStatus.IN_PROGRESS, getResponse.getBody().getStatus(), "Task status should be IN_PROGRESS");
     }
 
+    @Test
+    public void changeStatusOfMissingTask() {
+        final ResponseEntity<String> updateResponse = restTemplate.exchange(
+                "/task/" + Long.MAX_VALUE + "/status",
+                HttpMethod.PUT,
+                new HttpEntity<>(new TaskChangeStatusRequest(TaskStatus.DONE)),
+                String.class
+        );
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, updateResponse.getStatusCode());
+
+        final ResponseEntity<String> deleteResponse = restTemplate.exchange(
+                "/task/" + Long.MAX_VALUE,
+                HttpMethod.DELETE,
+                null,
+                String.class
+        );
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, deleteResponse.getStatusCode());
+    }
+
     @Test
     public void assignTask(){
         final TaskAddRequest request = generateRandomTask();
@@ -204,7 +822,336 @@ public class TaskIntegrationTest extends IntegrationTest {
 
     }
 
+    @Test
+    public void assignTaskWithMissingTaskOrProject(){
+        final long taskId = insertTestTask(generateRandomTask());
+
+        final ResponseEntity<String> missingProject = restTemplate.exchange(
+                "/task/" + taskId + "/assign",
+                HttpMethod.PUT,
+                new HttpEntity<>(new TaskAssignStatusRequest(Long.MAX_VALUE)),
+                String.class
+        );
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, missingProject.getStatusCode());
+
+        final ResponseEntity<String> missingTask = restTemplate.exchange(
+                "/task/" + Long.MAX_VALUE + "/assign",
+                HttpMethod.PUT,
+                new HttpEntity<>(new TaskAssignStatusRequest(1L)),
+                String.class
+        );
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, missingTask.getStatusCode());
+    }
+
+    @Test
+    public void exportTasks() throws Exception {
+        final ResponseEntity<ExportJob> started = restTemplate.postForEntity("/export/tasks", null, ExportJob.class);
+        Assertions.assertEquals(HttpStatus.ACCEPTED, started.getStatusCode());
+        final String jobId = started.getBody().getId();
+        Assertions.assertEquals(URI.create("/export/" + jobId), started.getHeaders().getLocation());
+
+        ResponseEntity<ExportJob> status = restTemplate.getForEntity("/export/" + jobId, ExportJob.class);
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (status.getBody().getStatus() == JobStatus.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            status = restTemplate.getForEntity("/export/" + jobId, ExportJob.class);
+        }
+        final List<Long> expectedIds = taskService.getAll().stream()
+                .map(Task::getId)
+                .sorted()
+                .toList();
+        Assertions.assertEquals(JobStatus.DONE, status.getBody().getStatus());
+        Assertions.assertEquals(expectedIds.size(), status.getBody().getRows());
+        Assertions.assertEquals("</export/" + jobId + "/download>; rel=\"download\"", status.getHeaders().getFirst(HttpHeaders.LINK));
+
+        final ResponseEntity<byte[]> download = restTemplate.getForEntity("/export/" + jobId + "/download", byte[].class);
+        Assertions.assertEquals(HttpStatus.OK, download.getStatusCode());
+        Assertions.assertEquals("application/gzip", download.getHeaders().getContentType().toString());
+        Assertions.assertEquals(status.getBody().getBytes(), download.getBody().length);
+        final List<Long> exportedIds = new ArrayList<>();
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(download.getBody())), StandardCharsets.UTF_8))) {
+            for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                exportedIds.add(objectMapper.readValue(line, Task.class).getId());
+            }
+        }
+        Assertions.assertEquals(expectedIds, exportedIds);
+
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, restTemplate.getForEntity("/export/missing", String.class).getStatusCode());
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, restTemplate.getForEntity("/export/missing/download", String.class).getStatusCode());
+    }
+
+    @Test
+    public void exportCleanupRemovesFilesOfEarlierRuns(@TempDir Path directory) throws IOException {
+        final TaskExporter exporter = new TaskExporter(taskService, Runnable::run, objectMapper, directory, 1000, Duration.ofHours(1));
+        final FileTime expired = FileTime.from(Instant.now().minus(Duration.ofHours(2)));
+        final Path oldExport = Files.createFile(directory.resolve("old.ndjson.gz"));
+        final Path abandonedPart = Files.createFile(directory.resolve("crashed.ndjson.gz.part"));
+        final Path unrelated = Files.createFile(directory.resolve("notes.txt"));
+        for (Path file : List.of(oldExport, abandonedPart, unrelated)) {
+            Files.setLastModifiedTime(file, expired);
+        }
+        final Path recentExport = Files.createFile(directory.resolve("recent.ndjson.gz"));
+
+        // none of these files has a job in memory, as after a restart
+        exporter.removeExpired();
+        Assertions.assertFalse(Files.exists(oldExport));
+        Assertions.assertFalse(Files.exists(abandonedPart));
+        Assertions.assertTrue(Files.exists(recentExport));
+        Assertions.assertTrue(Files.exists(unrelated));
+    }
+
+    @Test
+    public void importTasksFromNdjson() {
+        final String name = "Imported " + System.nanoTime();
+        final String body = String.join("\n",
+                "{\"userId\": 1, \"projectId\": 1, \"name\": \"" + name + " a\", \"description\": \"first\"}",
+                "{\"userId\": " + Long.MAX_VALUE + ", \"name\": \"unknown user\"}",
+                "{\"userId\": 1, \"name\": ",
+                "",
+                "{\"userId\": 2, \"name\": \"" + name + " b\"}",
+                "{\"userId\": 2, \"projectId\": " + Long.MAX_VALUE + ", \"name\": \"unknown project\"}",
+                "{\"userId\": 2, \"name\": \"" + "x".repeat(46) + "\"}",
+                "{\"userId\": 2, \"name\": \"" + "x".repeat(70_000) + "\"}",
+                "{\"userId\": " + Long.MAX_VALUE + ", \"name\": \"after the long line\"}");
+        final ResponseEntity<ImportJob> response = postImport(body, "application/x-ndjson");
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        final ImportJob job = response.getBody();
+        Assertions.assertEquals(JobStatus.DONE, job.getStatus());
+        Assertions.assertEquals(8, job.getRows());
+        Assertions.assertEquals(2, job.getImported());
+        Assertions.assertEquals(6, job.getFailed());
+        Assertions.assertEquals(List.of(2L, 3L, 6L, 7L, 8L, 9L), job.getErrors().stream().map(ImportRowError::getLine).toList());
+        Assertions.assertEquals("User not found with id: " + Long.MAX_VALUE, job.getErrors().getFirst().getMessage());
+        Assertions.assertEquals("Line longer than 65536 characters", job.getErrors().get(4).getMessage());
+        Assertions.assertEquals(URI.create("/import/" + job.getId()), response.getHeaders().getLocation());
+
+        final List<Task> imported = taskService.getAll().stream()
+                .filter(task -> task.getName().startsWith(name))
+                .sorted(Comparator.comparingLong(Task::getId))
+                .toList();
+        Assertions.assertEquals(List.of(name + " a", name + " b"), imported.stream().map(Task::getName).toList());
+        Assertions.assertEquals(1L, imported.getFirst().getProjectId());
+        Assertions.assertNull(imported.getLast().getProjectId());
+        Assertions.assertEquals(TaskStatus.NEW, imported.getLast().getStatus());
+
+        final ResponseEntity<ImportJob> status = restTemplate.getForEntity("/import/" + job.getId(), ImportJob.class);
+        Assertions.assertEquals(HttpStatus.OK, status.getStatusCode());
+        Assertions.assertEquals(job.getImported(), status.getBody().getImported());
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, restTemplate.getForEntity("/import/missing", String.class).getStatusCode());
+    }
+
+    @Test
+    public void importTasksFromCsv() {
+        final String name = "Csv " + System.nanoTime();
+        final String body = "name,userId,projectId,description,ignored\r\n"
+                + name + ",1,1,\"plain, with comma\",x\r\n"
+                + "\"" + name + " \"\"quoted\"\"\",1,,\"two\nlines\",x\r\n"
+                + name + " no user,,,,x\r\n"
+                + name + " short row,1\r\n";
+        final ResponseEntity<ImportJob> response = postImport(body, "text/csv");
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        final ImportJob job = response.getBody();
+        Assertions.assertEquals(JobStatus.DONE, job.getStatus());
+        Assertions.assertEquals(4, job.getRows());
+        Assertions.assertEquals(2, job.getImported());
+        Assertions.assertEquals(List.of(5L, 6L), job.getErrors().stream().map(ImportRowError::getLine).toList());
+
+        final List<Task> imported = taskService.getAll().stream()
+                .filter(task -> task.getName().startsWith(name))
+                .sorted(Comparator.comparingLong(Task::getId))
+                .toList();
+        Assertions.assertEquals(2, imported.size());
+        Assertions.assertEquals("plain, with comma", imported.getFirst().getDescription());
+        Assertions.assertEquals(name + " \"quoted\"", imported.getLast().getName());
+        Assertions.assertEquals("two\nlines", imported.getLast().getDescription());
+        Assertions.assertNull(imported.getLast().getProjectId());
+
+        final ResponseEntity<ImportJob> missingHeader = postImport("userId,description\r\n1,x\r\n", "text/csv");
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, missingHeader.getStatusCode());
+        Assertions.assertEquals(JobStatus.FAILED, missingHeader.getBody().getStatus());
+        Assertions.assertEquals(URI.create("/import/" + missingHeader.getBody().getId()), missingHeader.getHeaders().getLocation());
+        Assertions.assertNotNull(missingHeader.getBody().getError());
+        Assertions.assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, restTemplate.exchange("/import/tasks", HttpMethod.POST,
+                new HttpEntity<>("<tasks/>", contentType(MediaType.APPLICATION_XML)), String.class).getStatusCode());
+    }
+
+    @Test
+    public void importFailsWhenTheUploadBreaksOff() {
+        final String name = "Broken " + System.nanoTime();
+        final Reader upload = new Reader() {
+            private final Reader firstRow = new StringReader("{\"userId\": 1, \"name\": \"" + name + "\"}\n");
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                final int read = firstRow.read(buffer, offset, length);
+                if (read < 0) {
+                    throw new IOException("Connection reset");
+                }
+                return read;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        final String jobId = taskImporter.start();
+        final ImportFailedException failure = Assertions.assertThrows(ImportFailedException.class,
+                () -> taskImporter.run(jobId, ImportFormat.NDJSON, new BufferedReader(upload)));
+        Assertions.assertTrue(failure.isUploadRejected());
+        final ImportJob job = failure.getJob();
+        Assertions.assertEquals(JobStatus.FAILED, job.getStatus());
+        Assertions.assertEquals("Connection reset", job.getError());
+        // the row before the break was still waiting for its batch, nothing was written
+        Assertions.assertEquals(0, job.getImported());
+        Assertions.assertTrue(taskService.getAll().stream().noneMatch(task -> task.getName().equals(name)));
+        Assertions.assertEquals(JobStatus.FAILED, restTemplate.getForEntity("/import/" + jobId, ImportJob.class).getBody().getStatus());
+    }
+
+    private ResponseEntity<ImportJob> postImport(String body, String contentType) {
+        return restTemplate.exchange("/import/tasks", HttpMethod.POST,
+                new HttpEntity<>(body, contentType(MediaType.parseMediaType(contentType))), ImportJob.class);
+    }
+
+    private static HttpHeaders contentType(MediaType mediaType) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(mediaType);
+        return headers;
+    }
+
+    @Test
+    public void bulkChangeStatusAndAssign() {
+        final long userId = ((Number) restTemplate.postForEntity("/user",
+                new UserAddRequest("Bulk user", "bulk" + System.nanoTime() + "@example.com"), Map.class).getBody().get("id")).longValue();
+        final long fromProjectId = restTemplate.postForEntity("/project",
+                new ProjectAddRequest(userId, "Bulk from " + System.nanoTime(), null), Long.class).getBody();
+        final long toProjectId = restTemplate.postForEntity("/project",
+                new ProjectAddRequest(userId, "Bulk to " + System.nanoTime(), null), Long.class).getBody();
+        final List<Long> ownTaskIds = taskService.addAll(List.of(
+                new TaskAddRequest(userId, fromProjectId, "Bulk 1", null),
+                new TaskAddRequest(userId, fromProjectId, "Bulk 2", null),
+                new TaskAddRequest(userId, fromProjectId, "Bulk 3", null)));
+        final long foreignTaskId = taskService.add(new TaskAddRequest(2L, fromProjectId, "Bulk foreign", null));
+        final long versionBefore = taskService.getVersion(ownTaskIds.getFirst());
+
+        Assertions.assertEquals(4, bulkStatus("projectId=" + fromProjectId, TaskStatus.DONE).getBody());
+        Assertions.assertEquals(0, bulkStatus("projectId=" + fromProjectId, TaskStatus.DONE).getBody());
+        Assertions.assertEquals(versionBefore + 1, taskService.getVersion(ownTaskIds.getFirst()));
+        Assertions.assertEquals(4, projectStats(fromProjectId).getCounts().get(TaskStatus.DONE));
+
+        final ResponseEntity<Integer> assigned = restTemplate.exchange(
+                "/task/assign?fromProjectId=" + fromProjectId + "&toProjectId=" + toProjectId, HttpMethod.PUT, null, Integer.class);
+        Assertions.assertEquals(HttpStatus.OK, assigned.getStatusCode());
+        Assertions.assertEquals(3, assigned.getBody());
+        Assertions.assertEquals(List.of(foreignTaskId), taskService.getAllByProjectId(fromProjectId).stream().map(Task::getId).toList());
+        Assertions.assertEquals(ownTaskIds, taskService.getAllByProjectId(toProjectId).stream().map(Task::getId).sorted().toList());
+        Assertions.assertTrue(taskService.getAllByProjectId(toProjectId).stream().allMatch(task -> task.getStatus() == TaskStatus.DONE));
+        Assertions.assertEquals(1, taskService.countByProjectAndStatus().stream()
+                .filter(count -> count.getProjectId() == toProjectId)
+                .count());
+        Assertions.assertEquals(1, projectStats(fromProjectId).getTotal());
+        Assertions.assertEquals(3, projectStats(toProjectId).getCounts().get(TaskStatus.DONE));
+
+        Assertions.assertEquals(3, bulkStatus("userId=" + userId, TaskStatus.NEW).getBody());
+        Assertions.assertEquals(TaskStatus.DONE, taskService.get(foreignTaskId).getStatus());
+        Assertions.assertEquals(3, projectStats(toProjectId).getCounts().get(TaskStatus.NEW));
+        Assertions.assertEquals(1, projectStats(fromProjectId).getCounts().get(TaskStatus.DONE));
+
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, restTemplate.exchange("/task/status?userId=" + userId + "&projectId=" + toProjectId,
+                HttpMethod.PUT, new HttpEntity<>(new TaskChangeStatusRequest(TaskStatus.NEW)), String.class).getStatusCode());
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, restTemplate.exchange("/task/status",
+                HttpMethod.PUT, new HttpEntity<>(new TaskChangeStatusRequest(TaskStatus.NEW)), String.class).getStatusCode());
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, restTemplate.exchange("/task/status?projectId=" + Long.MAX_VALUE,
+                HttpMethod.PUT, new HttpEntity<>(new TaskChangeStatusRequest(TaskStatus.NEW)), String.class).getStatusCode());
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, restTemplate.exchange("/task/assign?fromProjectId=" + fromProjectId + "&toProjectId=" + Long.MAX_VALUE,
+                HttpMethod.PUT, null, String.class).getStatusCode());
+    }
+
+    @Test
+    public void batchRunsOperationsInOneTransaction() {
+        final String email = "batch" + System.nanoTime() + "@example.com";
+        final ResponseEntity<List<BatchResult>> response = batch(List.of(
+                batchOperation(BatchOperationType.ADD_USER, "u", null, null, null, "Batch user", email, null),
+                batchOperation(BatchOperationType.ADD_PROJECT, "p", null, "$u", null, "Batch project " + System.nanoTime(), null, null),
+                batchOperation(BatchOperationType.ADD_TASK, "t1", null, "$u", "$p", "Batch 1", null, null),
+                batchOperation(BatchOperationType.ADD_TASK, "t2", null, "$u", null, "Batch 2", null, null),
+                batchOperation(BatchOperationType.ADD_TASK, null, null, "$u", "$p", "Batch 3", null, null),
+                batchOperation(BatchOperationType.ASSIGN_TASK, null, "$t2", null, "$p", null, null, null),
+                batchOperation(BatchOperationType.CHANGE_TASK_STATUS, null, "$t1", null, null, null, null, "DONE"),
+                batchOperation(BatchOperationType.EDIT_PROJECT, null, "$p", null, null, "Batch project renamed", null, null)));
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        final List<BatchResult> results = response.getBody();
+        Assertions.assertEquals(8, results.size());
+        Assertions.assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7), results.stream().map(BatchResult::getIndex).toList());
+        final long userId = results.get(0).getId();
+        final long projectId = results.get(1).getId();
+        final long taskId = results.get(2).getId();
+        Assertions.assertEquals(results.get(3).getId(), results.get(5).getId());
+        Assertions.assertEquals(taskId, results.get(6).getId());
+
+        final List<Task> tasks = taskService.getAllByProjectId(projectId);
+        Assertions.assertEquals(3, tasks.size());
+        Assertions.assertTrue(tasks.stream().allMatch(task -> task.getUserId() == userId));
+        Assertions.assertEquals(TaskStatus.DONE, taskService.get(taskId).getStatus());
+        Assertions.assertEquals("Batch project renamed",
+                restTemplate.getForEntity("/project/" + projectId, Map.class).getBody().get("name"));
+
+        // the failing operation takes the user created before it along
+        final String otherEmail = "batch" + System.nanoTime() + "@example.com";
+        final ResponseEntity<String> failed = restTemplate.postForEntity("/batch", List.of(
+                batchOperation(BatchOperationType.ADD_USER, "u", null, null, null, "Batch user", otherEmail, null),
+                batchOperation(BatchOperationType.ADD_TASK, null, null, "$u", null, "Batch lost", null, null),
+                batchOperation(BatchOperationType.CHANGE_TASK_STATUS, null, String.valueOf(Long.MAX_VALUE), null, null, null, null, "DONE")), String.class);
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, failed.getStatusCode());
+        Assertions.assertTrue(failed.getBody().contains("Operation 2 (CHANGE_TASK_STATUS)"));
+        Assertions.assertEquals(HttpStatus.OK, batch(List.of(
+                batchOperation(BatchOperationType.ADD_USER, null, null, null, null, "Batch user", otherEmail, null))).getStatusCode());
+
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, restTemplate.postForEntity("/batch", List.of(
+                batchOperation(BatchOperationType.ADD_TASK, null, null, "$nobody", null, "Batch", null, null)), String.class).getStatusCode());
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, restTemplate.postForEntity("/batch", List.of(
+                batchOperation(BatchOperationType.ADD_PROJECT, "p", null, "1", null, "Batch " + System.nanoTime(), null, null),
+                batchOperation(BatchOperationType.DELETE_TASK, null, "$p", null, null, null, null, null)), String.class).getStatusCode());
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, restTemplate.postForEntity("/batch", List.of(), String.class).getStatusCode());
+        final ResponseEntity<String> unknownStatus = restTemplate.postForEntity("/batch", List.of(
+                batchOperation(BatchOperationType.CHANGE_TASK_STATUS, null, String.valueOf(taskId), null, null, null, null, "done")), String.class);
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, unknownStatus.getStatusCode());
+        Assertions.assertTrue(unknownStatus.getBody().contains("Unknown status: done"));
+    }
+
+    private ResponseEntity<List<BatchResult>> batch(List<BatchOperation> operations) {
+        return restTemplate.exchange("/batch", HttpMethod.POST, new HttpEntity<>(operations), new ParameterizedTypeReference<>() {});
+    }
+
+    private static BatchOperation batchOperation(BatchOperationType op, String ref, String id, String userId, String projectId,
+                                                 String name, String email, String status) {
+        return new BatchOperation(op, ref, id, userId, projectId, name, email, null, status, null);
+    }
+
+    private ProjectStats projectStats(long projectId) {
+        return restTemplate.getForObject("/project/" + projectId + "/stats", ProjectStats.class);
+    }
+
+    private ResponseEntity<Integer> bulkStatus(String filter, TaskStatus status) {
+        final ResponseEntity<Integer> response = restTemplate.exchange("/task/status?" + filter, HttpMethod.PUT,
+                new HttpEntity<>(new TaskChangeStatusRequest(status)), Integer.class);
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response;
+    }
+
+    private static List<Task> atUtc(List<Task> tasks) {
+        return tasks.stream()
+                .map(task -> task.withCreatedAt(task.getCreatedAt().withOffsetSameInstant(ZoneOffset.UTC)))
+                .toList();
+    }
+
     // utility method to generate a random task request
+    private ResponseEntity<String> getIfNoneMatch(String url, String etag) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
     private TaskAddRequest generateRandomTask() {
         return new TaskAddRequest(
                 1L, 
@@ -2,19 +2,31 @@ package com.spring.demo;
 
 import com.spring.demo.api.exception.BadRequestException;
 import com.spring.demo.api.exception.ResourceNotFoundException;
+import com.spring.demo.api.request.ProjectAddRequest;
+import com.spring.demo.api.request.TaskAddRequest;
 import com.spring.demo.api.request.UserAddRequest;
+import com.spring.demo.domain.ProjectStats;
+import com.spring.demo.domain.TaskChange;
+import com.spring.demo.domain.TaskChangeType;
 import com.spring.demo.domain.User;
+import com.spring.demo.implementation.feed.TaskChangeFeed;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 public class UserIntegrationTests extends IntegrationTest {
+    @Autowired
+    private TaskChangeFeed changeFeed;
+
     @Test
     public void getAllUsers() {
         final ResponseEntity<List<User>> userResponse = restTemplate.exchange(
@@ -54,6 +66,56 @@ public class UserIntegrationTests extends IntegrationTest {
         Assertions.assertEquals(HttpStatus.NOT_FOUND, getResponse.getStatusCode());
     }
 
+    @Test
+    public void deleteUserWithProjectsAndTasks() throws InterruptedException {
+        final long id = insertUser(generateRandomUser());
+        final ResponseEntity<Long> projectResponse = restTemplate.postForEntity(
+                "/project",
+                new ProjectAddRequest(id, "Project " + UUID.randomUUID(), null),
+                Long.class
+        );
+        Assertions.assertEquals(HttpStatus.CREATED, projectResponse.getStatusCode());
+        final ResponseEntity<Long> taskResponse = restTemplate.postForEntity(
+                "/task",
+                new TaskAddRequest(id, projectResponse.getBody(), "Task " + System.currentTimeMillis(), null),
+                Long.class
+        );
+        Assertions.assertEquals(HttpStatus.CREATED, taskResponse.getStatusCode());
+        // another user's task in the deleted user's project is removed with it as well
+        final ResponseEntity<Long> otherTaskResponse = restTemplate.postForEntity(
+                "/task",
+                new TaskAddRequest(1L, projectResponse.getBody(), "Task " + System.currentTimeMillis(), null),
+                Long.class
+        );
+        Assertions.assertEquals(HttpStatus.CREATED, otherTaskResponse.getStatusCode());
+        // and the deleted user's task in another user's project leaves that project's counts
+        final long otherProjectId = restTemplate.postForEntity("/project", new ProjectAddRequest(1L, "Project " + UUID.randomUUID(), null), Long.class).getBody();
+        restTemplate.postForEntity("/task", new TaskAddRequest(id, otherProjectId, "Task " + System.currentTimeMillis(), null), Long.class);
+        Assertions.assertEquals(1, restTemplate.getForObject("/project/" + otherProjectId + "/stats", ProjectStats.class).getTotal());
+
+        final List<TaskChange> changes;
+        try (TaskChangeFeed.Subscription subscription = changeFeed.subscribe(null)) {
+            final ResponseEntity<Void> deleteResponse = restTemplate.exchange(
+                    "/user/" + id,
+                    HttpMethod.DELETE,
+                    null,
+                    Void.class
+            );
+            Assertions.assertEquals(HttpStatus.OK, deleteResponse.getStatusCode());
+            changes = subscription.poll(1000, Duration.ZERO);
+        }
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, restTemplate.getForEntity("/project/" + projectResponse.getBody(), String.class).getStatusCode());
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, restTemplate.getForEntity("/task/" + taskResponse.getBody(), String.class).getStatusCode());
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, restTemplate.getForEntity("/task/" + otherTaskResponse.getBody(), String.class).getStatusCode());
+        // the cascade is announced per project and user, not per task
+        Assertions.assertTrue(changes.stream().anyMatch(change -> change.getType() == TaskChangeType.TASKS_DELETED
+                && change.concernsProject(projectResponse.getBody())), "Expected a bulk delete of the project's tasks, got " + changes);
+        Assertions.assertTrue(changes.stream().anyMatch(change -> change.getType() == TaskChangeType.TASKS_DELETED
+                && change.concernsUser(id)), "Expected a bulk delete of the user's tasks, got " + changes);
+        Assertions.assertTrue(changes.stream().noneMatch(change -> change.getType() == TaskChangeType.DELETED), "Expected no per-task deletes, got " + changes);
+        Assertions.assertEquals(0, restTemplate.getForObject("/project/" + otherProjectId + "/stats", ProjectStats.class).getTotal());
+    }
+
     @Test
     public void existingEmailInsert(){
         final UserAddRequest request = generateRandomUser();
@@ -85,6 +147,28 @@ public class UserIntegrationTests extends IntegrationTest {
         Assertions.assertEquals(request.getEmail(), userBody.getEmail());
     }
 
+    @Test
+    public void cachedUserLookup(){
+        final long id = insertUser(generateRandomUser());
+
+        for (int i = 0; i < 2; i++) {
+            final ResponseEntity<User> user = restTemplate.getForEntity(
+                    "/user/" + id,
+                    User.class
+            );
+            Assertions.assertEquals(HttpStatus.OK, user.getStatusCode());
+        }
+
+        final ResponseEntity<Map> hits = restTemplate.getForEntity(
+                "/actuator/metrics/cache.gets?tag=cache:users&tag=result:hit",
+                Map.class
+        );
+        Assertions.assertEquals(HttpStatus.OK, hits.getStatusCode());
+        Assertions.assertNotNull(hits.getBody());
+        final List<Map<String, Object>> measurements = (List<Map<String, Object>>) hits.getBody().get("measurements");
+        Assertions.assertTrue(((Number) measurements.getFirst().get("value")).doubleValue() >= 1);
+    }
+
     private UserAddRequest generateRandomUser() {
         return new UserAddRequest(
                 "name" + System.currentTimeMillis(),